@@ -0,0 +1,113 @@
+package Benchmark;
+
+import Employee.Employee;
+import Employee.EmployeeService;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static Jdbc.query.Conditions.equal;
+
+/**
+ * Data set of database benchmarks. All seeded employees belong to {@link #DEPARTMENT}, so they can be
+ * removed after the run without touching other rows of the table.
+ *
+ * Size is configured with system properties: benchmark.employees (number of seeded employees),
+ * benchmark.resumeBytes (size of uploaded resume) and benchmark.noteCharacters (size of uploaded big note).
+ */
+public class BenchmarkData {
+
+    public static final String DEPARTMENT = "Benchmark";
+
+    private static final String[] FIRST_NAMES = {"John", "Jan", "Mary", "Robert", "Anna", "Piotr"};
+    private static final String[] LAST_NAMES = {"Kowalski", "Nowak", "Public", "Smith", "Wisniewski", "Doe"};
+
+    private final int employees;
+    private final int resumeBytes;
+    private final int noteCharacters;
+    private final Random random = new Random(42);
+    private int[] employeeIds;
+    private Path resumeFile;
+    private Path noteFile;
+
+    public BenchmarkData(int employees, int resumeBytes, int noteCharacters) {
+        this.employees = employees;
+        this.resumeBytes = resumeBytes;
+        this.noteCharacters = noteCharacters;
+    }
+
+    public static BenchmarkData fromSystemProperties() {
+        return new BenchmarkData(Integer.getInteger("benchmark.employees", 1000),
+                Integer.getInteger("benchmark.resumeBytes", 1 << 20),
+                Integer.getInteger("benchmark.noteCharacters", 256 * 1024));
+    }
+
+    /**
+     * Removes employees left by previous run, inserts new ones and creates LOB files in temporary directory.
+     */
+    public void seed(EmployeeService employeeService) throws SQLException, IOException {
+        cleanUp(employeeService);
+        employeeIds = employeeService.insertAll(newEmployees(employees)).getGeneratedIds();
+
+        Path directory = Files.createTempDirectory("jdbc-benchmark");
+        resumeFile = directory.resolve("resume.bin");
+        byte[] resume = new byte[resumeBytes];
+        random.nextBytes(resume);
+        Files.write(resumeFile, resume);
+
+        noteFile = directory.resolve("note.txt");
+        try (Writer writer = Files.newBufferedWriter(noteFile, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < noteCharacters; i++) {
+                //every 16th character is outside of ASCII, so the note exercises multi byte decoding
+                writer.write(i % 16 == 15 ? '\u0142' : (char) ('a' + random.nextInt(26)));
+            }
+        }
+    }
+
+    public void cleanUp(EmployeeService employeeService) throws SQLException, IOException {
+        employeeService.delete(equal("department", DEPARTMENT));
+        if (resumeFile != null) {
+            Files.deleteIfExists(resumeFile);
+            Files.deleteIfExists(noteFile);
+            Files.deleteIfExists(resumeFile.getParent());
+        }
+    }
+
+    public List<Employee> newEmployees(int count) {
+        List<Employee> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            result.add(new Employee(0, lastName, firstName,
+                    (firstName + "." + lastName + random.nextInt(1_000_000) + "@benchmark.com").toLowerCase(),
+                    DEPARTMENT, 3000 + random.nextInt(7000)));
+        }
+        return result;
+    }
+
+    /**
+     * @return randomly chosen id of seeded employee
+     */
+    public int nextEmployeeId() {
+        return employeeIds[random.nextInt(employeeIds.length)];
+    }
+
+    public Path getResumeFile() {
+        return resumeFile;
+    }
+
+    public Path getNoteFile() {
+        return noteFile;
+    }
+
+    public int getEmployees() {
+        return employees;
+    }
+}
@@ -0,0 +1,126 @@
+package Benchmark;
+
+import java.util.Locale;
+
+public class BenchmarkResult {
+
+    static final String CSV_HEADER = "name,operations,opsPerSecond,nanosPerOperation,bytesPerOperation," +
+            "allocationMBPerSecond,gcCount,gcMillis,p50Nanos,p90Nanos,p99Nanos,p999Nanos,maxNanos";
+
+    private final String name;
+    private final long operations;
+    private final long elapsedNanos;
+    private final long allocatedBytes;
+    private final long gcCount;
+    private final long gcMillis;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    BenchmarkResult(String name, long operations, long elapsedNanos, long allocatedBytes, long gcCount, long gcMillis,
+                    long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+        this.name = name;
+        this.operations = operations;
+        this.elapsedNanos = elapsedNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.gcCount = gcCount;
+        this.gcMillis = gcMillis;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getOperations() {
+        return operations;
+    }
+
+    public double getOperationsPerSecond() {
+        return elapsedNanos == 0 ? 0 : operations * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public double getNanosPerOperation() {
+        return operations == 0 ? 0 : (double) elapsedNanos / operations;
+    }
+
+    /**
+     * @return bytes allocated by benchmark thread per operation, -1 when JVM cannot measure it
+     */
+    public double getBytesPerOperation() {
+        if (allocatedBytes < 0) {
+            return -1;
+        }
+        return operations == 0 ? 0 : (double) allocatedBytes / operations;
+    }
+
+    /**
+     * @return MB allocated by benchmark thread per second, -1 when JVM cannot measure it
+     */
+    public double getAllocationMBPerSecond() {
+        if (allocatedBytes < 0) {
+            return -1;
+        }
+        return elapsedNanos == 0 ? 0 : allocatedBytes * 1000.0 / elapsedNanos;
+    }
+
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public long getGcMillis() {
+        return gcMillis;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    String toCsv() {
+        return String.format(Locale.ROOT, "\"%s\",%d,%.1f,%.1f,%.1f,%.2f,%d,%d,%d,%d,%d,%d,%d",
+                name.replace("\"", "\"\""), operations, getOperationsPerSecond(), getNanosPerOperation(),
+                getBytesPerOperation(), getAllocationMBPerSecond(), gcCount, gcMillis,
+                p50Nanos, p90Nanos, p99Nanos, p999Nanos, maxNanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-40s %12.0f ops/s %10.1f B/op %8.1f MB/s gc %d (%d ms) " +
+                        "p50 %s p90 %s p99 %s p99.9 %s max %s",
+                name, getOperationsPerSecond(), getBytesPerOperation(), getAllocationMBPerSecond(), gcCount, gcMillis,
+                formatNanos(p50Nanos), formatNanos(p90Nanos), formatNanos(p99Nanos), formatNanos(p999Nanos),
+                formatNanos(maxNanos));
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 10_000) {
+            return nanos + " ns";
+        }
+        if (nanos < 10_000_000) {
+            return nanos / 1_000 + " us";
+        }
+        return nanos / 1_000_000 + " ms";
+    }
+}
@@ -0,0 +1,151 @@
+package Benchmark;
+
+import Jdbc.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal micro benchmark harness: runs operation in warmup and measurement iterations of fixed time
+ * and reports throughput, latency percentiles, bytes allocated per operation by the benchmark thread,
+ * allocation rate and garbage collections which happened during measurement.
+ *
+ * Every operation is timed separately, so reported numbers include cost of System.nanoTime() (tens of ns),
+ * which matters only for the shortest operations like query building.
+ * Allocation is read from com.sun.management.ThreadMXBean, on JVMs without it bytes per operation are -1.
+ */
+public class BenchmarkRunner {
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationMillis;
+    private final com.sun.management.ThreadMXBean threadBean;
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final PrintStream output = System.out;
+    private LatencyHistogram histogram = new LatencyHistogram();
+    private final List<BenchmarkResult> results = new ArrayList<>();
+
+    private volatile int sink;
+
+    public BenchmarkRunner(int warmupIterations, int measurementIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationMillis = iterationMillis;
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            this.threadBean = (com.sun.management.ThreadMXBean) bean;
+            this.threadBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            this.threadBean = null;
+        }
+    }
+
+    /**
+     * Reads runner settings from system properties benchmark.warmupIterations, benchmark.measurementIterations
+     * and benchmark.iterationMillis, missing ones are taken from given defaults.
+     */
+    public static BenchmarkRunner fromSystemProperties(int warmupIterations, int measurementIterations,
+                                                       long iterationMillis) {
+        return new BenchmarkRunner(Integer.getInteger("benchmark.warmupIterations", warmupIterations),
+                Integer.getInteger("benchmark.measurementIterations", measurementIterations),
+                Long.getLong("benchmark.iterationMillis", iterationMillis));
+    }
+
+    public BenchmarkResult run(String name, Operation operation) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(operation);
+        }
+
+        histogram = new LatencyHistogram();
+        long operations = 0;
+        long nanos = 0;
+        long bytes = 0;
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+        for (int i = 0; i < measurementIterations; i++) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            operations += iteration(operation);
+            nanos += System.nanoTime() - start;
+            bytes += allocatedBytes() - allocatedBefore;
+        }
+
+        BenchmarkResult result = new BenchmarkResult(name, operations, nanos, threadBean == null ? -1 : bytes,
+                gcCount() - gcCountBefore, gcMillis() - gcMillisBefore,
+                histogram.getPercentileNanos(50), histogram.getPercentileNanos(90),
+                histogram.getPercentileNanos(99), histogram.getPercentileNanos(99.9), histogram.getMaxNanos());
+        results.add(result);
+        output.println(result);
+        return result;
+    }
+
+    public List<BenchmarkResult> getResults() {
+        return new ArrayList<>(results);
+    }
+
+    /**
+     * Writes results of all benchmarks run so far as CSV, so they can be compared between releases.
+     */
+    public void writeCsv(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(BenchmarkResult.CSV_HEADER);
+        for (BenchmarkResult result : results) {
+            lines.add(result.toCsv());
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    private long iteration(Operation operation) throws Exception {
+        long deadline = System.nanoTime() + iterationMillis * 1_000_000;
+        long operations = 0;
+        int hash = 0;
+        long now = System.nanoTime();
+        do {
+            Object result = operation.run();
+            hash += result == null ? 0 : result.hashCode();
+            long end = System.nanoTime();
+            histogram.record(end - now);
+            now = end;
+            operations++;
+        } while (now < deadline);
+        sink += hash;
+        return operations;
+    }
+
+    private long allocatedBytes() {
+        return threadBean == null ? 0 : threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    /**
+     * Measured operation. Result is consumed by the runner, so JIT cannot remove the work as dead code.
+     */
+    @FunctionalInterface
+    public interface Operation {
+        Object run() throws Exception;
+    }
+}
@@ -0,0 +1,104 @@
+package Benchmark;
+
+import Employee.EmployeeService;
+import Jdbc.JdbcConnection;
+import Jdbc.lob.LobTransferReport;
+import Jdbc.log.LogConfiguration;
+import Jdbc.log.LogLevel;
+import Jdbc.log.Logger;
+import Jdbc.pool.ConnectionPool;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+
+/**
+ * Benchmarks of repository hot paths against the database configured in property file given as the first argument
+ * (database.properties by default). It should point to a dedicated schema with the employees table and the stored
+ * procedures of the demo database, seeded rows are inserted into department {@link BenchmarkData#DEPARTMENT}
+ * and removed after the run.
+ *
+ * Results are printed and, when the second argument is given, written as CSV to that file.
+ * Runner and data set sizes are configured with system properties, see {@link BenchmarkRunner#fromSystemProperties}
+ * and {@link BenchmarkData#fromSystemProperties()}.
+ */
+public class DatabaseBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final EmployeeService employeeService;
+    private final BenchmarkData data;
+    private final WritableByteChannel discardChannel = Channels.newChannel(OutputStream.nullOutputStream());
+    private final Writer discardWriter = Writer.nullWriter();
+
+    DatabaseBenchmark(EmployeeService employeeService, BenchmarkData data) {
+        this.employeeService = employeeService;
+        this.data = data;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String propertiesPath = args.length > 0 ? args[0] : "database.properties";
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties(3, 5, 2000);
+        BenchmarkData data = BenchmarkData.fromSystemProperties();
+
+        ConnectionPool connectionPool = JdbcConnection.openConnectionPoolFromProperties(propertiesPath);
+
+        //repository logs every statement on INFO level, only problems are logged during the run
+        Logger.configure(new LogConfiguration.ConfigurationBuilder()
+                .addLevel(LogLevel.WARN)
+                .build());
+
+        EmployeeService employeeService = new EmployeeService(connectionPool);
+        try {
+            data.seed(employeeService);
+            new DatabaseBenchmark(employeeService, data).runAll(runner);
+            new QueryBuilderBenchmark().runAll(runner);
+        } finally {
+            data.cleanUp(employeeService);
+            System.out.println(connectionPool.getStatistics());
+            connectionPool.close();
+        }
+
+        if (args.length > 1) {
+            runner.writeCsv(Paths.get(args[1]));
+        }
+    }
+
+    void runAll(BenchmarkRunner runner) throws Exception {
+        runner.run("insert: single row", () -> employeeService.insert(data.newEmployees(1).get(0)));
+        runner.run("insert: batch of " + BATCH_SIZE, () -> employeeService.insertAll(data.newEmployees(BATCH_SIZE)));
+        //inserted rows would make getAll slower with every iteration, so they are removed before reading
+        data.cleanUp(employeeService);
+        data.seed(employeeService);
+
+        runner.run("getAll: " + data.getEmployees() + " employees", employeeService::getAll);
+        runner.run("getAllColumns: " + data.getEmployees() + " employees", employeeService::getAllColumns);
+        runner.run("procedure: get_count_for_department",
+                () -> employeeService.getCountForDepartment(BenchmarkData.DEPARTMENT));
+        runner.run("procedure: get_employees_for_department",
+                () -> employeeService.getAllByDepartment(BenchmarkData.DEPARTMENT));
+        runner.run("procedure: increase_salaries_for_department",
+                () -> {
+                    employeeService.increaseSalariesForDepartment(BenchmarkData.DEPARTMENT, BigDecimal.ONE);
+                    return null;
+                });
+
+        runner.run("BLOB: resume round trip", this::resumeRoundTrip);
+        runner.run("CLOB: big note round trip", this::bigNoteRoundTrip);
+    }
+
+    private LobTransferReport resumeRoundTrip() throws Exception {
+        int id = data.nextEmployeeId();
+        employeeService.addEmployeeResume(data.getResumeFile().toFile(), id);
+        return employeeService.getEmployeeResume(id, discardChannel);
+    }
+
+    private LobTransferReport bigNoteRoundTrip() throws Exception {
+        int id = data.nextEmployeeId();
+        employeeService.addEmployeeBigNote(data.getNoteFile().toFile(), id);
+        return employeeService.getEmployeeBigNote(id, discardWriter);
+    }
+}
@@ -0,0 +1,87 @@
+package Benchmark;
+
+import Jdbc.JdbcUtils;
+import Jdbc.LogicalOperation;
+import Jdbc.query.Condition;
+import Jdbc.query.QueryTemplateCache;
+import Jdbc.query.Select;
+import Jdbc.query.Update;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static Jdbc.query.Conditions.and;
+import static Jdbc.query.Conditions.equal;
+import static Jdbc.query.Conditions.greaterOrEqual;
+import static Jdbc.query.Conditions.or;
+
+/**
+ * Compares building the same update statement shape with deprecated {@link JdbcUtils#createUpdateQuery},
+ * with query builder rendering SQL every time and with query builder using {@link QueryTemplateCache}.
+ * Does not need database connection.
+ */
+public class QueryBuilderBenchmark {
+
+    private static final String[] FIRST_NAMES = {"John", "Jan", "Mary", "Robert"};
+
+    private int counter;
+
+    /**
+     * @param args optional path of CSV file with results
+     */
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties(5, 5, 1000);
+        new QueryBuilderBenchmark().runAll(runner);
+        if (args.length > 0) {
+            runner.writeCsv(Paths.get(args[0]));
+        }
+    }
+
+    void runAll(BenchmarkRunner runner) throws Exception {
+        QueryTemplateCache disabled = new QueryTemplateCache(0);
+        QueryTemplateCache cache = new QueryTemplateCache(QueryTemplateCache.DEFAULT_MAXIMUM_SIZE);
+
+        runner.run("update: JdbcUtils.createUpdateQuery", this::legacyUpdate);
+        runner.run("update: builder, no template cache", () -> update().toQuery(disabled));
+        runner.run("update: builder, template cache", () -> update().toQuery(cache));
+        runner.run("select: builder, no template cache", () -> select().toQuery(disabled));
+        runner.run("select: builder, template cache", () -> select().toQuery(cache));
+
+        System.out.println(cache);
+    }
+
+    @SuppressWarnings("removal")
+    private String legacyUpdate() {
+        int i = counter++;
+        Map<String, Serializable> values = new LinkedHashMap<>();
+        values.put("last_name", "Nowak" + (i & 15));
+        values.put("salary", BigDecimal.valueOf(i & 1023));
+
+        LinkedHashMap<String, LogicalOperation> conditions = new LinkedHashMap<>();
+        conditions.put("first_name = '" + FIRST_NAMES[i & 3] + "'", LogicalOperation.OR);
+        conditions.put("department = 'HR'", LogicalOperation.WITHOUT_OPERATION);
+
+        return JdbcUtils.createUpdateQuery("employees", values, conditions);
+    }
+
+    private Update update() {
+        int i = counter++;
+        Condition condition = or(equal("first_name", FIRST_NAMES[i & 3]), equal("department", "HR"));
+        return Update.table("employees")
+                .set("last_name", "Nowak" + (i & 15))
+                .set("salary", BigDecimal.valueOf(i & 1023))
+                .where(condition);
+    }
+
+    private Select select() {
+        int i = counter++;
+        return Select.columns("id", "first_name", "last_name", "salary")
+                .from("employees")
+                .where(and(equal("department", "HR"), greaterOrEqual("salary", BigDecimal.valueOf(i & 1023))))
+                .orderBy("id")
+                .limit(100);
+    }
+}
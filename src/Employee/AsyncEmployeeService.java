@@ -0,0 +1,301 @@
+package Employee;
+
+import Jdbc.lob.LobTransferReport;
+import Jdbc.log.Logger;
+import Jdbc.query.Condition;
+
+import java.io.File;
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking facade of {@link EmployeeService}. Every call runs as a separate task which borrows connection from
+ * the service data source only for its own duration, and returns CompletableFuture completed with the result.
+ *
+ * On Java 21+ tasks run on virtual threads, so tens of thousands of pending calls do not need thousands
+ * of OS threads. On older JVMs they run on a fixed pool of platform threads as large as the concurrency limit.
+ * Number of calls running against the database at the same time is limited by a semaphore, which should be equal
+ * to the maximum connection pool size: waiting for the permit is cheap, waiting inside the pool is not.
+ *
+ * MySQL Connector/J 8.0 does its socket I/O inside synchronized blocks, and before Java 24 a virtual thread
+ * blocked inside synchronized pins its carrier thread. On Java 21-23 the limit is therefore lowered to the number
+ * of carrier threads (jdk.virtualThreadScheduler.parallelism, by default number of processors), so calls waiting
+ * for the database cannot occupy all carriers; raise that property to run more calls at once.
+ */
+public class AsyncEmployeeService implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(AsyncEmployeeService.class);
+    private static final String CARRIER_PARALLELISM_PROPERTY = "jdk.virtualThreadScheduler.parallelism";
+    private static final int FIRST_VERSION_WITHOUT_PINNING = 24;
+
+    private final EmployeeService employeeService;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final int maxConcurrentCalls;
+    private final Semaphore permits;
+    private final AtomicInteger waitingCalls = new AtomicInteger();
+
+    /**
+     * @param employeeService service, preferably created over {@link Jdbc.pool.ConnectionPool}
+     * @param maxConcurrentCalls maximum number of calls running against database at the same time,
+     *                           e.g. {@link Jdbc.pool.PoolConfiguration#getMaximumSize()}, lowered to the number
+     *                           of carrier threads when virtual threads would be pinned
+     */
+    public AsyncEmployeeService(EmployeeService employeeService, int maxConcurrentCalls) {
+        if (maxConcurrentCalls < 1) {
+            throw new IllegalArgumentException("Concurrent calls limit has to be positive!");
+        }
+        this.employeeService = employeeService;
+
+        ExecutorService virtualThreadExecutor = newVirtualThreadExecutor();
+        this.virtualThreads = virtualThreadExecutor != null;
+        this.executor = virtualThreads ? virtualThreadExecutor : newPlatformThreadExecutor(maxConcurrentCalls);
+        this.maxConcurrentCalls = virtualThreads ? limitToCarrierThreads(maxConcurrentCalls) : maxConcurrentCalls;
+        this.permits = new Semaphore(this.maxConcurrentCalls);
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * @return number of calls running against database at the moment
+     */
+    public int getActiveCalls() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+
+    /**
+     * @return number of submitted calls waiting for their turn
+     */
+    public int getWaitingCalls() {
+        return waitingCalls.get();
+    }
+
+    //CRUD
+
+    public CompletableFuture<Set<Employee>> getAll() {
+        return submit(employeeService::getAll);
+    }
+
+    public CompletableFuture<Employee> getById(int id) {
+        return submit(() -> employeeService.getById(id));
+    }
+
+    public CompletableFuture<EmployeeColumns> getAllColumns() {
+        return submit(employeeService::getAllColumns);
+    }
+
+    /**
+     * Export holds one permit, although it reads partitions on its own threads and connections.
+     */
+    public CompletableFuture<ExportReport> export(Path target, ExportOptions options) {
+        return submit(() -> employeeService.export(target, options));
+    }
+
+    public CompletableFuture<EmployeePage> page(String continuationToken, int limit, EmployeeFilter filter) {
+        return submit(() -> employeeService.page(continuationToken, limit, filter));
+    }
+
+    public CompletableFuture<Integer> insert(Employee employee) {
+        return submit(() -> employeeService.insert(employee));
+    }
+
+    public CompletableFuture<BatchInsertResult> insertAll(Iterable<Employee> employees, BatchInsertOptions options) {
+        return submit(() -> employeeService.insertAll(employees, options));
+    }
+
+    public CompletableFuture<BulkLoadReport> bulkLoad(Iterable<Employee> employees,
+                                                      BatchInsertOptions fallbackOptions) {
+        return submit(() -> employeeService.bulkLoad(employees, fallbackOptions));
+    }
+
+    public CompletableFuture<SyncReport> synchronize(Collection<Employee> snapshot, SyncOptions options) {
+        return submit(() -> employeeService.synchronize(snapshot, options));
+    }
+
+    public CompletableFuture<SyncReport> applyChanges(Collection<Employee> upserts, Collection<Integer> deletedIds,
+                                                      SyncOptions options) {
+        return submit(() -> employeeService.applyChanges(upserts, deletedIds, options));
+    }
+
+    public CompletableFuture<Void> update(Map<String, Serializable> values, Condition condition) {
+        return submit(() -> {
+            employeeService.update(values, condition);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> delete(Condition condition) {
+        return submit(() -> {
+            employeeService.delete(condition);
+            return null;
+        });
+    }
+
+    //Stored Procedures
+
+    public CompletableFuture<Set<Employee>> getAllByDepartment(String department) {
+        return submit(() -> employeeService.getAllByDepartment(department));
+    }
+
+    public CompletableFuture<Void> greetDepartment(String department) {
+        return submit(() -> {
+            employeeService.greetDepartment(department);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Integer> getCountForDepartment(String department) {
+        return submit(() -> employeeService.getCountForDepartment(department));
+    }
+
+    public CompletableFuture<Void> increaseSalariesForDepartment(String department, BigDecimal salary) {
+        return submit(() -> {
+            employeeService.increaseSalariesForDepartment(department, salary);
+            return null;
+        });
+    }
+
+    public CompletableFuture<SalaryIncreaseReport> increaseSalaries(List<SalaryIncrease> increases,
+                                                                   SalaryIncreaseOptions options) {
+        return submit(() -> employeeService.increaseSalaries(increases, options));
+    }
+
+    public CompletableFuture<DepartmentCounts> getCountsForDepartments(Collection<String> departments) {
+        return submit(() -> employeeService.getCountsForDepartments(departments));
+    }
+
+    //BLOB AND CLOB handling
+
+    public CompletableFuture<LobTransferReport> addEmployeeResume(File file, int id) {
+        return submit(() -> employeeService.addEmployeeResume(file, id));
+    }
+
+    public CompletableFuture<LobTransferReport> getEmployeeResume(int id) {
+        return submit(() -> employeeService.getEmployeeResume(id));
+    }
+
+    /**
+     * Target channel is written by the task thread, it should not be used by the caller until the future completes.
+     */
+    public CompletableFuture<LobTransferReport> getEmployeeResume(int id, WritableByteChannel target) {
+        return submit(() -> employeeService.getEmployeeResume(id, target));
+    }
+
+    public CompletableFuture<LobTransferReport> addEmployeeBigNote(File file, int id) {
+        return submit(() -> employeeService.addEmployeeBigNote(file, id));
+    }
+
+    public CompletableFuture<LobTransferReport> getEmployeeBigNote(int id) {
+        return submit(() -> employeeService.getEmployeeBigNote(id));
+    }
+
+    /**
+     * Target is written by the task thread, it should not be used by the caller until the future completes.
+     */
+    public CompletableFuture<LobTransferReport> getEmployeeBigNote(int id, Appendable target) {
+        return submit(() -> employeeService.getEmployeeBigNote(id, target));
+    }
+
+    /**
+     * Stops accepting new calls and waits until submitted ones are finished. When the waiting thread
+     * is interrupted, it stops waiting and its interrupt flag is set again.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.info("Waiting for employee service calls to finish...");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(ServiceCall<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        waitingCalls.incrementAndGet();
+        try {
+            executor.execute(() -> run(call, future));
+        } catch (RejectedExecutionException e) {
+            waitingCalls.decrementAndGet();
+            future.completeExceptionally(new IllegalStateException("Employee service is closed!", e));
+        }
+        return future;
+    }
+
+    private <T> void run(ServiceCall<T> call, CompletableFuture<T> future) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            waitingCalls.decrementAndGet();
+            future.completeExceptionally(e);
+            return;
+        }
+        waitingCalls.decrementAndGet();
+        try {
+            future.complete(call.call());
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /*
+     * Executors.newVirtualThreadPerTaskExecutor() exists since Java 21, it is looked up by reflection,
+     * so the project still compiles and runs on Java 11.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static int limitToCarrierThreads(int maxConcurrentCalls) {
+        if (Runtime.version().feature() >= FIRST_VERSION_WITHOUT_PINNING) {
+            return maxConcurrentCalls;
+        }
+        int carrierThreads = Integer.getInteger(CARRIER_PARALLELISM_PROPERTY,
+                Runtime.getRuntime().availableProcessors());
+        if (carrierThreads >= maxConcurrentCalls) {
+            return maxConcurrentCalls;
+        }
+        LOGGER.info("Concurrent calls limited to {} carrier threads, virtual threads are pinned during JDBC calls " +
+                "(raise {} to allow more)", carrierThreads, CARRIER_PARALLELISM_PROPERTY);
+        return Math.max(1, carrierThreads);
+    }
+
+    private static ExecutorService newPlatformThreadExecutor(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "employee-service-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @FunctionalInterface
+    private interface ServiceCall<T> {
+        T call() throws Exception;
+    }
+}
@@ -0,0 +1,72 @@
+package Employee;
+
+/**
+ * Settings of {@link EmployeeService#insertAll(Iterable, BatchInsertOptions)}.
+ */
+public class BatchInsertOptions {
+
+    public static final BatchInsertOptions DEFAULT = new OptionsBuilder().build();
+
+    private final int batchSize;
+    private final boolean multiRowValues;
+    private final int maxRetries;
+
+    private BatchInsertOptions(OptionsBuilder builder) {
+        this.batchSize = builder.batchSize;
+        this.multiRowValues = builder.multiRowValues;
+        this.maxRetries = builder.maxRetries;
+    }
+
+    public static class OptionsBuilder {
+        private int batchSize = 1000;
+        private boolean multiRowValues;
+        private int maxRetries = 3;
+
+        /**
+         * @param batchSize number of rows sent in one batch and committed in one transaction
+         */
+        public OptionsBuilder addBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param multiRowValues when true every batch is sent as one INSERT with multi-row VALUES list
+         *                       instead of addBatch/executeBatch
+         */
+        public OptionsBuilder addMultiRowValues(boolean multiRowValues) {
+            this.multiRowValues = multiRowValues;
+            return this;
+        }
+
+        /**
+         * @param maxRetries how many times batch which failed with transient error is retried
+         */
+        public OptionsBuilder addMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        public BatchInsertOptions build() {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("Batch size has to be positive!");
+            }
+            if (maxRetries < 0) {
+                throw new IllegalArgumentException("Max retries cannot be negative!");
+            }
+            return new BatchInsertOptions(this);
+        }
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public boolean isMultiRowValues() {
+        return multiRowValues;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+}
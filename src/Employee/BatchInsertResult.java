@@ -0,0 +1,25 @@
+package Employee;
+
+import Jdbc.BatchReport;
+
+/**
+ * Result of bulk insert: generated ids in the same order as inserted employees and throughput report.
+ */
+public class BatchInsertResult {
+
+    private final int[] generatedIds;
+    private final BatchReport report;
+
+    BatchInsertResult(int[] generatedIds, BatchReport report) {
+        this.generatedIds = generatedIds;
+        this.report = report;
+    }
+
+    public int[] getGeneratedIds() {
+        return generatedIds;
+    }
+
+    public BatchReport getReport() {
+        return report;
+    }
+}
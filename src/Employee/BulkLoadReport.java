@@ -0,0 +1,69 @@
+package Employee;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of {@link EmployeeService#bulkLoad(Iterable, BatchInsertOptions)}: how many rows were loaded and rejected,
+ * which load path was used and how long it took.
+ */
+public class BulkLoadReport {
+
+    private final long rows;
+    private final long rejected;
+    private final boolean localInfile;
+    private final List<String> warnings;
+    private final long elapsedNanos;
+
+    BulkLoadReport(long rows, long rejected, boolean localInfile, List<String> warnings, long elapsedNanos) {
+        this.rows = rows;
+        this.rejected = rejected;
+        this.localInfile = localInfile;
+        this.warnings = warnings;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return number of rows stored in the table
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return number of rows skipped by the database (e.g. duplicate key or value which cannot be converted),
+     * always 0 for multi-row INSERT fallback, which fails as a whole instead
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return true when rows were loaded with LOAD DATA LOCAL INFILE, false for multi-row INSERT fallback
+     */
+    public boolean isLocalInfile() {
+        return localInfile;
+    }
+
+    /**
+     * @return first warnings reported by the database for rejected or truncated rows
+     */
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BulkLoadReport{rows=%d, rejected=%d, localInfile=%b, warnings=%d, elapsed=%d ms, " +
+                        "rows/sec=%.1f}", rows, rejected, localInfile, warnings.size(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), getRowsPerSecond());
+    }
+}
@@ -0,0 +1,47 @@
+package Employee;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of {@link EmployeeService#getCountsForDepartments(java.util.Collection)}: employee count of every
+ * department read successfully, errors of the failed ones and combined timing.
+ */
+public class DepartmentCounts {
+
+    private final Map<String, Integer> counts;
+    private final Map<String, SQLException> errors;
+    private final long elapsedNanos;
+
+    DepartmentCounts(Map<String, Integer> counts, Map<String, SQLException> errors, long elapsedNanos) {
+        this.counts = Collections.unmodifiableMap(counts);
+        this.errors = Collections.unmodifiableMap(errors);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return counts in the order departments were given
+     */
+    public Map<String, Integer> getCounts() {
+        return counts;
+    }
+
+    public Map<String, SQLException> getErrors() {
+        return errors;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "DepartmentCounts{" +
+                "counts=" + counts +
+                ", failed=" + errors.keySet() +
+                ", elapsed=" + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms" +
+                '}';
+    }
+}
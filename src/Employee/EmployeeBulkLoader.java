@@ -0,0 +1,160 @@
+package Employee;
+
+import Jdbc.log.Logger;
+
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Loads employees with LOAD DATA LOCAL INFILE, the fastest way of getting many rows into MySQL: rows are parsed
+ * by the server in bulk instead of one statement (or one VALUES tuple) at a time. Rows are encoded by
+ * EmployeeTsvInputStream as the driver reads them and handed to the driver through its per-statement
+ * setLocalInfileInputStream(InputStream) hook, so no temporary file is written.
+ *
+ * The hook is driver specific and is looked up by reflection, so the project has no compile time dependency
+ * on the driver. MySQL Connector/J needs allowLoadLocalInfile=true in the connection url (set in
+ * database.properties) and the server needs local_infile=ON. When the driver has no hook (e.g. H2) or
+ * the driver or server answers that local infile is disabled, employees are inserted with multi-row INSERT
+ * batches instead. Any other error, e.g. a bad row or lost connection, is thrown.
+ */
+class EmployeeBulkLoader {
+
+    private static final Logger LOGGER = Logger.getLogger(EmployeeBulkLoader.class);
+    private static final String LOAD_DATA_QUERY = "LOAD DATA LOCAL INFILE 'employees.tsv' INTO TABLE employees " +
+            "CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' " +
+            "(last_name, first_name, email, department, salary)";
+    private static final String[] LOCAL_INFILE_STATEMENT_CLASSES = {
+            "com.mysql.cj.jdbc.JdbcStatement",
+            "com.mysql.jdbc.Statement",
+            "org.mariadb.jdbc.MariaDbStatement"
+    };
+    /*
+     * ER_NOT_ALLOWED_COMMAND of older servers and ER_CLIENT_LOCAL_FILES_DISABLED of MySQL 8.
+     */
+    private static final int[] LOCAL_INFILE_DISABLED_ERROR_CODES = {1148, 3948};
+    /*
+     * Messages of client side refusal: Connector/J without allowLoadLocalInfile, MariaDB without allowLocalInfile.
+     */
+    private static final String[] LOCAL_INFILE_DISABLED_MESSAGES = {
+            "allowLoadLocalInfile",
+            "Loading local data is disabled",
+            "LOCAL INFILE is disabled"
+    };
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_WARNINGS = 10;
+
+    private final EmployeesRepository employeesRepository;
+    private final BatchInsertOptions fallbackOptions;
+
+    EmployeeBulkLoader(EmployeesRepository employeesRepository, BatchInsertOptions fallbackOptions) {
+        this.employeesRepository = employeesRepository;
+        this.fallbackOptions = fallbackOptions;
+    }
+
+    /*
+     * Employees are iterated a second time only when LOAD DATA was refused because local infile is disabled.
+     */
+    BulkLoadReport load(Iterable<Employee> employees) throws SQLException {
+        long start = System.nanoTime();
+
+        try (Connection connection = employeesRepository.getConnection();
+             Statement statement = connection.createStatement()) {
+            Method hook = findLocalInfileHook(statement);
+            if (hook != null) {
+                EmployeeTsvInputStream stream = new EmployeeTsvInputStream(employees.iterator(), BUFFER_SIZE);
+                try {
+                    setLocalInfileInputStream(statement, hook, stream);
+                    int loaded = statement.executeUpdate(LOAD_DATA_QUERY);
+                    BulkLoadReport report = new BulkLoadReport(loaded, stream.getRows() - loaded, true,
+                            readWarnings(statement), System.nanoTime() - start);
+                    LOGGER.info("Employees loaded: {}", report);
+                    return report;
+                } catch (SQLException e) {
+                    if (!isLocalInfileDisabled(e)) {
+                        throw e;
+                    }
+                    LOGGER.warn("LOAD DATA LOCAL INFILE is disabled, falling back to multi-row INSERT: {}",
+                            e.getMessage());
+                }
+            }
+        }
+
+        BatchInsertOptions options = new BatchInsertOptions.OptionsBuilder()
+                .addBatchSize(fallbackOptions.getBatchSize())
+                .addMaxRetries(fallbackOptions.getMaxRetries())
+                .addMultiRowValues(true)
+                .build();
+        long rows = employeesRepository.insertAll(employees, options).getReport().getRows();
+        BulkLoadReport report = new BulkLoadReport(rows, 0, false, Collections.emptyList(),
+                System.nanoTime() - start);
+        LOGGER.info("Employees loaded: {}", report);
+        return report;
+    }
+
+    private static boolean isLocalInfileDisabled(SQLException e) {
+        for (int errorCode : LOCAL_INFILE_DISABLED_ERROR_CODES) {
+            if (e.getErrorCode() == errorCode) {
+                return true;
+            }
+        }
+        String message = e.getMessage();
+        if (message != null) {
+            for (String disabledMessage : LOCAL_INFILE_DISABLED_MESSAGES) {
+                if (message.contains(disabledMessage)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Returns setLocalInfileInputStream method of driver statement interface or null when driver has none.
+     */
+    private static Method findLocalInfileHook(Statement statement) {
+        for (String className : LOCAL_INFILE_STATEMENT_CLASSES) {
+            try {
+                Class<?> statementClass = Class.forName(className);
+                if (statement.isWrapperFor(statementClass)) {
+                    return statementClass.getMethod("setLocalInfileInputStream", InputStream.class);
+                }
+            } catch (ClassNotFoundException | NoSuchMethodException | SQLException e) {
+                //driver of other vendor or version without the hook
+            }
+        }
+        return null;
+    }
+
+    private static void setLocalInfileInputStream(Statement statement, Method hook, InputStream stream)
+            throws SQLException {
+        try {
+            hook.invoke(statement.unwrap(hook.getDeclaringClass()), stream);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new SQLException("Cannot set LOAD DATA LOCAL INFILE stream!", cause);
+        } catch (IllegalAccessException e) {
+            throw new SQLException("Cannot set LOAD DATA LOCAL INFILE stream!", e);
+        }
+    }
+
+    private static List<String> readWarnings(Statement statement) throws SQLException {
+        List<String> warnings = new ArrayList<>();
+        SQLWarning warning = statement.getWarnings();
+        while (warning != null && warnings.size() < MAX_WARNINGS) {
+            warnings.add(warning.getMessage());
+            warning = warning.getNextWarning();
+        }
+        return Collections.unmodifiableList(warnings);
+    }
+}
@@ -0,0 +1,95 @@
+package Employee;
+
+import Jdbc.cache.CacheStatistics;
+import Jdbc.cache.ReadThroughCache;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/*
+ * Read-through caches of EmployeeService reads. Writes with known department invalidate only entries
+ * of that department, writes with arbitrary condition invalidate everything.
+ * Cached sets are unmodifiable, because they are shared by all callers.
+ */
+class EmployeeCache {
+
+    private static final String ALL_EMPLOYEES = "*";
+
+    private final ReadThroughCache<String, Set<Employee>> all;
+    private final ReadThroughCache<Integer, Employee> byId;
+    private final ReadThroughCache<String, Set<Employee>> byDepartment;
+    private final ReadThroughCache<String, Integer> countByDepartment;
+
+    EmployeeCache(EmployeesRepository employeesRepository, EmployeeCacheOptions options) {
+        int maximumSize = options.getMaximumSize();
+        long timeToLive = options.getTimeToLiveMillis();
+        this.all = new ReadThroughCache<>(Math.min(maximumSize, 1), timeToLive,
+                key -> Collections.unmodifiableSet(employeesRepository.getAll()));
+        this.byId = new ReadThroughCache<>(maximumSize, timeToLive, employeesRepository::getById);
+        this.byDepartment = new ReadThroughCache<>(maximumSize, timeToLive,
+                department -> Collections.unmodifiableSet(employeesRepository.getEmployeesForDepartment(department)));
+        this.countByDepartment = new ReadThroughCache<>(maximumSize, timeToLive,
+                employeesRepository::getCountForTheDepartment);
+    }
+
+    Set<Employee> getAll() throws SQLException {
+        return all.get(ALL_EMPLOYEES);
+    }
+
+    Employee getById(int id) throws SQLException {
+        return byId.get(id);
+    }
+
+    Set<Employee> getByDepartment(String department) throws SQLException {
+        return byDepartment.get(department);
+    }
+
+    int getCountForDepartment(String department) throws SQLException {
+        return countByDepartment.get(department);
+    }
+
+    /*
+     * New employees change the list of all employees, their departments and department counts.
+     * Their ids are invalidated too, in case absence of the employee was cached before the insert.
+     */
+    void inserted(Collection<String> departments, int... ids) {
+        all.invalidateAll();
+        for (int id : ids) {
+            byId.invalidate(id);
+        }
+        for (String department : departments) {
+            byDepartment.invalidate(department);
+            countByDepartment.invalidate(department);
+        }
+    }
+
+    /*
+     * Salaries changed for all employees of the department, department sizes stay the same.
+     */
+    void departmentUpdated(String department) {
+        all.invalidateAll();
+        byDepartment.invalidate(department);
+        byId.invalidateIf((id, employee) -> employee != null && Objects.equals(employee.getDepartment(), department));
+    }
+
+    void invalidateAll() {
+        all.invalidateAll();
+        byId.invalidateAll();
+        byDepartment.invalidateAll();
+        countByDepartment.invalidateAll();
+    }
+
+    Map<String, CacheStatistics> getStatistics() {
+        Map<String, CacheStatistics> statistics = new LinkedHashMap<>();
+        statistics.put("all", all.getStatistics());
+        statistics.put("byId", byId.getStatistics());
+        statistics.put("byDepartment", byDepartment.getStatistics());
+        statistics.put("countByDepartment", countByDepartment.getStatistics());
+        return statistics;
+    }
+}
@@ -0,0 +1,61 @@
+package Employee;
+
+/**
+ * Settings of the read-through cache of {@link EmployeeService}.
+ */
+public class EmployeeCacheOptions {
+
+    /**
+     * Every read goes to the database.
+     */
+    public static final EmployeeCacheOptions DISABLED = new OptionsBuilder().addMaximumSize(0).build();
+
+    private final int maximumSize;
+    private final long timeToLiveMillis;
+
+    private EmployeeCacheOptions(OptionsBuilder builder) {
+        this.maximumSize = builder.maximumSize;
+        this.timeToLiveMillis = builder.timeToLiveMillis;
+    }
+
+    public static class OptionsBuilder {
+        private int maximumSize = 10_000;
+        private long timeToLiveMillis = 60_000;
+
+        /**
+         * @param maximumSize maximum number of cached employees, departments and counts (each kept separately),
+         *                    0 disables the cache
+         */
+        public OptionsBuilder addMaximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * @param timeToLiveMillis time after which cached entry is read again, it bounds staleness caused by
+         *                         writes which do not go through the service, 0 means no expiration
+         */
+        public OptionsBuilder addTimeToLiveMillis(long timeToLiveMillis) {
+            this.timeToLiveMillis = timeToLiveMillis;
+            return this;
+        }
+
+        public EmployeeCacheOptions build() {
+            if (maximumSize < 0) {
+                throw new IllegalArgumentException("Cache size cannot be negative!");
+            }
+            if (timeToLiveMillis < 0) {
+                throw new IllegalArgumentException("Cache time to live cannot be negative!");
+            }
+            return new EmployeeCacheOptions(this);
+        }
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getTimeToLiveMillis() {
+        return timeToLiveMillis;
+    }
+}
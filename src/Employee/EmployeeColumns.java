@@ -0,0 +1,396 @@
+package Employee;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Read-only columnar snapshot of employees (without resume and big note) for analytics over the whole table.
+ * Instead of one object per row, every column is kept in one array: ids in int[], salaries as cents in long[],
+ * departments dictionary-encoded (int codes into a small table of distinct values, departments repeat a lot)
+ * and first names, last names and emails, which are mostly unique, as UTF-8 bytes in one byte[] per column.
+ * It takes several times less heap than a set of {@link Employee} objects and scans over ids and salaries
+ * run over primitive arrays.
+ *
+ * Rows are kept in the order returned by the database.
+ */
+public class EmployeeColumns {
+
+    private final int size;
+    private final int[] ids;
+    private final long[] salaryCents;
+    private final String[] departments;
+    private final int[] departmentCodes;
+    private final Utf8Column firstNames;
+    private final Utf8Column lastNames;
+    private final Utf8Column emails;
+
+    private EmployeeColumns(ColumnsBuilder builder) {
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.salaryCents = Arrays.copyOf(builder.salaryCents, size);
+        //the lookup map of the dictionary is needed only while building
+        this.departments = builder.departments.values();
+        this.departmentCodes = Arrays.copyOf(builder.departmentCodes, size);
+        this.firstNames = builder.firstNames.trimmed(size);
+        this.lastNames = builder.lastNames.trimmed(size);
+        this.emails = builder.emails.trimmed(size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getId(int row) {
+        return ids[checkRow(row)];
+    }
+
+    public long getSalaryCents(int row) {
+        return salaryCents[checkRow(row)];
+    }
+
+    public double getSalary(int row) {
+        return getSalaryCents(row) / 100.0;
+    }
+
+    public String getDepartment(int row) {
+        return departments[departmentCodes[checkRow(row)]];
+    }
+
+    /**
+     * First name is decoded from UTF-8 on every call.
+     */
+    public String getFirstName(int row) {
+        return firstNames.get(checkRow(row));
+    }
+
+    /**
+     * Last name is decoded from UTF-8 on every call.
+     */
+    public String getLastName(int row) {
+        return lastNames.get(checkRow(row));
+    }
+
+    /**
+     * Email is decoded from UTF-8 on every call.
+     */
+    public String getEmail(int row) {
+        return emails.get(checkRow(row));
+    }
+
+    /**
+     * @return new Employee object with values of the row
+     */
+    public Employee getEmployee(int row) {
+        return new Employee(getId(row), getLastName(row), getFirstName(row), getEmail(row), getDepartment(row),
+                getSalary(row));
+    }
+
+    /**
+     * @return read-only list view in database order, Employee objects are created on access and are not cached
+     */
+    public List<Employee> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Employee get(int index) {
+                return getEmployee(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * @return distinct departments in order of their first appearance
+     */
+    public List<String> getDepartments() {
+        return Collections.unmodifiableList(Arrays.asList(departments));
+    }
+
+    public BigDecimal getTotalSalary() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total = Math.addExact(total, salaryCents[i]);
+        }
+        return BigDecimal.valueOf(total, 2);
+    }
+
+    /**
+     * Computes salary statistics of all departments with two passes over department codes and salaries.
+     * @return statistics keyed by department in order of first appearance, employees without department
+     * are under null key
+     */
+    public Map<String, SalaryStatistics> getSalaryStatisticsByDepartment() {
+        int departmentCount = departments.length;
+        int[] counts = new int[departmentCount];
+        for (int i = 0; i < size; i++) {
+            counts[departmentCodes[i]]++;
+        }
+
+        long[][] salaries = new long[departmentCount][];
+        for (int code = 0; code < departmentCount; code++) {
+            salaries[code] = new long[counts[code]];
+        }
+        int[] filled = new int[departmentCount];
+        for (int i = 0; i < size; i++) {
+            int code = departmentCodes[i];
+            salaries[code][filled[code]++] = salaryCents[i];
+        }
+
+        Map<String, SalaryStatistics> statistics = new LinkedHashMap<>();
+        for (int code = 0; code < departmentCount; code++) {
+            statistics.put(departments[code], new SalaryStatistics(salaries[code]));
+        }
+        return statistics;
+    }
+
+    /**
+     * @return salary statistics of the department or null when there is no employee in it
+     */
+    public SalaryStatistics getSalaryStatistics(String department) {
+        int code = departmentCode(department);
+        if (code < 0) {
+            return null;
+        }
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (departmentCodes[i] == code) {
+                count++;
+            }
+        }
+        long[] salaries = new long[count];
+        int filled = 0;
+        for (int i = 0; i < size; i++) {
+            if (departmentCodes[i] == code) {
+                salaries[filled++] = salaryCents[i];
+            }
+        }
+        return new SalaryStatistics(salaries);
+    }
+
+    /*
+     * Linear search, there are only a few departments.
+     */
+    private int departmentCode(String department) {
+        for (int code = 0; code < departments.length; code++) {
+            if (Objects.equals(departments[code], department)) {
+                return code;
+            }
+        }
+        return -1;
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of " + size);
+        }
+        return row;
+    }
+
+    /**
+     * Salaries of one department. Percentiles are exact, salaries are sorted once when statistics are created.
+     */
+    public static class SalaryStatistics {
+
+        private final long[] sortedCents;
+        private final long totalCents;
+
+        SalaryStatistics(long[] cents) {
+            Arrays.sort(cents);
+            long total = 0;
+            for (long value : cents) {
+                total = Math.addExact(total, value);
+            }
+            this.sortedCents = cents;
+            this.totalCents = total;
+        }
+
+        public int getCount() {
+            return sortedCents.length;
+        }
+
+        public BigDecimal getSum() {
+            return BigDecimal.valueOf(totalCents, 2);
+        }
+
+        public double getAverage() {
+            return sortedCents.length == 0 ? 0 : totalCents / 100.0 / sortedCents.length;
+        }
+
+        public double getMin() {
+            return sortedCents.length == 0 ? 0 : sortedCents[0] / 100.0;
+        }
+
+        public double getMax() {
+            return sortedCents.length == 0 ? 0 : sortedCents[sortedCents.length - 1] / 100.0;
+        }
+
+        /**
+         * @param percentile value from 0 to 100, e.g. 50 for median
+         * @return salary which is greater or equal to given percentage of salaries (nearest-rank method)
+         */
+        public double getPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile has to be between 0 and 100!");
+            }
+            if (sortedCents.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * sortedCents.length);
+            return sortedCents[Math.max(0, rank - 1)] / 100.0;
+        }
+
+        @Override
+        public String toString() {
+            return "SalaryStatistics{" +
+                    "count=" + getCount() +
+                    ", sum=" + getSum() +
+                    ", average=" + String.format("%.2f", getAverage()) +
+                    ", min=" + getMin() +
+                    ", median=" + getPercentile(50) +
+                    ", p90=" + getPercentile(90) +
+                    ", max=" + getMax() +
+                    '}';
+        }
+    }
+
+    /*
+     * Appends rows read from result set, arrays grow like in ArrayList and are trimmed by build().
+     */
+    static class ColumnsBuilder {
+        private int size;
+        private int[] ids;
+        private long[] salaryCents;
+        private final Dictionary departments = new Dictionary();
+        private int[] departmentCodes;
+        private final Utf8Column firstNames;
+        private final Utf8Column lastNames;
+        private final Utf8Column emails;
+
+        ColumnsBuilder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            ids = new int[capacity];
+            salaryCents = new long[capacity];
+            departmentCodes = new int[capacity];
+            firstNames = new Utf8Column(capacity, 8);
+            lastNames = new Utf8Column(capacity, 10);
+            emails = new Utf8Column(capacity, 24);
+        }
+
+        ColumnsBuilder addRow(int id, String lastName, String firstName, String email, String department,
+                              long salaryCents) {
+            if (size == ids.length) {
+                grow();
+            }
+            this.ids[size] = id;
+            this.salaryCents[size] = salaryCents;
+            this.departmentCodes[size] = departments.encode(department);
+            firstNames.append(size, firstName);
+            lastNames.append(size, lastName);
+            emails.append(size, email);
+            size++;
+            return this;
+        }
+
+        EmployeeColumns build() {
+            return new EmployeeColumns(this);
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            salaryCents = Arrays.copyOf(salaryCents, capacity);
+            departmentCodes = Arrays.copyOf(departmentCodes, capacity);
+        }
+    }
+
+    /*
+     * String column stored as UTF-8 bytes of all rows in one byte[]. Value of the row is between
+     * offsets[row] and offsets[row + 1], null takes no bytes and is marked in the nulls bit set.
+     * Arrays grow while building and are trimmed to exact size by trimmed().
+     */
+    private static class Utf8Column {
+        private byte[] bytes;
+        private int length;
+        private int[] offsets;
+        private final BitSet nulls;
+
+        Utf8Column(int capacity, int expectedValueLength) {
+            this(new byte[capacity * expectedValueLength], 0, new int[capacity + 1], new BitSet());
+        }
+
+        private Utf8Column(byte[] bytes, int length, int[] offsets, BitSet nulls) {
+            this.bytes = bytes;
+            this.length = length;
+            this.offsets = offsets;
+            this.nulls = nulls;
+        }
+
+        void append(int row, String value) {
+            if (row + 1 >= offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            if (value == null) {
+                nulls.set(row);
+            } else {
+                byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                if (length + encoded.length > bytes.length) {
+                    bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + encoded.length));
+                }
+                System.arraycopy(encoded, 0, bytes, length, encoded.length);
+                length += encoded.length;
+            }
+            offsets[row + 1] = length;
+        }
+
+        String get(int row) {
+            if (nulls.get(row)) {
+                return null;
+            }
+            int start = offsets[row];
+            return new String(bytes, start, offsets[row + 1] - start, StandardCharsets.UTF_8);
+        }
+
+        Utf8Column trimmed(int size) {
+            return new Utf8Column(Arrays.copyOf(bytes, length), length, Arrays.copyOf(offsets, size + 1),
+                    (BitSet) nulls.clone());
+        }
+    }
+
+    /*
+     * Distinct values of a string column while building, code is the position of first appearance.
+     */
+    private static class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private String[] values = new String[16];
+        private int size;
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size] = value;
+            codes.put(value, size);
+            return size++;
+        }
+
+        String[] values() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package Employee;
+
+import Jdbc.JdbcUtils;
+import Jdbc.log.Logger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Exports scalar columns of all employees into one file. Range from the lowest to the highest id is split
+ * into partitions of equal width, every partition is read by its own thread on its own pooled connection
+ * (ordered by id, through forward-only cursor) and encoded into its own part file next to the target.
+ * The calling thread appends part files to the target in partition order as soon as each of them is finished,
+ * using FileChannel.transferTo, so the output is the same as of a single ordered query whatever the thread count.
+ *
+ * Export reads every partition in a separate transaction, so rows changed during the export may be seen
+ * in one partition state and not in another; for a consistent copy the table should not be written meanwhile.
+ */
+class EmployeeExporter {
+
+    private static final Logger LOGGER = Logger.getLogger(EmployeeExporter.class);
+    private static final String SELECT_ID_RANGE = "SELECT MIN(id), MAX(id) FROM employees";
+    private static final String SELECT_PARTITION = "SELECT id, last_name, first_name, email, department, salary " +
+            "FROM employees WHERE id >= ? AND id <= ? ORDER BY id";
+
+    private final EmployeesRepository employeesRepository;
+    private final Path target;
+    private final ExportOptions options;
+
+    EmployeeExporter(EmployeesRepository employeesRepository, Path target, ExportOptions options) {
+        this.employeesRepository = employeesRepository;
+        this.target = target.toAbsolutePath();
+        this.options = options;
+    }
+
+    ExportReport run() throws IOException, SQLException {
+        long start = System.nanoTime();
+        List<long[]> partitions = partitions(readIdRange());
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(options.getThreads(),
+                partitions.size())), runnable -> {
+            Thread thread = new Thread(runnable, "employee-export-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<Path> parts = new ArrayList<>(partitions.size());
+        List<Future<Long>> rows = new ArrayList<>(partitions.size());
+        long totalRows = 0;
+        long bytes;
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (long[] partition : partitions) {
+                Path part = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".part");
+                parts.add(part);
+                rows.add(executor.submit(() -> exportPartition(partition[0], partition[1], part)));
+            }
+
+            ExportWriter writer = ExportWriter.create(options.getFormat(), channel, options.getBufferSize());
+            writer.writeHeader();
+            writer.flush();
+            for (int i = 0; i < parts.size(); i++) {
+                totalRows += await(rows.get(i));
+                append(parts.get(i), channel);
+            }
+            writer.writeTrailer();
+            writer.flush();
+            bytes = channel.size();
+        } finally {
+            executor.shutdownNow();
+            for (Path part : parts) {
+                Files.deleteIfExists(part);
+            }
+        }
+
+        ExportReport report = new ExportReport(target, totalRows, bytes, partitions.size(),
+                System.nanoTime() - start);
+        LOGGER.info("Employees exported: {}", report);
+        return report;
+    }
+
+    /*
+     * Returns {lowest id, highest id} or null for empty table.
+     */
+    private long[] readIdRange() throws SQLException {
+        try (Connection connection = employeesRepository.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(SELECT_ID_RANGE);
+            ResultSet resultSet = statement.executeQuery();
+            long[] range = null;
+            if (resultSet.next()) {
+                long lowest = resultSet.getLong(1);
+                if (!resultSet.wasNull()) {
+                    range = new long[]{lowest, resultSet.getLong(2)};
+                }
+            }
+            JdbcUtils.close(resultSet, statement);
+            return range;
+        }
+    }
+
+    /*
+     * Splits id range into inclusive {from, to} ranges of equal width, never more ranges than ids.
+     */
+    private List<long[]> partitions(long[] idRange) {
+        List<long[]> partitions = new ArrayList<>();
+        if (idRange == null) {
+            return partitions;
+        }
+        long ids = idRange[1] - idRange[0] + 1;
+        int count = (int) Math.min(options.getPartitions(), ids);
+        long width = (ids + count - 1) / count;
+        for (long from = idRange[0]; from <= idRange[1]; from += width) {
+            partitions.add(new long[]{from, Math.min(idRange[1], from + width - 1)});
+        }
+        return partitions;
+    }
+
+    private long exportPartition(long fromId, long toId, Path part) throws SQLException, IOException {
+        long rows = 0;
+        try (Connection connection = employeesRepository.getConnection();
+             FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            PreparedStatement statement = connection.prepareStatement(SELECT_PARTITION,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(options.getFetchSize());
+            statement.setLong(1, fromId);
+            statement.setLong(2, toId);
+            ResultSet resultSet = statement.executeQuery();
+            try {
+                ExportWriter writer = ExportWriter.create(options.getFormat(), channel, options.getBufferSize());
+                while (resultSet.next()) {
+                    writer.writeRow(resultSet.getInt(1), resultSet.getString(2), resultSet.getString(3),
+                            resultSet.getString(4), resultSet.getString(5),
+                            Math.round(resultSet.getDouble(6) * 100));
+                    rows++;
+                }
+                writer.flush();
+            } finally {
+                JdbcUtils.close(resultSet, statement);
+            }
+        }
+        return rows;
+    }
+
+    private static void append(Path part, FileChannel target) throws IOException {
+        try (FileChannel source = FileChannel.open(part, StandardOpenOption.READ)) {
+            long size = source.size();
+            long position = 0;
+            while (position < size) {
+                position += source.transferTo(position, size - position, target);
+            }
+        }
+    }
+
+    private static long await(Future<Long> partition) throws SQLException, IOException {
+        try {
+            return partition.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for export partition!", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Export partition failed!", cause);
+        }
+    }
+}
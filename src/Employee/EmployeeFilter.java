@@ -0,0 +1,87 @@
+package Employee;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Optional conditions of {@link EmployeeService#page(String, int, EmployeeFilter)}.
+ * Fields which are not set are not used in the query.
+ */
+public class EmployeeFilter {
+
+    public static final EmployeeFilter NONE = new FilterBuilder().build();
+
+    private final String department;
+    private final BigDecimal minSalary;
+    private final BigDecimal maxSalary;
+
+    private EmployeeFilter(FilterBuilder builder) {
+        this.department = builder.department;
+        this.minSalary = builder.minSalary;
+        this.maxSalary = builder.maxSalary;
+    }
+
+    public static class FilterBuilder {
+        private String department;
+        private BigDecimal minSalary;
+        private BigDecimal maxSalary;
+
+        public FilterBuilder addDepartment(String department) {
+            this.department = department;
+            return this;
+        }
+
+        /**
+         * @param minSalary inclusive lower bound of salary
+         */
+        public FilterBuilder addMinSalary(BigDecimal minSalary) {
+            this.minSalary = minSalary;
+            return this;
+        }
+
+        /**
+         * @param maxSalary inclusive upper bound of salary
+         */
+        public FilterBuilder addMaxSalary(BigDecimal maxSalary) {
+            this.maxSalary = maxSalary;
+            return this;
+        }
+
+        public EmployeeFilter build() {
+            if (minSalary != null && maxSalary != null && minSalary.compareTo(maxSalary) > 0) {
+                throw new IllegalArgumentException("Minimum salary cannot be greater than maximum salary!");
+            }
+            return new EmployeeFilter(this);
+        }
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public BigDecimal getMinSalary() {
+        return minSalary;
+    }
+
+    public BigDecimal getMaxSalary() {
+        return maxSalary;
+    }
+
+    /*
+     * Checksum stored in continuation token, so the token cannot be used with different filter.
+     */
+    long fingerprint() {
+        CRC32 crc = new CRC32();
+        crc.update(String.valueOf(department).getBytes(StandardCharsets.UTF_8));
+        crc.update(0);
+        crc.update(normalize(minSalary).getBytes(StandardCharsets.US_ASCII));
+        crc.update(0);
+        crc.update(normalize(maxSalary).getBytes(StandardCharsets.US_ASCII));
+        return crc.getValue();
+    }
+
+    private static String normalize(BigDecimal value) {
+        return value == null ? "" : value.stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,33 @@
+package Employee;
+
+import java.util.List;
+
+/**
+ * One page of employees ordered by id. Next page is read by passing {@link #getContinuationToken()}
+ * to {@link EmployeeService#page(String, int, EmployeeFilter)} together with the same filter.
+ */
+public class EmployeePage {
+
+    private final List<Employee> employees;
+    private final String continuationToken;
+
+    EmployeePage(List<Employee> employees, String continuationToken) {
+        this.employees = employees;
+        this.continuationToken = continuationToken;
+    }
+
+    public List<Employee> getEmployees() {
+        return employees;
+    }
+
+    /**
+     * @return opaque token of the next page, null if this is the last page
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public boolean hasNext() {
+        return continuationToken != null;
+    }
+}
@@ -0,0 +1,30 @@
+package Employee;
+
+import Jdbc.annotation.InOutParametersProcedure;
+import Jdbc.annotation.InParametersProcedure;
+import Jdbc.annotation.OutParametersProcedure;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Set;
+
+/*
+ * Stored procedures of the demo database, implemented by Jdbc.procedure.ProcedureInvoker.
+ */
+interface EmployeeProcedures {
+
+    @InParametersProcedure("increase_salaries_for_department")
+    void increaseSalariesForDepartment(String department, BigDecimal salary) throws SQLException;
+
+    /**
+     * @return greeting written by the procedure to its INOUT parameter
+     */
+    @InOutParametersProcedure("greet_the_department")
+    String greetDepartment(String department) throws SQLException;
+
+    @OutParametersProcedure("get_count_for_department")
+    int getCountForDepartment(String department) throws SQLException;
+
+    @InParametersProcedure("get_employees_for_department")
+    Set<Employee> getEmployeesForDepartment(String department) throws SQLException;
+}
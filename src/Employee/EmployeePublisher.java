@@ -0,0 +1,185 @@
+package Employee;
+
+import Jdbc.JdbcUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Cold publisher of employees read from a query: every subscriber gets its own connection, statement and cursor,
+ * driven by a task on given executor (JDBC calls block). The query is executed on the first request
+ * and rows are read from the cursor only while subscriber has outstanding demand, so a slow subscriber
+ * keeps at most one fetch of rows in memory. Fetch size follows the demand between MIN and MAX_FETCH_SIZE.
+ * On MySQL this relies on useCursorFetch=true in connection url (see database.properties), without it
+ * the driver reads the whole result on execution; results of stored procedures are always read whole.
+ * Cancellation wakes the task waiting for demand, which closes the cursor and returns connection at once.
+ * Subscriber gets at most one terminal signal (onComplete or onError).
+ */
+class EmployeePublisher implements Flow.Publisher<Employee> {
+
+    private static final int MIN_FETCH_SIZE = 16;
+    private static final int MAX_FETCH_SIZE = 1000;
+
+    private final EmployeesRepository employeesRepository;
+    private final StatementFactory statementFactory;
+    private final Executor executor;
+
+    EmployeePublisher(EmployeesRepository employeesRepository, StatementFactory statementFactory, Executor executor) {
+        this.employeesRepository = employeesRepository;
+        this.statementFactory = statementFactory;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Employee> subscriber) {
+        CursorSubscription subscription = new CursorSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        try {
+            executor.execute(subscription::run);
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            subscription.signalError(e);
+        }
+    }
+
+    /*
+     * Prepares the statement whose first result is a result set of employees, e.g. SELECT or stored procedure call.
+     */
+    @FunctionalInterface
+    interface StatementFactory {
+        PreparedStatement prepare(Connection connection) throws SQLException;
+    }
+
+    private class CursorSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super Employee> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+        private volatile Thread worker;
+        private final AtomicBoolean terminated = new AtomicBoolean();
+
+        private Connection connection;
+        private PreparedStatement statement;
+        private ResultSet resultSet;
+
+        CursorSubscription(Flow.Subscriber<? super Employee> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Requested number of employees has to be positive: " + n);
+                cancelled = true;
+            } else {
+                demand.accumulateAndGet(n, (current, added) -> {
+                    long sum = current + added;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+            }
+            LockSupport.unpark(worker);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            LockSupport.unpark(worker);
+        }
+
+        void run() {
+            worker = Thread.currentThread();
+            try {
+                if (!awaitDemand()) {
+                    return;
+                }
+                open();
+                while (true) {
+                    long requested = demand.get();
+                    if (requested == 0) {
+                        if (!awaitDemand()) {
+                            return;
+                        }
+                        resultSet.setFetchSize(fetchSizeFor(demand.get()));
+                        continue;
+                    }
+                    if (cancelled) {
+                        return;
+                    }
+                    if (resultSet == null || !resultSet.next()) {
+                        close();
+                        signalComplete();
+                        return;
+                    }
+                    Employee employee = EmployeesRepository.mapEmployee(resultSet);
+                    if (requested != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+                    subscriber.onNext(employee);
+                }
+            } catch (Throwable e) {
+                close();
+                if (invalidRequest == null && !cancelled) {
+                    cancelled = true;
+                    signalError(e);
+                }
+            } finally {
+                close();
+                if (invalidRequest != null) {
+                    signalError(invalidRequest);
+                }
+            }
+        }
+
+        void signalError(Throwable error) {
+            if (terminated.compareAndSet(false, true)) {
+                subscriber.onError(error);
+            }
+        }
+
+        private void signalComplete() {
+            if (terminated.compareAndSet(false, true)) {
+                subscriber.onComplete();
+            }
+        }
+
+        /*
+         * Parks the worker until subscriber requests more rows.
+         * @return false when subscription was cancelled in the meantime
+         */
+        private boolean awaitDemand() {
+            while (demand.get() == 0 && !cancelled) {
+                LockSupport.park(this);
+            }
+            return !cancelled;
+        }
+
+        private void open() throws SQLException {
+            connection = employeesRepository.getConnection();
+            statement = statementFactory.prepare(connection);
+            statement.setFetchSize(fetchSizeFor(demand.get()));
+            statement.execute();
+            resultSet = statement.getResultSet();
+        }
+
+        private int fetchSizeFor(long requested) {
+            return (int) Math.max(MIN_FETCH_SIZE, Math.min(MAX_FETCH_SIZE, requested));
+        }
+
+        private void close() {
+            if (connection != null) {
+                JdbcUtils.close(resultSet, statement, connection);
+                resultSet = null;
+                statement = null;
+                connection = null;
+            }
+        }
+    }
+}
@@ -1,48 +1,326 @@
 package Employee;
 
-import Jdbc.LogicalOperation;
+import Jdbc.cache.CacheStatistics;
+import Jdbc.lob.LobTransferReport;
+import Jdbc.query.Condition;
+import Jdbc.pool.SingleConnectionDataSource;
 
+import javax.sql.DataSource;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.LinkedHashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 public class EmployeeService {
 
+    private static final int DEFAULT_FETCH_SIZE = 500;
+    private static final AtomicInteger PUBLISHER_THREAD_NUMBER = new AtomicInteger();
+    private static final Executor PUBLISHER_EXECUTOR = runnable -> {
+        Thread thread = new Thread(runnable, "employee-publisher-" + PUBLISHER_THREAD_NUMBER.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+    };
+
     private final EmployeesRepository employeesRepository;
+    private final EmployeeCache employeeCache;
+
+    /**
+     * Every service call borrows connection from given data source for the duration of the call only.
+     * @param dataSource preferably pooled data source, e.g. {@link Jdbc.pool.ConnectionPool}
+     */
+    public EmployeeService(DataSource dataSource) {
+        this(dataSource, EmployeeCacheOptions.DISABLED);
+    }
+
+    /**
+     * Service with read-through cache of {@link #getAll()}, {@link #getById(int)}, {@link #getAllByDepartment(String)}
+     * and {@link #getCountForDepartment(String)}. Writes made through this service invalidate affected entries,
+     * writes made elsewhere are visible after cache time to live.
+     * @param dataSource preferably pooled data source, e.g. {@link Jdbc.pool.ConnectionPool}
+     */
+    public EmployeeService(DataSource dataSource, EmployeeCacheOptions cacheOptions) {
+        this.employeesRepository = new EmployeesRepository(dataSource);
+        this.employeeCache = new EmployeeCache(employeesRepository, cacheOptions);
+    }
 
+    /**
+     * All service calls are run on given connection, which stays open after each call.
+     * @param connection connection fully controlled by the caller
+     */
     public EmployeeService(Connection connection) {
-        this.employeesRepository = new EmployeesRepository(connection);
+        this(new SingleConnectionDataSource(connection));
     }
 
     //CRUD
 
+    /**
+     * @return unmodifiable set of all employees without resume and big note
+     */
     public Set<Employee> getAll() throws SQLException {
-        return employeesRepository.getAll();
+        return employeeCache.getAll();
+    }
+
+    /**
+     * @return employee without resume and big note or null when there is no employee with given id
+     */
+    public Employee getById(int id) throws SQLException {
+        return employeeCache.getById(id);
+    }
+
+    /**
+     * Streams all employees without resume and big note, see {@link #streamAll(int)}.
+     */
+    public Stream<Employee> streamAll() throws SQLException {
+        return employeesRepository.streamAll(DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Streams all employees without resume and big note using database cursor, so memory use stays flat
+     * regardless of the table size. Returned stream holds database connection and has to be closed,
+     * e.g. in try-with-resources block. SQLException thrown during iteration is wrapped in
+     * {@link Jdbc.UncheckedSQLException}.
+     * MySQL honours positive fetch size only with useCursorFetch=true in connection url (set in database.properties),
+     * without it Connector/J reads the whole result into memory.
+     * @param fetchSize number of rows fetched from database in one round trip
+     */
+    public Stream<Employee> streamAll(int fetchSize) throws SQLException {
+        return employeesRepository.streamAll(fetchSize);
+    }
+
+    /**
+     * Publisher of all employees without resume and big note, see {@link #publishAll(Executor)}.
+     * Every subscription is served by its own daemon thread.
+     */
+    public Flow.Publisher<Employee> publishAll() {
+        return publishAll(PUBLISHER_EXECUTOR);
+    }
+
+    /**
+     * Reactive counterpart of {@link #streamAll(int)}. Every subscriber gets its own query, which is executed
+     * on the first request. Rows are read from the cursor only as they are requested, so slow subscriber
+     * never causes whole table to be buffered. Cancelling the subscription closes the cursor and returns
+     * the connection.
+     * @param executor runs blocking JDBC calls of subscriptions, one task per subscription for its whole lifetime
+     */
+    public Flow.Publisher<Employee> publishAll(Executor executor) {
+        return employeesRepository.publishAll(executor);
+    }
+
+    /**
+     * Publisher of get_employees_for_department procedure result, every subscription is served by its own
+     * daemon thread.
+     */
+    public Flow.Publisher<Employee> publishAllByDepartment(String department) {
+        return publishAllByDepartment(department, PUBLISHER_EXECUTOR);
+    }
+
+    /**
+     * Same as {@link #publishAll(Executor)}, but rows come from get_employees_for_department procedure.
+     */
+    public Flow.Publisher<Employee> publishAllByDepartment(String department, Executor executor) {
+        return employeesRepository.publishEmployeesForDepartment(department, executor);
+    }
+
+    /**
+     * Reads all employees without resume and big note into columnar container, which takes several times less heap
+     * than {@link #getAll()} and has salary aggregates by department. Rows keep the database order.
+     * Rows are fetched through cursor, which on MySQL needs useCursorFetch=true in connection url.
+     */
+    public EmployeeColumns getAllColumns() throws SQLException {
+        return employeesRepository.getAllColumns(DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Export with default {@link ExportOptions}: CSV file, one reading thread per processor.
+     */
+    public ExportReport export(Path target) throws IOException, SQLException {
+        return export(target, ExportOptions.DEFAULT);
+    }
+
+    /**
+     * Writes all employees without resume and big note, ordered by id, into the file. Table is split into id ranges
+     * read in parallel, each on its own connection of the service data source, so the data source should be a pool
+     * with at least {@link ExportOptions#getThreads()} connections. Rows are encoded straight into reusable buffers
+     * and written with file channels, without Employee object per row.
+     * @param target file which is created or overwritten
+     */
+    public ExportReport export(Path target, ExportOptions options) throws IOException, SQLException {
+        return new EmployeeExporter(employeesRepository, target, options).run();
+    }
+
+    /**
+     * Reads one page of employees ordered by id. Cost of the page does not grow with its position,
+     * unlike OFFSET based paging.
+     * @param continuationToken null for the first page, otherwise token of previous page
+     *                          created for the same filter
+     * @param limit maximum number of employees on the page
+     * @param filter department and salary range conditions, {@link EmployeeFilter#NONE} for no conditions
+     */
+    public EmployeePage page(String continuationToken, int limit, EmployeeFilter filter) throws SQLException {
+        return employeesRepository.page(continuationToken, limit, filter);
     }
 
     public int insert(Employee employee) throws SQLException {
-        return employeesRepository.insert(employee);
+        int id = employeesRepository.insert(employee);
+        employeeCache.inserted(Collections.singleton(employee.getDepartment()), id);
+        return id;
+    }
+
+    /**
+     * Bulk insert with default {@link BatchInsertOptions}.
+     */
+    public BatchInsertResult insertAll(Iterable<Employee> employees) throws SQLException {
+        return insertAll(employees, BatchInsertOptions.DEFAULT);
+    }
+
+    public BatchInsertResult insertAll(Iterable<Employee> employees, BatchInsertOptions options) throws SQLException {
+        try {
+            return employeesRepository.insertAll(employees, options);
+        } finally {
+            //employees are iterated only once, so their departments are not known here
+            employeeCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Bulk load with multi-row INSERT batches of 1000 rows as fallback.
+     */
+    public BulkLoadReport bulkLoad(Iterable<Employee> employees) throws SQLException {
+        return bulkLoad(employees, BatchInsertOptions.DEFAULT);
+    }
+
+    /**
+     * Initial load of many employees. On MySQL rows are streamed through LOAD DATA LOCAL INFILE (connection url
+     * needs allowLoadLocalInfile=true), which is several times faster than batched INSERT. Rows which the server
+     * rejects are skipped and counted in the report. On other databases, or when the server refuses local infile,
+     * employees are inserted with multi-row INSERT batches and then they may be iterated a second time.
+     * Ids of employees are ignored, they are generated by the database.
+     * @param fallbackOptions batch size and retries of INSERT fallback
+     */
+    public BulkLoadReport bulkLoad(Iterable<Employee> employees, BatchInsertOptions fallbackOptions)
+            throws SQLException {
+        try {
+            return new EmployeeBulkLoader(employeesRepository, fallbackOptions).load(employees);
+        } finally {
+            employeeCache.invalidateAll();
+        }
     }
 
-    public void update(Map<String, Serializable> values, LinkedHashMap<String, LogicalOperation> conditionList) throws SQLException {
-        employeesRepository.update(values, conditionList);
+    /**
+     * Synchronization with default {@link SyncOptions}.
+     */
+    public SyncReport synchronize(Collection<Employee> snapshot) throws SQLException {
+        return synchronize(snapshot, SyncOptions.DEFAULT);
     }
 
-    public void delete(LinkedHashMap<String, LogicalOperation> conditionList) throws SQLException {
-        employeesRepository.delete(conditionList);
+    /**
+     * Makes employees table equal to the full list of employees, matched by id: new employees are inserted,
+     * changed ones updated and employees missing from the snapshot deleted. Rows whose content did not change
+     * are not written at all. Rows are sent in batches of one INSERT ... ON DUPLICATE KEY UPDATE (MySQL)
+     * or MERGE (H2) statement, every batch is committed separately.
+     * @param snapshot all employees, with ids of the source system
+     */
+    public SyncReport synchronize(Collection<Employee> snapshot, SyncOptions options) throws SQLException {
+        try {
+            return new EmployeeSynchronizer(employeesRepository, options).synchronize(snapshot);
+        } finally {
+            employeeCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Change set synchronization with default {@link SyncOptions}.
+     */
+    public SyncReport applyChanges(Collection<Employee> upserts, Collection<Integer> deletedIds)
+            throws SQLException {
+        return applyChanges(upserts, deletedIds, SyncOptions.DEFAULT);
+    }
+
+    /**
+     * Same as {@link #synchronize(Collection, SyncOptions)}, but only given employees are inserted or updated
+     * and only employees with given ids are deleted.
+     */
+    public SyncReport applyChanges(Collection<Employee> upserts, Collection<Integer> deletedIds,
+                                   SyncOptions options) throws SQLException {
+        try {
+            return new EmployeeSynchronizer(employeesRepository, options).applyChanges(upserts, deletedIds);
+        } finally {
+            employeeCache.invalidateAll();
+        }
+    }
+
+    /**
+     * @param values new values of columns, bound as parameters
+     * @param condition condition built with {@link Jdbc.query.Conditions}
+     */
+    public void update(Map<String, Serializable> values, Condition condition) throws SQLException {
+        try {
+            employeesRepository.update(values, condition);
+        } finally {
+            employeeCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Write-behind with default {@link WriteBehindOptions}: batches of up to 500 employees, flushed every 50 ms.
+     */
+    public EmployeeWriteBehind writeBehind() {
+        return writeBehind(WriteBehindOptions.DEFAULT);
+    }
+
+    /**
+     * Starts write-behind queue for frequent small updates of employees by id. Updates are merged per employee
+     * and committed in batches by one background thread on one connection at a time; cached reads of this service
+     * are invalidated after every batch. The queue should be closed when it is no longer needed.
+     */
+    public EmployeeWriteBehind writeBehind(WriteBehindOptions options) {
+        return new EmployeeWriteBehind(employeesRepository, options, employeeCache::invalidateAll);
+    }
+
+    /**
+     * @param condition condition built with {@link Jdbc.query.Conditions}
+     */
+    public void delete(Condition condition) throws SQLException {
+        try {
+            employeesRepository.delete(condition);
+        } finally {
+            employeeCache.invalidateAll();
+        }
+    }
+
+    /**
+     * @return hit ratio, load latency, evictions and invalidations of every cache, keyed by cache name
+     */
+    public Map<String, CacheStatistics> getCacheStatistics() {
+        return employeeCache.getStatistics();
     }
 
     //Stored Procedures
 
+    /**
+     * @return unmodifiable set of employees of the department
+     */
     public Set<Employee> getAllByDepartment(String department) throws SQLException {
-        return employeesRepository.getEmployeesForDepartment(department);
+        return employeeCache.getByDepartment(department);
     }
 
     public void greetDepartment(String department) throws SQLException {
@@ -50,28 +328,141 @@ public class EmployeeService {
     }
 
     public int getCountForDepartment(String department) throws SQLException {
-        return employeesRepository.getCountForTheDepartment(department);
+        return employeeCache.getCountForDepartment(department);
     }
 
     public void increaseSalariesForDepartment(String department, BigDecimal salary) throws SQLException {
-        employeesRepository.increaseSalariesForTheDepartment(department, salary);
+        try {
+            employeesRepository.increaseSalariesForTheDepartment(department, salary);
+        } finally {
+            employeeCache.departmentUpdated(department);
+        }
+    }
+
+    /**
+     * Batch increase with default {@link SalaryIncreaseOptions}.
+     */
+    public SalaryIncreaseReport increaseSalaries(List<SalaryIncrease> increases) throws SQLException {
+        return increaseSalaries(increases, SalaryIncreaseOptions.DEFAULT);
+    }
+
+    /**
+     * Increases salaries of many departments over one connection and one callable statement.
+     * Failure of one increase does not stop the others, failed ones are listed in {@link SalaryIncreaseReport#getFailed()}.
+     * @throws SQLException when connection fails, increases committed before are kept
+     */
+    public SalaryIncreaseReport increaseSalaries(List<SalaryIncrease> increases, SalaryIncreaseOptions options)
+            throws SQLException {
+        try {
+            return employeesRepository.increaseSalariesForDepartments(increases, options);
+        } finally {
+            for (SalaryIncrease increase : increases) {
+                employeeCache.departmentUpdated(increase.getDepartment());
+            }
+        }
+    }
+
+    /**
+     * Reads employee counts of many departments over one callable statement in one transaction, bypassing the cache.
+     */
+    public DepartmentCounts getCountsForDepartments(Collection<String> departments) throws SQLException {
+        return employeesRepository.getCountsForDepartments(departments);
     }
 
     //BLOB AND CLOB handling
 
-    public void addEmployeeResume(File file, int id) throws SQLException, IOException {
-        employeesRepository.addEmployeeResume(file, id);
+    /**
+     * @return report with size and CRC-32 of uploaded file
+     */
+    public LobTransferReport addEmployeeResume(File file, int id) throws SQLException, IOException {
+        return employeesRepository.addEmployeeResume(file, id);
+    }
+
+    /**
+     * Saves resume to FIRSTNAME_LASTNAME_COPY.pdf file.
+     * @return report with size and CRC-32 of downloaded resume, null when there is no such employee
+     */
+    public LobTransferReport getEmployeeResume(int id) throws IOException, SQLException {
+        return employeesRepository.getEmployeeResume(id);
+    }
+
+    /**
+     * Streams resume to given channel (e.g. socket or file channel) without holding it in heap.
+     * For MySQL the driver keeps whole BLOB in memory unless the result set is streamed, so multi-megabyte
+     * resumes are best read with useCursorFetch=true in connection url.
+     * @return report with size and CRC-32 of downloaded resume, null when there is no such employee
+     */
+    public LobTransferReport getEmployeeResume(int id, WritableByteChannel target) throws IOException, SQLException {
+        return employeesRepository.getEmployeeResume(id, target);
+    }
+
+    /**
+     * Streams resume to given output stream, e.g. HTTP response, which stays open.
+     */
+    public LobTransferReport getEmployeeResume(int id, OutputStream target) throws IOException, SQLException {
+        return employeesRepository.getEmployeeResume(id, Channels.newChannel(target));
+    }
+
+    /**
+     * Checks on the database side that stored resume has the same size and checksum as in given report,
+     * e.g. the one returned by {@link #addEmployeeResume(File, int)}.
+     */
+    public boolean verifyEmployeeResume(int id, LobTransferReport expected) throws SQLException {
+        return employeesRepository.verifyEmployeeResume(id, expected);
+    }
+
+    /**
+     * Uploads resumes and big notes listed in manifest file in parallel, every upload thread uses its own
+     * connection, so the data source should be pooled. Manifest is a text file with lines:
+     * employeeId,RESUME|BIG_NOTE,path
+     * Relative paths are resolved against manifest directory, empty lines and lines starting with # are ignored.
+     * Committed lines are recorded in checkpoint file, so running the job again after a crash uploads
+     * only the rest of the manifest.
+     * @return report with number of uploaded and skipped files, failures and MB/s
+     */
+    public IngestionReport ingestLobs(Path manifest, IngestionOptions options) throws IOException, SQLException {
+        return new LobIngestionJob(employeesRepository, manifest, options).run();
+    }
+
+    /**
+     * Uploads big note from UTF-8 text file.
+     */
+    public LobTransferReport addEmployeeBigNote(File file, int id) throws IOException, SQLException {
+        return addEmployeeBigNote(file, id, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return report with number of uploaded characters
+     */
+    public LobTransferReport addEmployeeBigNote(File file, int id, Charset charset) throws IOException, SQLException {
+        return employeesRepository.addEmployeeBigNote(file, id, charset);
     }
 
-    public void getEmployeeResume(int id) throws IOException, SQLException {
-        employeesRepository.getEmployeeResume(id);
+    /**
+     * Saves big note to FIRSTNAME_LASTNAME_BIG_NOTE_COPY.txt file encoded in UTF-8.
+     * @return report with number of downloaded characters, null when there is no such employee
+     */
+    public LobTransferReport getEmployeeBigNote(int id) throws IOException, SQLException {
+        return employeesRepository.getEmployeeBigNote(id, StandardCharsets.UTF_8);
     }
 
-    public void addEmployeeBigNote(File file, int id) throws FileNotFoundException, SQLException {
-        employeesRepository.addEmployeeBigNote(file, id);
+    /**
+     * Streams big note straight to given Writer or other Appendable without temporary files.
+     * Target is neither flushed nor closed.
+     * @return report with number of downloaded characters, null when there is no such employee
+     */
+    public LobTransferReport getEmployeeBigNote(int id, Appendable target) throws IOException, SQLException {
+        return employeesRepository.getEmployeeBigNote(id, target);
     }
 
-    public void getEmployeeBigNote(int id) throws IOException, SQLException {
-        employeesRepository.getEmployeeBigNote(id);
+    /**
+     * Streams big note encoded in given charset to output stream, e.g. HTTP response, which stays open.
+     */
+    public LobTransferReport getEmployeeBigNote(int id, OutputStream target, Charset charset)
+            throws IOException, SQLException {
+        Writer writer = new OutputStreamWriter(target, charset);
+        LobTransferReport report = employeesRepository.getEmployeeBigNote(id, writer);
+        writer.flush();
+        return report;
     }
 }
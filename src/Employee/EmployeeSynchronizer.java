@@ -0,0 +1,333 @@
+package Employee;
+
+import Jdbc.JdbcUtils;
+import Jdbc.log.Logger;
+import Jdbc.query.UpsertDialect;
+import Jdbc.transaction.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Reconciles employees table with employees coming from outside (e.g. HR feed), keyed by employee id.
+ *
+ * Current rows are read once and reduced to 64-bit content hashes (FNV-1a of the scalar columns), so rows whose
+ * content did not change are skipped without writing. Changed and new rows are sent as batches of single upsert
+ * statement (INSERT ... ON DUPLICATE KEY UPDATE or MERGE), removed rows are deleted with chunked "id IN (...)".
+ * Every batch and chunk is committed in its own transaction and retried on transient errors, upserts and deletes
+ * by id are idempotent, so a retried or interrupted synchronization can simply be run again.
+ * Inside a transaction of TransactionTemplate all of it is committed or retried by the template instead.
+ *
+ * Inserted and updated counts come from the hashes read before writing, not from driver update counts,
+ * which are not reliable for upserts (MySQL returns 2 for update, H2 always 1, rewritten batches SUCCESS_NO_INFO).
+ * One instance serves one call.
+ */
+class EmployeeSynchronizer {
+
+    private static final Logger LOGGER = Logger.getLogger(EmployeeSynchronizer.class);
+    private static final String TABLE = "employees";
+    private static final String KEY_COLUMN = "id";
+    private static final List<String> CONTENT_COLUMNS =
+            List.of("last_name", "first_name", "email", "department", "salary");
+    private static final String SELECT_CONTENT =
+            "SELECT id, last_name, first_name, email, department, salary FROM employees";
+    private static final String DELETE_BY_IDS = "DELETE FROM employees WHERE id IN ";
+    private static final int FETCH_SIZE = 1000;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final EmployeesRepository employeesRepository;
+    private final SyncOptions options;
+
+    private int inserted;
+    private int updated;
+    private int deleted;
+    private int unchanged;
+    private int batches;
+    private int retries;
+    private boolean transactionManaged;
+
+    EmployeeSynchronizer(EmployeesRepository employeesRepository, SyncOptions options) {
+        this.employeesRepository = employeesRepository;
+        this.options = options;
+    }
+
+    /*
+     * Makes the table equal to the snapshot: missing employees are inserted, changed ones updated
+     * and employees absent from the snapshot deleted.
+     */
+    SyncReport synchronize(Collection<Employee> snapshot) throws SQLException {
+        long start = System.nanoTime();
+        Map<Integer, Employee> employees = indexById(snapshot);
+
+        try (Connection connection = employeesRepository.getConnection()) {
+            transactionManaged = TransactionTemplate.isTransactionManaged(connection);
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                String upsertSql = upsertSql(connection);
+                Map<Integer, Long> currentHashes = readAllContentHashes(connection);
+                EmployeesRepository.commit(connection, transactionManaged);
+
+                upsertChanged(connection, upsertSql, employees.values(), currentHashes);
+                //whatever was not matched by the snapshot is gone from the source
+                deleteByIds(connection, new ArrayList<>(currentHashes.keySet()));
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        return report(start);
+    }
+
+    /*
+     * Applies change set: given employees are inserted or updated, employees with given ids are deleted,
+     * other rows are not touched.
+     */
+    SyncReport applyChanges(Collection<Employee> upserts, Collection<Integer> deletedIds) throws SQLException {
+        long start = System.nanoTime();
+        Map<Integer, Employee> employees = indexById(upserts);
+
+        try (Connection connection = employeesRepository.getConnection()) {
+            transactionManaged = TransactionTemplate.isTransactionManaged(connection);
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                String upsertSql = upsertSql(connection);
+                Map<Integer, Long> currentHashes = readContentHashes(connection, new ArrayList<>(employees.keySet()));
+                EmployeesRepository.commit(connection, transactionManaged);
+
+                upsertChanged(connection, upsertSql, employees.values(), currentHashes);
+                deleteByIds(connection, new ArrayList<>(deletedIds));
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        return report(start);
+    }
+
+    private SyncReport report(long start) {
+        SyncReport report = new SyncReport(inserted, updated, deleted, unchanged, batches, retries,
+                System.nanoTime() - start);
+        LOGGER.info("Employees synchronized: {}", report);
+        return report;
+    }
+
+    private String upsertSql(Connection connection) throws SQLException {
+        UpsertDialect dialect = options.getDialect() != null
+                ? options.getDialect()
+                : UpsertDialect.forDatabase(connection.getMetaData());
+        return dialect.upsertSql(TABLE, KEY_COLUMN, CONTENT_COLUMNS);
+    }
+
+    /*
+     * Later employee with the same id replaces the earlier one.
+     */
+    private static Map<Integer, Employee> indexById(Collection<Employee> employees) {
+        Map<Integer, Employee> byId = new LinkedHashMap<>();
+        for (Employee employee : employees) {
+            if (employee.getId() < 1) {
+                throw new IllegalArgumentException("Synchronized employee needs positive id: " + employee);
+            }
+            byId.put(employee.getId(), employee);
+        }
+        return byId;
+    }
+
+    private Map<Integer, Long> readAllContentHashes(Connection connection) throws SQLException {
+        Map<Integer, Long> hashes = new HashMap<>();
+        PreparedStatement statement = connection.prepareStatement(SELECT_CONTENT,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            statement.setFetchSize(FETCH_SIZE);
+            readContentHashes(statement, hashes);
+        } finally {
+            JdbcUtils.close(statement);
+        }
+        return hashes;
+    }
+
+    private Map<Integer, Long> readContentHashes(Connection connection, List<Integer> ids) throws SQLException {
+        Map<Integer, Long> hashes = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += options.getKeyChunkSize()) {
+            List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + options.getKeyChunkSize()));
+            PreparedStatement statement = connection.prepareStatement(
+                    SELECT_CONTENT + " WHERE id IN " + placeholders(chunk.size()));
+            try {
+                bindIds(statement, chunk);
+                readContentHashes(statement, hashes);
+            } finally {
+                JdbcUtils.close(statement);
+            }
+        }
+        return hashes;
+    }
+
+    private static void readContentHashes(PreparedStatement statement, Map<Integer, Long> hashes)
+            throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                hashes.put(resultSet.getInt(1), contentHash(resultSet.getString(2), resultSet.getString(3),
+                        resultSet.getString(4), resultSet.getString(5), resultSet.getDouble(6)));
+            }
+        }
+    }
+
+    /*
+     * Ids of processed employees are removed from currentHashes, so afterwards it holds only rows
+     * which were not matched.
+     */
+    private void upsertChanged(Connection connection, String upsertSql, Collection<Employee> employees,
+                               Map<Integer, Long> currentHashes) throws SQLException {
+        List<Employee> batch = new ArrayList<>(options.getBatchSize());
+        int batchInserts = 0;
+        for (Employee employee : employees) {
+            Long currentHash = currentHashes.remove(employee.getId());
+            if (currentHash != null && currentHash == contentHash(employee)) {
+                unchanged++;
+                continue;
+            }
+            batch.add(employee);
+            if (currentHash == null) {
+                batchInserts++;
+            }
+            if (batch.size() == options.getBatchSize()) {
+                upsertBatch(connection, upsertSql, batch, batchInserts);
+                batch.clear();
+                batchInserts = 0;
+            }
+        }
+        if (!batch.isEmpty()) {
+            upsertBatch(connection, upsertSql, batch, batchInserts);
+        }
+    }
+
+    private void upsertBatch(Connection connection, String upsertSql, List<Employee> batch, int batchInserts)
+            throws SQLException {
+        commitWithRetries(connection, transaction -> {
+            PreparedStatement statement = transaction.prepareStatement(upsertSql);
+            try {
+                for (Employee employee : batch) {
+                    statement.setInt(1, employee.getId());
+                    statement.setString(2, employee.getLast_name());
+                    statement.setString(3, employee.getFirst_name());
+                    statement.setString(4, employee.getEmail());
+                    statement.setString(5, employee.getDepartment());
+                    statement.setDouble(6, employee.getSalary());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                return batch.size();
+            } finally {
+                JdbcUtils.close(statement);
+            }
+        });
+        inserted += batchInserts;
+        updated += batch.size() - batchInserts;
+    }
+
+    private void deleteByIds(Connection connection, List<Integer> ids) throws SQLException {
+        for (int from = 0; from < ids.size(); from += options.getKeyChunkSize()) {
+            List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + options.getKeyChunkSize()));
+            deleted += commitWithRetries(connection, transaction -> {
+                PreparedStatement statement = transaction.prepareStatement(
+                        DELETE_BY_IDS + placeholders(chunk.size()));
+                try {
+                    bindIds(statement, chunk);
+                    return statement.executeUpdate();
+                } finally {
+                    JdbcUtils.close(statement);
+                }
+            });
+        }
+    }
+
+    /*
+     * Returns result of the work from the attempt which was committed.
+     */
+    private int commitWithRetries(Connection connection, TransactionWork work) throws SQLException {
+        int attempt = 0;
+        while (true) {
+            try {
+                int result = work.execute(connection);
+                EmployeesRepository.commit(connection, transactionManaged);
+                batches++;
+                retries += attempt;
+                return result;
+            } catch (SQLException e) {
+                if (transactionManaged) {
+                    throw e;
+                }
+                EmployeesRepository.rollback(connection, false, e);
+                if (attempt >= options.getMaxRetries() || !EmployeesRepository.isTransient(e)) {
+                    throw e;
+                }
+                attempt++;
+            }
+        }
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 2 + 1).append("(?");
+        for (int i = 1; i < count; i++) {
+            sb.append(",?");
+        }
+        return sb.append(')').toString();
+    }
+
+    private static void bindIds(PreparedStatement statement, List<Integer> ids) throws SQLException {
+        Iterator<Integer> iterator = ids.iterator();
+        for (int i = 1; iterator.hasNext(); i++) {
+            statement.setInt(i, iterator.next());
+        }
+    }
+
+    private static long contentHash(Employee employee) {
+        return contentHash(employee.getLast_name(), employee.getFirst_name(), employee.getEmail(),
+                employee.getDepartment(), employee.getSalary());
+    }
+
+    private static long contentHash(String lastName, String firstName, String email, String department,
+                                    double salary) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = hash(hash, lastName);
+        hash = hash(hash, firstName);
+        hash = hash(hash, email);
+        hash = hash(hash, department);
+        return hash(hash, Double.doubleToLongBits(salary));
+    }
+
+    /*
+     * Length goes first, so that ("ab", "c") and ("a", "bc") or null and "" give different hashes.
+     */
+    private static long hash(long hash, String value) {
+        if (value == null) {
+            return hash(hash, -1L);
+        }
+        hash = hash(hash, value.length());
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long hash(long hash, long value) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            hash = (hash ^ ((value >>> shift) & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    @FunctionalInterface
+    private interface TransactionWork {
+        int execute(Connection connection) throws SQLException;
+    }
+}
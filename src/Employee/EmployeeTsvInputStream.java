@@ -0,0 +1,162 @@
+package Employee;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+
+/*
+ * Encodes employees into tab separated rows while the driver reads the stream, so LOAD DATA LOCAL INFILE
+ * does not need a file on disk and memory use does not depend on the number of rows. Rows are encoded
+ * into one reusable buffer, which is refilled when the driver has read it all.
+ *
+ * Format matches FIELDS TERMINATED BY '\t' ESCAPED BY '\\' LINES TERMINATED BY '\n': NULL is written as \N,
+ * backslash, tab, new line, carriage return and NUL characters are escaped. Columns are last_name, first_name,
+ * email, department and salary with two decimal places, id is generated by the database.
+ */
+class EmployeeTsvInputStream extends InputStream {
+
+    private static final int MAX_SALARY_LENGTH = 24;
+
+    private final Iterator<Employee> employees;
+    private ByteBuffer buffer;
+    private Employee pending;
+    private long rows;
+
+    EmployeeTsvInputStream(Iterator<Employee> employees, int bufferSize) {
+        this.employees = employees;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.buffer.flip();
+    }
+
+    /*
+     * Returns number of rows encoded so far, which is the number of rows the driver has read or is about to read.
+     */
+    long getRows() {
+        return rows;
+    }
+
+    @Override
+    public int read() {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        int count = Math.min(length, buffer.remaining());
+        buffer.get(target, offset, count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+    private boolean fill() {
+        buffer.clear();
+        while (pending != null || employees.hasNext()) {
+            Employee employee = pending != null ? pending : employees.next();
+            pending = null;
+            int maxLength = maxEncodedLength(employee);
+            if (buffer.remaining() < maxLength) {
+                if (buffer.position() > 0) {
+                    pending = employee;
+                    break;
+                }
+                //single row larger than the whole buffer
+                buffer = ByteBuffer.allocate(maxLength);
+            }
+            encode(employee);
+            rows++;
+        }
+        buffer.flip();
+        return buffer.hasRemaining();
+    }
+
+    private void encode(Employee employee) {
+        putField(employee.getLast_name());
+        buffer.put((byte) '\t');
+        putField(employee.getFirst_name());
+        buffer.put((byte) '\t');
+        putField(employee.getEmail());
+        buffer.put((byte) '\t');
+        putField(employee.getDepartment());
+        buffer.put((byte) '\t');
+        putCents(Math.round(employee.getSalary() * 100));
+        buffer.put((byte) '\n');
+    }
+
+    private void putField(String value) {
+        if (value == null) {
+            buffer.put((byte) '\\').put((byte) 'N');
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            char escaped = escape(c);
+            if (escaped != 0) {
+                buffer.put((byte) '\\').put((byte) escaped);
+            } else {
+                i = ExportWriter.putUtf8(buffer, value, i, value.length());
+            }
+        }
+    }
+
+    private static char escape(char c) {
+        switch (c) {
+            case '\\':
+                return '\\';
+            case '\t':
+                return 't';
+            case '\n':
+                return 'n';
+            case '\r':
+                return 'r';
+            case '\0':
+                return '0';
+            default:
+                return 0;
+        }
+    }
+
+    private void putCents(long cents) {
+        if (cents < 0) {
+            buffer.put((byte) '-');
+            cents = -cents;
+        }
+        long units = cents / 100;
+        long divisor = 1;
+        while (divisor <= units / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer.put((byte) ('0' + units / divisor % 10));
+        }
+        buffer.put((byte) '.');
+        buffer.put((byte) ('0' + cents % 100 / 10));
+        buffer.put((byte) ('0' + cents % 10));
+    }
+
+    /*
+     * Upper bound: every UTF-16 char takes at most 3 bytes in UTF-8 (surrogate pair 4 bytes for 2 chars)
+     * and escaped characters take 2 bytes.
+     */
+    private static int maxEncodedLength(Employee employee) {
+        return maxEncodedLength(employee.getLast_name()) + maxEncodedLength(employee.getFirst_name())
+                + maxEncodedLength(employee.getEmail()) + maxEncodedLength(employee.getDepartment())
+                + MAX_SALARY_LENGTH + 5;
+    }
+
+    private static int maxEncodedLength(String value) {
+        return value == null ? 2 : value.length() * 3;
+    }
+}
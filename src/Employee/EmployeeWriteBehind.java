@@ -0,0 +1,435 @@
+package Employee;
+
+import Jdbc.log.Logger;
+import Jdbc.query.Conditions;
+import Jdbc.query.SqlQuery;
+import Jdbc.query.Update;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind updates of employees by id. Callers only put the update into a bounded queue and get a future,
+ * one background thread writes queued updates in batches: updates of the same employee are merged (later value
+ * of a column wins), all merged updates are sent as batched UPDATE statements in one transaction, and their
+ * futures are completed when the transaction is committed. Many small updates thus cost one round trip
+ * and one commit (log flush on the server) per batch instead of one per update.
+ *
+ * Batch is flushed when it has {@link WriteBehindOptions#getMaxBatchSize()} employees or when its oldest update
+ * waited {@link WriteBehindOptions#getFlushIntervalMillis()}, whichever comes first. Transient errors are retried;
+ * when the batch fails otherwise, its updates are written one by one, so one bad update does not fail the others.
+ *
+ * Updates are kept only in memory until they are committed, {@link #close()} should be called before
+ * the application exits. Reads do not see queued updates until their futures complete.
+ */
+public class EmployeeWriteBehind implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(EmployeeWriteBehind.class);
+    private static final String TABLE = "employees";
+    private static final String KEY_COLUMN = "id";
+    private static final long FULL_QUEUE_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final EmployeesRepository employeesRepository;
+    private final WriteBehindOptions options;
+    private final Runnable afterFlush;
+
+    //bounded multi-producer ring buffer, the same scheme as in Jdbc.log.AsyncLogWriter
+    private final QueuedUpdate[] queue;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicInteger activeProducers = new AtomicInteger();
+    private final Thread flusher;
+    private volatile long head;
+    private volatile boolean flusherIdle;
+    private volatile boolean closed;
+
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder transactions = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    //used only by the flusher thread
+    private final Map<Integer, PendingUpdate> pending = new LinkedHashMap<>();
+    private final List<CompletableFuture<Void>> flushWaiters = new ArrayList<>();
+    private long oldestPendingNanos;
+
+    /*
+     * @param afterFlush called by the flushing thread after every flush, before futures of the flushed updates
+     *                   are completed, e.g. to invalidate cached reads
+     */
+    EmployeeWriteBehind(EmployeesRepository employeesRepository, WriteBehindOptions options, Runnable afterFlush) {
+        this.employeesRepository = employeesRepository;
+        this.options = options;
+        this.afterFlush = afterFlush;
+        int capacity = Integer.highestOneBit(options.getQueueCapacity() - 1) << 1;
+        this.queue = new QueuedUpdate[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            queue[i] = new QueuedUpdate();
+            sequences.set(i, i);
+        }
+        this.flusher = new Thread(this::run, "employee-write-behind");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues update of one employee, waits only when the queue is full.
+     * @param values new values of columns, bound as parameters
+     * @return future completed when the update is committed, or exceptionally when it cannot be written
+     * or the queue is closed
+     * @throws IllegalArgumentException when there are no values, the id column is set or column name is invalid
+     */
+    public CompletableFuture<Void> update(int id, Map<String, Serializable> values) {
+        Update validated = Update.table(TABLE);
+        for (Map.Entry<String, Serializable> value : values.entrySet()) {
+            if (KEY_COLUMN.equalsIgnoreCase(value.getKey())) {
+                throw new IllegalArgumentException("Employee id cannot be updated by write-behind!");
+            }
+            validated.set(value.getKey(), value.getValue());
+        }
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("Update needs at least one column to set!");
+        }
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (enqueue(id, new HashMap<>(values), future)) {
+            updates.increment();
+        }
+        return future;
+    }
+
+    /**
+     * @return future completed when all updates queued before this call are written
+     * (failed updates are reported by their own futures)
+     */
+    public CompletableFuture<Void> flush() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        enqueue(0, null, future);
+        return future;
+    }
+
+    /**
+     * Stops accepting updates and waits until the queued ones are written. When the waiting thread
+     * is interrupted, it stops waiting and its interrupt flag is set again, queued updates are still written.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(flusher);
+        try {
+            while (flusher.isAlive()) {
+                flusher.join(TimeUnit.MINUTES.toMillis(1));
+                if (flusher.isAlive()) {
+                    LOGGER.info("Waiting for write-behind updates to be flushed...");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public WriteBehindStatistics getStatistics() {
+        return new WriteBehindStatistics(updates.sum(), coalesced.sum(), rows.sum(), transactions.sum(),
+                retries.sum(), failed.sum());
+    }
+
+    /*
+     * Producers register in activeProducers before checking closed, so the flusher, which stops only when closed
+     * is set and no producer is active, cannot miss an update published after its last drain.
+     */
+    private boolean enqueue(int id, Map<String, Serializable> values, CompletableFuture<Void> future) {
+        activeProducers.incrementAndGet();
+        try {
+            while (!closed) {
+                long position = tail.get();
+                int index = (int) position & mask;
+                long difference = sequences.get(index) - position;
+                if (difference == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        queue[index].set(id, values, future);
+                        sequences.set(index, position + 1);
+                        if (flusherIdle || position + 1 - head >= options.getMaxBatchSize()) {
+                            LockSupport.unpark(flusher);
+                        }
+                        return true;
+                    }
+                } else if (difference < 0) {
+                    LockSupport.unpark(flusher);
+                    LockSupport.parkNanos(this, FULL_QUEUE_WAIT_NANOS);
+                }
+            }
+        } finally {
+            activeProducers.decrementAndGet();
+        }
+        future.completeExceptionally(new IllegalStateException("Write-behind queue is closed!"));
+        return false;
+    }
+
+    private void run() {
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(options.getFlushIntervalMillis());
+        while (true) {
+            boolean wasClosed = closed && activeProducers.get() == 0;
+            boolean flushRequested = drain();
+
+            if (!pending.isEmpty() && (flushRequested || wasClosed || pending.size() >= options.getMaxBatchSize()
+                    || System.nanoTime() - oldestPendingNanos >= flushIntervalNanos)) {
+                flushPending();
+            }
+            if (pending.isEmpty()) {
+                completeFlushWaiters();
+            }
+
+            if (hasQueuedUpdate() || (!pending.isEmpty() && pending.size() >= options.getMaxBatchSize())) {
+                continue;
+            }
+            if (pending.isEmpty()) {
+                if (wasClosed) {
+                    return;
+                }
+                flusherIdle = true;
+                if (!hasQueuedUpdate() && !closed) {
+                    LockSupport.parkNanos(this, IDLE_WAIT_NANOS);
+                }
+                flusherIdle = false;
+            } else {
+                long remaining = oldestPendingNanos + flushIntervalNanos - System.nanoTime();
+                if (remaining > 0 && !closed) {
+                    LockSupport.parkNanos(this, remaining);
+                }
+            }
+        }
+    }
+
+    /*
+     * Moves queued updates into pending ones until the queue is empty or the batch is full.
+     * Returns true when flush was requested.
+     */
+    private boolean drain() {
+        boolean flushRequested = false;
+        long position = head;
+        while (pending.size() < options.getMaxBatchSize() && hasQueuedUpdate(position)) {
+            int index = (int) position & mask;
+            QueuedUpdate queued = queue[index];
+            if (queued.values == null) {
+                flushWaiters.add(queued.future);
+                flushRequested = true;
+            } else {
+                merge(queued);
+            }
+            queued.clear();
+            sequences.set(index, position + queue.length);
+            head = ++position;
+        }
+        return flushRequested;
+    }
+
+    private void merge(QueuedUpdate queued) {
+        PendingUpdate update = pending.get(queued.id);
+        if (update == null) {
+            if (pending.isEmpty()) {
+                oldestPendingNanos = System.nanoTime();
+            }
+            pending.put(queued.id, new PendingUpdate(queued.id, queued.values, queued.future));
+        } else {
+            update.merge(queued.values, queued.future);
+            coalesced.increment();
+        }
+    }
+
+    private boolean hasQueuedUpdate() {
+        return hasQueuedUpdate(head);
+    }
+
+    private boolean hasQueuedUpdate(long position) {
+        return sequences.get((int) position & mask) == position + 1;
+    }
+
+    /*
+     * Futures are completed only after afterFlush, so a caller whose future completed cannot read
+     * the old value from a cache which is invalidated by afterFlush.
+     */
+    private void flushPending() {
+        List<PendingUpdate> batch = new ArrayList<>(pending.values());
+        pending.clear();
+        try {
+            write(batch);
+        } catch (SQLException | RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).failure = e;
+            } else {
+                LOGGER.warn("Write-behind batch of {} updates failed, writing them one by one: {}", batch.size(),
+                        e.getMessage());
+                for (PendingUpdate update : batch) {
+                    writeAlone(update);
+                }
+            }
+        }
+        runAfterFlush();
+        for (PendingUpdate update : batch) {
+            if (update.failure == null) {
+                complete(update);
+            } else {
+                fail(update, update.failure);
+            }
+        }
+    }
+
+    private void writeAlone(PendingUpdate update) {
+        try {
+            write(List.of(update));
+        } catch (SQLException | RuntimeException e) {
+            update.failure = e;
+        }
+    }
+
+    /*
+     * Writes all updates in one transaction, statements are grouped by their SQL text (set of columns),
+     * so every group is one JDBC batch.
+     */
+    private void write(Collection<PendingUpdate> batch) throws SQLException {
+        Map<String, List<SqlQuery>> queries = new LinkedHashMap<>();
+        for (PendingUpdate update : batch) {
+            SqlQuery query = update.toQuery();
+            queries.computeIfAbsent(query.getSql(), sql -> new ArrayList<>()).add(query);
+        }
+
+        try (Connection connection = employeesRepository.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                int attempt = 0;
+                while (true) {
+                    try {
+                        executeBatches(connection, queries);
+                        connection.commit();
+                        transactions.increment();
+                        rows.add(batch.size());
+                        return;
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        if (attempt >= options.getMaxRetries() || !EmployeesRepository.isTransient(e)) {
+                            throw e;
+                        }
+                        attempt++;
+                        retries.increment();
+                    }
+                }
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private static void executeBatches(Connection connection, Map<String, List<SqlQuery>> queries)
+            throws SQLException {
+        for (Map.Entry<String, List<SqlQuery>> group : queries.entrySet()) {
+            try (PreparedStatement statement = connection.prepareStatement(group.getKey())) {
+                for (SqlQuery query : group.getValue()) {
+                    query.bind(statement);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        }
+    }
+
+    private static void complete(PendingUpdate update) {
+        for (CompletableFuture<Void> future : update.futures) {
+            future.complete(null);
+        }
+    }
+
+    private void fail(PendingUpdate update, Exception e) {
+        LOGGER.warn("Write-behind update of employee {} failed: {}", update.id, e.getMessage());
+        failed.add(update.futures.size());
+        for (CompletableFuture<Void> future : update.futures) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private void completeFlushWaiters() {
+        for (CompletableFuture<Void> waiter : flushWaiters) {
+            waiter.complete(null);
+        }
+        flushWaiters.clear();
+    }
+
+    private void runAfterFlush() {
+        try {
+            afterFlush.run();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Problem after write-behind flush: {}", e.getMessage());
+        }
+    }
+
+    /*
+     * Slot of the ring buffer, values are null for flush request.
+     */
+    private static class QueuedUpdate {
+
+        private int id;
+        private Map<String, Serializable> values;
+        private CompletableFuture<Void> future;
+
+        void set(int id, Map<String, Serializable> values, CompletableFuture<Void> future) {
+            this.id = id;
+            this.values = values;
+            this.future = future;
+        }
+
+        void clear() {
+            this.values = null;
+            this.future = null;
+        }
+    }
+
+    /*
+     * Columns are kept sorted and matched case-insensitively, so updates of the same set of columns
+     * give the same SQL text.
+     */
+    private static class PendingUpdate {
+
+        private final int id;
+        private final Map<String, Serializable> values = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final List<CompletableFuture<Void>> futures = new ArrayList<>(1);
+        private Exception failure;
+
+        PendingUpdate(int id, Map<String, Serializable> values, CompletableFuture<Void> future) {
+            this.id = id;
+            merge(values, future);
+        }
+
+        void merge(Map<String, Serializable> values, CompletableFuture<Void> future) {
+            this.values.putAll(values);
+            this.futures.add(future);
+        }
+
+        SqlQuery toQuery() {
+            Update update = Update.table(TABLE);
+            values.forEach(update::set);
+            return update.where(Conditions.equal(KEY_COLUMN, id)).toQuery();
+        }
+    }
+}
@@ -1,232 +1,1006 @@
 package Employee;
 
+import Jdbc.BatchReport;
 import Jdbc.JdbcUtils;
-import Jdbc.LogicalOperation;
+import Jdbc.UncheckedSQLException;
 import Jdbc.annotation.InOutParametersProcedure;
 import Jdbc.annotation.InParametersProcedure;
 import Jdbc.annotation.OutParametersProcedure;
-
+import Jdbc.lob.LobStreams;
+import Jdbc.log.Logger;
+import Jdbc.procedure.ProcedureInvoker;
+import Jdbc.lob.LobTransferReport;
+import Jdbc.query.Condition;
+import Jdbc.query.Delete;
+import Jdbc.query.SqlQuery;
+import Jdbc.query.Update;
+import Jdbc.transaction.TransactionTemplate;
+
+import javax.sql.DataSource;
 import java.io.*;
 import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.sql.*;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 
 /*
  * This class contains methods which should be called only within current package
  */
 public class EmployeesRepository {
 
-    private final Connection connection;
-
-    EmployeesRepository(Connection connection) {
-        this.connection = connection;
+    private static final Logger LOGGER = Logger.getLogger(EmployeesRepository.class);
+    private static final String INSERT_QUERY = "INSERT INTO employees " +
+            "(last_name, first_name, email, department, salary) VALUES (?,?,?,?,?)";
+    private static final String INSERT_VALUES_ROW = "(?,?,?,?,?)";
+    private static final int INSERT_PARAMETERS_COUNT = 5;
+    private static final String SERIALIZATION_FAILURE = "40001";
+    private static final String CONNECTION_EXCEPTION_CLASS = "08";
+    private static final String INCREASE_SALARIES_CALL = "{call increase_salaries_for_department(?, ?)}";
+    private static final String GET_COUNT_CALL = "{call get_count_for_department(?, ?)}";
+    private static final int CLOB_READER_BUFFER_SIZE = 256 * 1024;
+    private static final String SELECT_SCALAR_COLUMNS =
+            "SELECT id, last_name, first_name, email, department, salary FROM employees";
+
+    private final DataSource dataSource;
+    private final EmployeeProcedures procedures;
+
+    EmployeesRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.procedures = new ProcedureInvoker(dataSource)
+                .addRowMapper(Employee.class, EmployeesRepository::mapEmployee)
+                .create(EmployeeProcedures.class);
     }
 
     Set<Employee> getAll() throws SQLException {
-        Statement statement = connection.createStatement();
-        ResultSet resultSet = statement.executeQuery("SELECT * FROM employees");
+        try (Connection connection = getConnection()) {
+            PreparedStatement statement = connection.prepareStatement("SELECT * FROM employees");
+            ResultSet resultSet = statement.executeQuery();
 
-        Set<Employee> employees = getEmployeesFromResultSet(resultSet);
+            Set<Employee> employees = getEmployeesFromResultSet(resultSet);
 
-        JdbcUtils.close(statement, resultSet);
+            JdbcUtils.close(statement, resultSet);
 
-        return employees;
+            return employees;
+        }
+    }
+
+    /**
+     * @return employee without resume and big note or null when there is no employee with given id
+     */
+    Employee getById(int id) throws SQLException {
+        try (Connection connection = getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(SELECT_SCALAR_COLUMNS + " WHERE id = ?");
+            statement.setInt(1, id);
+            ResultSet resultSet = statement.executeQuery();
+
+            Employee employee = resultSet.next() ? mapEmployee(resultSet) : null;
+
+            JdbcUtils.close(resultSet, statement);
+
+            return employee;
+        }
     }
 
+    /**
+     * Lazily reads employees through forward-only, read-only cursor. Only scalar columns are fetched
+     * (without resume and big_note), so memory use does not depend on the number of rows.
+     * Connection stays borrowed until the stream is closed or fully consumed, so the stream should be used
+     * in try-with-resources block.
+     * @param fetchSize rows fetched in one round trip, for MySQL it is honoured only with useCursorFetch=true
+     *                  in connection url, Integer.MIN_VALUE makes MySQL stream rows one by one
+     */
+    Stream<Employee> streamAll(int fetchSize) throws SQLException {
+        Connection connection = getConnection();
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            statement = connection.prepareStatement(SELECT_SCALAR_COLUMNS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            resultSet = statement.executeQuery();
+        } catch (SQLException | RuntimeException e) {
+            JdbcUtils.close(resultSet, statement, connection);
+            throw e;
+        }
+
+        EmployeeCursor cursor = new EmployeeCursor(connection, statement, resultSet);
+        return StreamSupport.stream(cursor, false).onClose(cursor::close);
+    }
+
+    /**
+     * @return publisher which reads all employees without resume and big note on demand of its subscribers
+     */
+    Flow.Publisher<Employee> publishAll(Executor executor) {
+        return new EmployeePublisher(this, connection -> connection.prepareStatement(SELECT_SCALAR_COLUMNS,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY), executor);
+    }
+
+    /**
+     * @return publisher of get_employees_for_department procedure result, rows are read on demand of subscribers
+     */
+    Flow.Publisher<Employee> publishEmployeesForDepartment(String department, Executor executor) {
+        return new EmployeePublisher(this, connection -> {
+            CallableStatement callableStatement = connection.prepareCall("{call get_employees_for_department(?)}");
+            callableStatement.setString(1, department);
+            return callableStatement;
+        }, executor);
+    }
+
+    /**
+     * Reads scalar columns of all employees straight into column arrays, without Employee object per row.
+     * Salaries are read as double and kept as cents, which is exact for DECIMAL(x,2) values below 10^13.
+     */
+    EmployeeColumns getAllColumns(int fetchSize) throws SQLException {
+        try (Connection connection = getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(SELECT_SCALAR_COLUMNS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            ResultSet resultSet = statement.executeQuery();
+
+            int id = resultSet.findColumn("id");
+            int lastName = resultSet.findColumn("last_name");
+            int firstName = resultSet.findColumn("first_name");
+            int email = resultSet.findColumn("email");
+            int department = resultSet.findColumn("department");
+            int salary = resultSet.findColumn("salary");
+
+            EmployeeColumns.ColumnsBuilder builder = new EmployeeColumns.ColumnsBuilder(fetchSize);
+            while (resultSet.next()) {
+                builder.addRow(resultSet.getInt(id), resultSet.getString(lastName), resultSet.getString(firstName),
+                        resultSet.getString(email), resultSet.getString(department),
+                        Math.round(resultSet.getDouble(salary) * 100));
+            }
+
+            JdbcUtils.close(resultSet, statement);
+
+            return builder.build();
+        }
+    }
+
+    /**
+     * Keyset (seek method) pagination: rows are read with "id > last id ORDER BY id LIMIT n", so every page
+     * costs the same index range scan no matter how deep it is. Filtering by department is fastest
+     * with index on (department, id).
+     * @param continuationToken token of previous page or null for the first page
+     * @param limit maximum number of employees on the page
+     */
+    EmployeePage page(String continuationToken, int limit, EmployeeFilter filter) throws SQLException {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit has to be positive!");
+        }
+        int afterId = continuationToken == null ? 0 : PageToken.decode(continuationToken, filter);
+
+        StringBuilder sb = new StringBuilder(SELECT_SCALAR_COLUMNS).append(" WHERE id > ?");
+        if (filter.getDepartment() != null) {
+            sb.append(" AND department = ?");
+        }
+        if (filter.getMinSalary() != null) {
+            sb.append(" AND salary >= ?");
+        }
+        if (filter.getMaxSalary() != null) {
+            sb.append(" AND salary <= ?");
+        }
+        sb.append(" ORDER BY id LIMIT ?");
+
+        try (Connection connection = getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(sb.toString());
+
+            int index = 1;
+            statement.setInt(index++, afterId);
+            if (filter.getDepartment() != null) {
+                statement.setString(index++, filter.getDepartment());
+            }
+            if (filter.getMinSalary() != null) {
+                statement.setBigDecimal(index++, filter.getMinSalary());
+            }
+            if (filter.getMaxSalary() != null) {
+                statement.setBigDecimal(index++, filter.getMaxSalary());
+            }
+            //one row more than requested tells whether there is next page
+            statement.setInt(index, limit + 1);
+
+            ResultSet resultSet = statement.executeQuery();
+            List<Employee> employees = new ArrayList<>(getEmployeesFromResultSet(resultSet));
+            JdbcUtils.close(resultSet, statement);
+
+            String nextToken = null;
+            if (employees.size() > limit) {
+                employees.remove(limit);
+                nextToken = PageToken.encode(employees.get(limit - 1).getId(), filter);
+            }
+            return new EmployeePage(employees, nextToken);
+        }
+    }
+
+    /*
+     * Employees are kept in the order of result set.
+     */
     private Set<Employee> getEmployeesFromResultSet(ResultSet resultSet) throws SQLException {
-        Set<Employee> employees = new HashSet<>();
+        Set<Employee> employees = new LinkedHashSet<>();
         if (resultSet != null) {
             while (resultSet.next()) {
-                employees.add(
-                        new Employee(
-                                resultSet.getInt("id"),
-                                resultSet.getString("last_name"),
-                                resultSet.getString("first_name"),
-                                resultSet.getString("email"),
-                                resultSet.getString("department"),
-                                resultSet.getDouble("salary")));
+                employees.add(mapEmployee(resultSet));
             }
         }
         return employees;
     }
 
+    static Employee mapEmployee(ResultSet resultSet) throws SQLException {
+        return new Employee(
+                resultSet.getInt("id"),
+                resultSet.getString("last_name"),
+                resultSet.getString("first_name"),
+                resultSet.getString("email"),
+                resultSet.getString("department"),
+                resultSet.getDouble("salary"));
+    }
+
+    /*
+     * Spliterator over open result set, all JDBC resources are released as soon as the last row is read.
+     */
+    private static class EmployeeCursor extends Spliterators.AbstractSpliterator<Employee> {
+        private final Connection connection;
+        private final Statement statement;
+        private final ResultSet resultSet;
+        private boolean closed;
+
+        EmployeeCursor(Connection connection, Statement statement, ResultSet resultSet) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.connection = connection;
+            this.statement = statement;
+            this.resultSet = resultSet;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Employee> action) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (!resultSet.next()) {
+                    close();
+                    return false;
+                }
+                action.accept(mapEmployee(resultSet));
+                return true;
+            } catch (SQLException e) {
+                close();
+                throw new UncheckedSQLException(e);
+            }
+        }
+
+        void close() {
+            if (!closed) {
+                closed = true;
+                JdbcUtils.close(resultSet, statement, connection);
+            }
+        }
+    }
+
     int insert(Employee employee) throws SQLException {
-        String query = "INSERT INTO employees " +
-                "(last_name, first_name, email, department, salary) VALUES (?,?,?,?,?)";
+        String query = INSERT_QUERY;
+
+        try (Connection connection = getConnection()) {
+            PreparedStatement ps = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+
+            bindEmployee(ps, 0, employee);
+
+            int rowAffected = ps.executeUpdate();
 
-        PreparedStatement ps = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+            printRowAffected(query, rowAffected);
 
-        ps.setString(1, employee.getLast_name());
-        ps.setString(2, employee.getFirst_name());
-        ps.setString(3, employee.getEmail());
-        ps.setString(4, employee.getDepartment());
-        ps.setDouble(5, employee.getSalary());
+            int newUserId = 0;
+            ResultSet rs = ps.getGeneratedKeys();
+            if (rs.next()) {
+                newUserId = rs.getInt(1);
+            }
+            JdbcUtils.close(rs);
 
-        int rowAffected = ps.executeUpdate();
 
-        printRowAffected(query, rowAffected);
+            JdbcUtils.close(ps);
 
-        int newUserId = 0;
-        ResultSet rs = ps.getGeneratedKeys();
-        if (rs.next()) {
-            newUserId = rs.getInt(1);
+            return newUserId;
         }
-        JdbcUtils.close(rs);
+    }
 
+    /**
+     * Inserts employees in chunks of options.getBatchSize() rows, every chunk is sent as one batch
+     * (or one multi-row INSERT) and committed in its own transaction. Chunk which failed with transient
+     * error is rolled back and sent again. Inside a transaction of {@link TransactionTemplate} chunks are
+     * neither committed nor retried here, the template does it for the whole transaction.
+     * @return generated ids in the same order as given employees and throughput report
+     */
+    BatchInsertResult insertAll(Iterable<Employee> employees, BatchInsertOptions options) throws SQLException {
+        long start = System.nanoTime();
+        int[] generatedIds = new int[options.getBatchSize()];
+        int rows = 0;
+        int batches = 0;
+        int retries = 0;
+
+        try (ChunkConnection connection = new ChunkConnection()) {
+            List<Employee> chunk = new ArrayList<>(options.getBatchSize());
+            for (Employee employee : employees) {
+                chunk.add(employee);
+                if (chunk.size() < options.getBatchSize()) {
+                    continue;
+                }
+                generatedIds = ensureCapacity(generatedIds, rows + chunk.size());
+                retries += insertChunk(connection, chunk, options, generatedIds, rows);
+                rows += chunk.size();
+                batches++;
+                chunk.clear();
+            }
+            if (!chunk.isEmpty()) {
+                generatedIds = ensureCapacity(generatedIds, rows + chunk.size());
+                retries += insertChunk(connection, chunk, options, generatedIds, rows);
+                rows += chunk.size();
+                batches++;
+            }
+        }
 
-        JdbcUtils.close(ps);
+        BatchReport report = new BatchReport(rows, batches, retries, System.nanoTime() - start);
+        printRowAffected(INSERT_QUERY, rows);
 
-        return newUserId;
+        return new BatchInsertResult(Arrays.copyOf(generatedIds, rows), report);
     }
 
-    void update(Map<String, Serializable> valuesToChange, LinkedHashMap<String, LogicalOperation> conditions) throws SQLException {
-        String query = JdbcUtils.createUpdateQuery("employees", valuesToChange, conditions);
+    /*
+     * Returns number of retries needed to insert and commit the chunk. Chunk which failed because
+     * the connection was lost is retried on a new connection.
+     */
+    private int insertChunk(ChunkConnection connection, List<Employee> chunk, BatchInsertOptions options,
+                            int[] generatedIds, int offset) throws SQLException {
+        int attempt = 0;
+        while (true) {
+            try {
+                if (options.isMultiRowValues()) {
+                    insertMultiRowValues(connection.get(), chunk, generatedIds, offset);
+                } else {
+                    insertBatch(connection.get(), chunk, generatedIds, offset);
+                }
+                if (!connection.isTransactionManaged()) {
+                    connection.get().commit();
+                }
+                return attempt;
+            } catch (SQLException e) {
+                if (connection.isTransactionManaged()) {
+                    throw e;
+                }
+                boolean connectionLost = isConnectionLost(e);
+                if (!connectionLost) {
+                    connection.rollback(e);
+                }
+                if (attempt >= options.getMaxRetries() || !(connectionLost || isTransient(e))) {
+                    throw e;
+                }
+                if (connectionLost) {
+                    connection.reconnect(e);
+                }
+                attempt++;
+            }
+        }
+    }
 
-        Statement statement = connection.createStatement();
+    private void insertBatch(Connection connection, List<Employee> chunk, int[] generatedIds, int offset)
+            throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(INSERT_QUERY, Statement.RETURN_GENERATED_KEYS);
+        try {
+            for (Employee employee : chunk) {
+                bindEmployee(ps, 0, employee);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            readGeneratedKeys(ps, chunk.size(), generatedIds, offset);
+        } finally {
+            JdbcUtils.close(ps);
+        }
+    }
 
-        int rowAffected = statement.executeUpdate(query);
+    private void insertMultiRowValues(Connection connection, List<Employee> chunk, int[] generatedIds, int offset)
+            throws SQLException {
+        StringBuilder sb = new StringBuilder(INSERT_QUERY.length() + chunk.size() * (INSERT_VALUES_ROW.length() + 1));
+        sb.append(INSERT_QUERY);
+        for (int i = 1; i < chunk.size(); i++) {
+            sb.append(',').append(INSERT_VALUES_ROW);
+        }
 
-        printRowAffected(query, rowAffected);
+        PreparedStatement ps = connection.prepareStatement(sb.toString(), Statement.RETURN_GENERATED_KEYS);
+        try {
+            for (int i = 0; i < chunk.size(); i++) {
+                bindEmployee(ps, i * INSERT_PARAMETERS_COUNT, chunk.get(i));
+            }
+            ps.executeUpdate();
+            readGeneratedKeys(ps, chunk.size(), generatedIds, offset);
+        } finally {
+            JdbcUtils.close(ps);
+        }
     }
 
-    void delete(LinkedHashMap<String, LogicalOperation> conditions) throws SQLException {
-        String query = JdbcUtils.createDeleteQuery("employees", conditions);
+    private void readGeneratedKeys(PreparedStatement ps, int expectedCount, int[] generatedIds, int offset)
+            throws SQLException {
+        int count = 0;
+        try (ResultSet rs = ps.getGeneratedKeys()) {
+            while (rs.next() && count < expectedCount) {
+                generatedIds[offset + count++] = rs.getInt(1);
+            }
+        }
+        if (count != expectedCount) {
+            throw new SQLException(String.format(
+                    "Expected %d generated keys, but driver returned %d!", expectedCount, count));
+        }
+    }
 
-        Statement statement = connection.createStatement();
+    private void bindEmployee(PreparedStatement ps, int offset, Employee employee) throws SQLException {
+        ps.setString(offset + 1, employee.getLast_name());
+        ps.setString(offset + 2, employee.getFirst_name());
+        ps.setString(offset + 3, employee.getEmail());
+        ps.setString(offset + 4, employee.getDepartment());
+        ps.setDouble(offset + 5, employee.getSalary());
+    }
 
-        int rowAffected = statement.executeUpdate(query);
+    private static int[] ensureCapacity(int[] array, int capacity) {
+        if (capacity <= array.length) {
+            return array;
+        }
+        return Arrays.copyOf(array, Math.max(capacity, array.length * 2));
+    }
 
-        printRowAffected(query, rowAffected);
+    private static boolean isConnectionFailure(SQLException e) {
+        String sqlState = e.getSQLState();
+        return sqlState != null && sqlState.startsWith(CONNECTION_EXCEPTION_CLASS);
     }
 
-    @InParametersProcedure
-    void increaseSalariesForTheDepartment(String department, BigDecimal salary) throws SQLException {
-        CallableStatement callableStatement = connection.prepareCall("{call increase_salaries_for_department(?, ?)}");
+    /*
+     * Errors after which the same transaction can be run again on the same connection.
+     */
+    static boolean isTransient(SQLException e) {
+        return e instanceof SQLTransientException || SERIALIZATION_FAILURE.equals(e.getSQLState());
+    }
 
-        callableStatement.setString(1, department);
-        callableStatement.setBigDecimal(2, salary);
+    /*
+     * Errors after which the connection cannot be used anymore, work can be retried only on a new connection.
+     */
+    static boolean isConnectionLost(SQLException e) {
+        return e instanceof SQLRecoverableException || isConnectionFailure(e);
+    }
 
-        System.out.println(String.format("Salaries for employees in department %s increased by %.2f", department, salary));
+    /**
+     * Columns are set in alphabetical order, so the same set of columns always gives the same SQL text.
+     */
+    void update(Map<String, Serializable> valuesToChange, Condition condition) throws SQLException {
+        Update update = Update.table("employees");
+        new TreeMap<>(valuesToChange).forEach(update::set);
 
-        callableStatement.execute();
+        executeUpdate(update.where(condition).toQuery());
+    }
 
-        JdbcUtils.close(callableStatement);
+    void delete(Condition condition) throws SQLException {
+        executeUpdate(Delete.from("employees").where(condition).toQuery());
     }
 
-    @InOutParametersProcedure
-    void greetDepartment(String department) throws SQLException {
-        CallableStatement callableStatement = connection.prepareCall("{call greet_the_department(?)}");
+    private void executeUpdate(SqlQuery query) throws SQLException {
+        try (Connection connection = getConnection()) {
+            PreparedStatement statement = query.prepare(connection);
 
-        callableStatement.registerOutParameter(1, Types.VARCHAR);
-        callableStatement.setString(1, department);
+            int rowAffected = statement.executeUpdate();
 
-        callableStatement.execute();
+            printRowAffected(query.getSql(), rowAffected);
 
-        String result = callableStatement.getString(1);
+            JdbcUtils.close(statement);
+        }
+    }
 
-        System.out.println("The result of greeting: " + result);
+    @InParametersProcedure
+    void increaseSalariesForTheDepartment(String department, BigDecimal salary) throws SQLException {
+        LOGGER.info("Salaries for employees in department {} increased by {}", department, salary);
 
-        JdbcUtils.close(callableStatement);
+        procedures.increaseSalariesForDepartment(department, salary);
     }
 
-    @OutParametersProcedure
-    int getCountForTheDepartment(String department) throws SQLException {
-        CallableStatement callableStatement = connection.prepareCall("{call get_count_for_department(?, ?)}");
+    /**
+     * Runs increase_salaries_for_department for every increase on one connection and one callable statement
+     * (cached by the connection pool). By default calls are sent with addBatch/executeBatch in batches
+     * of options.getBatchSize() calls, every batch committed in its own transaction. When a call fails,
+     * results of the other calls in the batch are kept and calls which the driver did not execute are sent again.
+     * Pipelined mode executes calls one by one in one transaction, a failed call is rolled back to its savepoint.
+     * Inside a transaction of {@link TransactionTemplate} the calls are committed or rolled back by the template.
+     * @return result of every increase in given order and combined timing
+     * @throws SQLException when connection fails, increases committed before are kept
+     */
+    @InParametersProcedure
+    SalaryIncreaseReport increaseSalariesForDepartments(List<SalaryIncrease> increases, SalaryIncreaseOptions options)
+            throws SQLException {
+        long start = System.nanoTime();
+        SalaryIncreaseResult[] results = new SalaryIncreaseResult[increases.size()];
+        int executions = 0;
+        int resent = 0;
+
+        try (Connection connection = getConnection()) {
+            boolean transactionManaged = TransactionTemplate.isTransactionManaged(connection);
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            CallableStatement callableStatement = connection.prepareCall(INCREASE_SALARIES_CALL);
+            try {
+                if (options.isPipelined()) {
+                    executions = increaseSalariesPipelined(connection, callableStatement, increases, results);
+                    commit(connection, transactionManaged);
+                } else {
+                    int next = 0;
+                    while (next < increases.size()) {
+                        int end = Math.min(next + options.getBatchSize(), increases.size());
+                        int completed = increaseSalariesBatch(callableStatement, increases, next, end, results);
+                        commit(connection, transactionManaged);
+                        executions++;
+                        next += completed;
+                        if (next < end) {
+                            resent += end - next;
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                rollback(connection, transactionManaged, e);
+                throw e;
+            } finally {
+                JdbcUtils.close(callableStatement);
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+
+        int succeeded = 0;
+        for (SalaryIncreaseResult result : results) {
+            if (result.isSucceeded()) {
+                succeeded++;
+            }
+        }
+        BatchReport report = new BatchReport(succeeded, executions, resent, System.nanoTime() - start);
+        LOGGER.info("Salaries increased for {} of {} departments: {}", succeeded, increases.size(), report);
+
+        return new SalaryIncreaseReport(Arrays.asList(results), report);
+    }
+
+    /*
+     * Executes increases from..end as one batch.
+     * Returns number of increases which have result, the rest was not executed by the driver and has to be sent again.
+     */
+    private int increaseSalariesBatch(CallableStatement callableStatement, List<SalaryIncrease> increases,
+                                      int from, int end, SalaryIncreaseResult[] results) throws SQLException {
+        for (int i = from; i < end; i++) {
+            callableStatement.setString(1, increases.get(i).getDepartment());
+            callableStatement.setBigDecimal(2, increases.get(i).getAmount());
+            callableStatement.addBatch();
+        }
 
-        callableStatement.setString(1, department);
-        callableStatement.registerOutParameter(2, Types.INTEGER);
+        int[] updateCounts;
+        BatchUpdateException failure = null;
+        try {
+            updateCounts = callableStatement.executeBatch();
+        } catch (BatchUpdateException e) {
+            if (isConnectionFailure(e)) {
+                throw e;
+            }
+            callableStatement.clearBatch();
+            failure = e;
+            updateCounts = e.getUpdateCounts() != null ? e.getUpdateCounts() : new int[0];
+        }
 
-        callableStatement.execute();
+        int completed = Math.min(updateCounts.length, end - from);
+        for (int i = 0; i < completed; i++) {
+            SalaryIncrease increase = increases.get(from + i);
+            results[from + i] = updateCounts[i] == Statement.EXECUTE_FAILED
+                    ? SalaryIncreaseResult.failed(increase, failure)
+                    : SalaryIncreaseResult.succeeded(increase, updateCounts[i]);
+        }
+        if (failure != null && completed < end - from) {
+            //driver stopped at the failed call, it is the first one without update count
+            results[from + completed] = SalaryIncreaseResult.failed(increases.get(from + completed), failure);
+            completed++;
+        }
+        return completed;
+    }
 
-        return callableStatement.getInt(2);
+    /*
+     * Returns number of executed calls.
+     */
+    private int increaseSalariesPipelined(Connection connection, CallableStatement callableStatement,
+                                          List<SalaryIncrease> increases, SalaryIncreaseResult[] results)
+            throws SQLException {
+        for (int i = 0; i < increases.size(); i++) {
+            SalaryIncrease increase = increases.get(i);
+            Savepoint savepoint = connection.setSavepoint();
+            try {
+                callableStatement.setString(1, increase.getDepartment());
+                callableStatement.setBigDecimal(2, increase.getAmount());
+                callableStatement.execute();
+                results[i] = SalaryIncreaseResult.succeeded(increase, callableStatement.getUpdateCount());
+            } catch (SQLException e) {
+                if (isConnectionFailure(e)) {
+                    throw e;
+                }
+                connection.rollback(savepoint);
+                results[i] = SalaryIncreaseResult.failed(increase, e);
+            }
+        }
+        return increases.size();
+    }
+
+    /**
+     * Runs get_count_for_department for every department on one callable statement in one transaction,
+     * so all counts come from the same snapshot (in REPEATABLE READ). Department whose call failed
+     * is reported in errors, the others are still read. Inside a transaction of {@link TransactionTemplate}
+     * the counts are read in the template's transaction, which is ended by the template.
+     * @throws SQLException when connection fails
+     */
+    @OutParametersProcedure
+    DepartmentCounts getCountsForDepartments(Collection<String> departments) throws SQLException {
+        long start = System.nanoTime();
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        Map<String, SQLException> errors = new LinkedHashMap<>();
+
+        try (Connection connection = getConnection()) {
+            boolean transactionManaged = TransactionTemplate.isTransactionManaged(connection);
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            CallableStatement callableStatement = connection.prepareCall(GET_COUNT_CALL);
+            try {
+                callableStatement.registerOutParameter(2, Types.INTEGER);
+                for (String department : departments) {
+                    try {
+                        callableStatement.setString(1, department);
+                        callableStatement.execute();
+                        counts.put(department, callableStatement.getInt(2));
+                    } catch (SQLException e) {
+                        if (isConnectionFailure(e)) {
+                            throw e;
+                        }
+                        errors.put(department, e);
+                    }
+                }
+                commit(connection, transactionManaged);
+            } catch (SQLException e) {
+                rollback(connection, transactionManaged, e);
+                throw e;
+            } finally {
+                JdbcUtils.close(callableStatement);
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        return new DepartmentCounts(counts, errors, System.nanoTime() - start);
     }
 
     @InOutParametersProcedure
-    Set<Employee> getEmployeesForDepartment(String department) throws SQLException {
-        CallableStatement callableStatement = connection.prepareCall("{call get_employees_for_department(?)}");
+    void greetDepartment(String department) throws SQLException {
+        String result = procedures.greetDepartment(department);
 
-        callableStatement.setString(1, department);
+        LOGGER.info("The result of greeting: {}", result);
+    }
 
-        callableStatement.execute();
+    @OutParametersProcedure
+    int getCountForTheDepartment(String department) throws SQLException {
+        return procedures.getCountForDepartment(department);
+    }
 
-        ResultSet resultSet = callableStatement.getResultSet();
+    @InParametersProcedure
+    Set<Employee> getEmployeesForDepartment(String department) throws SQLException {
+        return procedures.getEmployeesForDepartment(department);
+    }
 
-        return getEmployeesFromResultSet(resultSet);
+    /**
+     * Streams file straight from FileChannel with known length, so the driver does not have to buffer
+     * the whole file to find out its size.
+     * @return report with size and CRC-32 of sent bytes
+     * @throws SQLException also when there is no employee with given id
+     */
+    public LobTransferReport addEmployeeResume(File file, int employeeId) throws IOException, SQLException {
+        try (Connection connection = getConnection()) {
+            return addEmployeeResume(connection, file, employeeId);
+        }
     }
 
-    public void addEmployeeResume(File file, int employeeId) throws IOException, SQLException {
-        FileInputStream fileInputStream = new FileInputStream(file);
+    LobTransferReport addEmployeeResume(Connection connection, File file, int employeeId)
+            throws IOException, SQLException {
+        String query = "UPDATE employees set resume=? where id = ?";
 
-        String query = "UPDATE employees set resume=? where id = " + employeeId;
+        long start = System.nanoTime();
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = fileChannel.size();
+            CheckedInputStream inputStream = new CheckedInputStream(Channels.newInputStream(fileChannel), new CRC32());
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setBinaryStream(1, fileInputStream);
-        statement.executeUpdate();
+            PreparedStatement statement = connection.prepareStatement(query);
+            statement.setBinaryStream(1, inputStream, size);
+            statement.setInt(2, employeeId);
+            int rowAffected = statement.executeUpdate();
 
-        JdbcUtils.close(statement);
+            JdbcUtils.close(statement);
+
+            requireEmployeeUpdated(rowAffected, employeeId);
+
+            return new LobTransferReport(size, System.nanoTime() - start, inputStream.getChecksum().getValue());
+        }
     }
 
-    public void getEmployeeResume(int employeeId) throws SQLException, IOException {
-        String query = "SELECT first_name, last_name, resume FROM employees WHERE id = " + employeeId;
-        Statement statement = connection.createStatement();
+    /**
+     * Saves resume to FIRSTNAME_LASTNAME_COPY.pdf file in working directory.
+     * @return report with size and CRC-32 of received bytes, null when there is no employee with given id
+     */
+    public LobTransferReport getEmployeeResume(int employeeId) throws SQLException, IOException {
+        return readEmployeeResume(employeeId, (firstName, lastName) -> FileChannel.open(
+                Paths.get(firstName + "_" + lastName + "_COPY.pdf"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), true);
+    }
+
+    /**
+     * Streams resume to given channel, which stays open.
+     * @return report with size and CRC-32 of received bytes, null when there is no employee with given id
+     */
+    public LobTransferReport getEmployeeResume(int employeeId, WritableByteChannel target)
+            throws SQLException, IOException {
+        return readEmployeeResume(employeeId, (firstName, lastName) -> target, false);
+    }
 
-        ResultSet resume = statement.executeQuery(query);
+    /**
+     * Compares resume stored in database with given transfer report without downloading it.
+     * It uses MySQL CRC32() function, which computes the same checksum as {@link CRC32}.
+     */
+    boolean verifyEmployeeResume(int employeeId, LobTransferReport expected) throws SQLException {
+        String query = "SELECT LENGTH(resume), CRC32(resume) FROM employees WHERE id = ?";
 
-        if (resume.next()) {
-            File fileCopy = new File(resume.getString(1) + "_" +
-                    resume.getString(2) +  "_COPY.pdf");
-            FileOutputStream fileOutputStream = new FileOutputStream(fileCopy);
-            InputStream inputStream = resume.getBinaryStream("resume");
+        try (Connection connection = getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(query);
+            statement.setInt(1, employeeId);
 
-            byte[] buffer = new byte[1024];
+            ResultSet resultSet = statement.executeQuery();
+            boolean intact = resultSet.next() &&
+                    resultSet.getLong(1) == expected.getSize() &&
+                    resultSet.getLong(2) == expected.getChecksum();
 
-            while(inputStream.read(buffer) > 0) {
-                fileOutputStream.write(buffer);
+            JdbcUtils.close(resultSet, statement);
+
+            return intact;
+        }
+    }
+
+    private LobTransferReport readEmployeeResume(int employeeId, LobTargetFactory<WritableByteChannel> targetFactory,
+                                                 boolean closeTarget) throws SQLException, IOException {
+        String query = "SELECT first_name, last_name, resume FROM employees WHERE id = ?";
+
+        try (Connection connection = getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(query);
+            statement.setInt(1, employeeId);
+
+            ResultSet resume = statement.executeQuery();
+
+            LobTransferReport report = null;
+            if (resume.next()) {
+                WritableByteChannel target = targetFactory.open(resume.getString(1), resume.getString(2));
+                try (InputStream inputStream = resume.getBinaryStream("resume")) {
+                    report = inputStream == null ? new LobTransferReport(0, 0, 0) :
+                            LobStreams.copy(Channels.newChannel(inputStream), target);
+                } finally {
+                    if (closeTarget) {
+                        target.close();
+                    }
+                }
             }
+
+            JdbcUtils.close(resume, statement);
+
+            return report;
         }
+    }
 
-        JdbcUtils.close(resume, statement);
+    private static void requireEmployeeUpdated(int rowAffected, int employeeId) throws SQLException {
+        if (rowAffected == 0) {
+            throw new SQLException("There is no employee with id " + employeeId + "!");
+        }
     }
 
-    public void addEmployeeBigNote(File file, int employeeId) throws FileNotFoundException, SQLException {
-        FileReader fileReader = new FileReader(file);
+    /*
+     * Opens target of LOB download, names of employee are used for file name.
+     */
+    private interface LobTargetFactory<T> {
+        T open(String firstName, String lastName) throws IOException;
+    }
 
-        String query = "UPDATE employees set big_note=? where id = " + employeeId;
+    /**
+     * Streams text file with explicit charset and known length in characters.
+     * @return report with number of sent characters
+     * @throws SQLException also when there is no employee with given id
+     */
+    public LobTransferReport addEmployeeBigNote(File file, int employeeId, Charset charset)
+            throws IOException, SQLException {
+        try (Connection connection = getConnection()) {
+            return addEmployeeBigNote(connection, file, employeeId, charset);
+        }
+    }
 
-        PreparedStatement statement = connection.prepareStatement(query);
-        statement.setCharacterStream(1, fileReader);
-        statement.executeUpdate();
+    LobTransferReport addEmployeeBigNote(Connection connection, File file, int employeeId, Charset charset)
+            throws IOException, SQLException {
+        String query = "UPDATE employees set big_note=? where id = ?";
 
-        JdbcUtils.close(statement);
-    }
+        long start = System.nanoTime();
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long length = LobStreams.countCharacters(fileChannel, charset.newDecoder());
+            Reader reader = new BufferedReader(Channels.newReader(fileChannel, charset.newDecoder(), -1),
+                    CLOB_READER_BUFFER_SIZE);
+
+            PreparedStatement statement = connection.prepareStatement(query);
+            statement.setCharacterStream(1, reader, length);
+            statement.setInt(2, employeeId);
+            int rowAffected = statement.executeUpdate();
+
+            JdbcUtils.close(statement);
 
-    public void getEmployeeBigNote(int employeeId) throws SQLException, IOException {
-        String query = "SELECT first_name, last_name, big_note FROM employees WHERE id = " + employeeId;
-        Statement statement = connection.createStatement();
+            requireEmployeeUpdated(rowAffected, employeeId);
+
+            return new LobTransferReport(length, System.nanoTime() - start, 0);
+        }
+    }
 
-        ResultSet resume = statement.executeQuery(query);
+    /**
+     * Saves big note to FIRSTNAME_LASTNAME_BIG_NOTE_COPY.txt file in working directory.
+     * @return report with number of received characters, null when there is no employee with given id
+     */
+    public LobTransferReport getEmployeeBigNote(int employeeId, Charset charset) throws SQLException, IOException {
+        return readEmployeeBigNote(employeeId, (firstName, lastName) -> Files.newBufferedWriter(
+                Paths.get(firstName + "_" + lastName + "_BIG_NOTE_COPY.txt"), charset), true);
+    }
 
-        if (resume.next()) {
-            File fileCopy = new File(resume.getString(1) + "_" +
-                    resume.getString(2) +  "_BIG_NOTE_COPY.txt");
-            FileWriter fileWriter = new FileWriter(fileCopy);
-            Reader reader = resume.getCharacterStream("big_note");
+    /**
+     * Streams big note to given target, which is neither flushed nor closed.
+     * @return report with number of received characters, null when there is no employee with given id
+     */
+    public LobTransferReport getEmployeeBigNote(int employeeId, Appendable target) throws SQLException, IOException {
+        return readEmployeeBigNote(employeeId, (firstName, lastName) -> target, false);
+    }
 
-            int character;
-            while ((character = reader.read()) > 0) {
-                fileWriter.write(character);
+    private LobTransferReport readEmployeeBigNote(int employeeId, LobTargetFactory<Appendable> targetFactory,
+                                                  boolean closeTarget) throws SQLException, IOException {
+        String query = "SELECT first_name, last_name, big_note FROM employees WHERE id = ?";
+
+        try (Connection connection = getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(query);
+            statement.setInt(1, employeeId);
+
+            ResultSet bigNote = statement.executeQuery();
+
+            LobTransferReport report = null;
+            if (bigNote.next()) {
+                Appendable target = targetFactory.open(bigNote.getString(1), bigNote.getString(2));
+                try (Reader reader = bigNote.getCharacterStream("big_note")) {
+                    report = reader == null ? new LobTransferReport(0, 0, 0) : LobStreams.copy(reader, target);
+                } finally {
+                    if (closeTarget && target instanceof Closeable) {
+                        ((Closeable) target).close();
+                    }
+                }
             }
 
-            fileWriter.close();
+            JdbcUtils.close(bigNote, statement);
+
+            return report;
         }
+    }
 
-        JdbcUtils.close(resume, statement);
+    /*
+     * Every repository operation borrows connection for its own duration only,
+     * with pooled DataSource closing connection returns it to the pool.
+     * Statements prepared with constant SQL text (ids are always bound as parameters) are taken from
+     * the statement cache of pooled connection, so they have to be closed and never kept between calls.
+     */
+    Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    /*
+     * Transaction managed by TransactionTemplate is committed by the template together with the rest of its work.
+     */
+    static void commit(Connection connection, boolean transactionManaged) throws SQLException {
+        if (!transactionManaged) {
+            connection.commit();
+        }
+    }
+
+    /*
+     * Rollback failure is added to the error of the transaction instead of hiding it.
+     */
+    static void rollback(Connection connection, boolean transactionManaged, SQLException failure) {
+        if (transactionManaged) {
+            return;
+        }
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            failure.addSuppressed(e);
+        }
     }
 
     private void printRowAffected(String query, int rowAffected) {
-        System.out.println("Row(s) affected: (" + rowAffected + ") by query: " + query);
+        LOGGER.info("Row(s) affected: ({}) by query: {}", rowAffected, query);
+    }
+
+    /*
+     * Connection with autocommit turned off for work committed in several transactions. Autocommit is restored
+     * before the connection is closed. After the connection is lost it is replaced by a new one.
+     * Connection of a transaction managed by TransactionTemplate is never committed, rolled back or replaced.
+     */
+    private class ChunkConnection implements AutoCloseable {
+
+        private Connection connection;
+        private boolean autoCommit;
+        private boolean transactionManaged;
+
+        ChunkConnection() throws SQLException {
+            open();
+        }
+
+        Connection get() {
+            return connection;
+        }
+
+        boolean isTransactionManaged() {
+            return transactionManaged;
+        }
+
+        void rollback(SQLException failure) {
+            EmployeesRepository.rollback(connection, transactionManaged, failure);
+        }
+
+        void reconnect(SQLException failure) throws SQLException {
+            JdbcUtils.close(connection);
+            try {
+                open();
+            } catch (SQLException e) {
+                connection = null;
+                failure.addSuppressed(e);
+                throw failure;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (connection == null) {
+                return;
+            }
+            try {
+                connection.setAutoCommit(autoCommit);
+            } finally {
+                connection.close();
+            }
+        }
+
+        private void open() throws SQLException {
+            connection = getConnection();
+            try {
+                transactionManaged = TransactionTemplate.isTransactionManaged(connection);
+                autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+            } catch (SQLException e) {
+                JdbcUtils.close(connection);
+                throw e;
+            }
+        }
     }
 }
@@ -0,0 +1,22 @@
+package Employee;
+
+/**
+ * File format of {@link EmployeeService#export(java.nio.file.Path, ExportOptions)}. Both formats contain
+ * scalar columns of employees (without resume and big note) ordered by id.
+ */
+public enum ExportFormat {
+
+    /**
+     * UTF-8 CSV (RFC 4180) with header line: id,last_name,first_name,email,department,salary.
+     * Salary has two decimal places, NULL is written as empty field.
+     */
+    CSV,
+
+    /**
+     * Compact columnar file: magic "EMPC", version byte, then blocks of up to 4096 rows, each block
+     * with row count followed by whole columns (ids as delta varints, strings as length+1 varint and UTF-8 bytes,
+     * 0 for NULL, salaries as zigzag varint cents). Block with zero rows ends the file.
+     * Every partition starts a new block, so block boundaries (but not rows) depend on the number of partitions.
+     */
+    BINARY
+}
@@ -0,0 +1,109 @@
+package Employee;
+
+/**
+ * Settings of {@link EmployeeService#export(java.nio.file.Path, ExportOptions)}.
+ */
+public class ExportOptions {
+
+    public static final ExportOptions DEFAULT = new OptionsBuilder().build();
+
+    private final ExportFormat format;
+    private final int threads;
+    private final int partitions;
+    private final int fetchSize;
+    private final int bufferSize;
+
+    private ExportOptions(OptionsBuilder builder) {
+        this.format = builder.format;
+        this.threads = builder.threads;
+        this.partitions = builder.partitions > 0 ? builder.partitions : builder.threads * 4;
+        this.fetchSize = builder.fetchSize;
+        this.bufferSize = builder.bufferSize;
+    }
+
+    public static class OptionsBuilder {
+        private ExportFormat format = ExportFormat.CSV;
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private int partitions;
+        private int fetchSize = 1000;
+        private int bufferSize = 64 * 1024;
+
+        public OptionsBuilder addFormat(ExportFormat format) {
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * @param threads number of partitions read at the same time, every reading thread holds one pooled
+         *                connection, so it should not be larger than the pool
+         */
+        public OptionsBuilder addThreads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * @param partitions number of id ranges the table is split into, by default four per thread,
+         *                   so that a range with more rows does not leave other threads idle
+         */
+        public OptionsBuilder addPartitions(int partitions) {
+            this.partitions = partitions;
+            return this;
+        }
+
+        /**
+         * @param fetchSize rows fetched in one round trip, for MySQL it is honoured only with useCursorFetch=true
+         */
+        public OptionsBuilder addFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+            return this;
+        }
+
+        /**
+         * @param bufferSize size of the encoding buffer of every thread, written to file when full
+         */
+        public OptionsBuilder addBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        public ExportOptions build() {
+            if (format == null) {
+                throw new IllegalArgumentException("Export format is required!");
+            }
+            if (threads < 1) {
+                throw new IllegalArgumentException("Number of threads has to be positive!");
+            }
+            if (partitions < 0) {
+                throw new IllegalArgumentException("Number of partitions cannot be negative!");
+            }
+            if (fetchSize < 0) {
+                throw new IllegalArgumentException("Fetch size cannot be negative!");
+            }
+            if (bufferSize < 1024) {
+                throw new IllegalArgumentException("Buffer size has to be at least 1024 bytes!");
+            }
+            return new ExportOptions(this);
+        }
+    }
+
+    public ExportFormat getFormat() {
+        return format;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
@@ -0,0 +1,61 @@
+package Employee;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of employee export: number of rows and bytes written, how many partitions were read and how long it took.
+ */
+public class ExportReport {
+
+    private static final double MEGABYTE = 1024 * 1024;
+
+    private final Path target;
+    private final long rows;
+    private final long bytes;
+    private final int partitions;
+    private final long elapsedNanos;
+
+    ExportReport(Path target, long rows, long bytes, int partitions, long elapsedNanos) {
+        this.target = target;
+        this.rows = rows;
+        this.bytes = bytes;
+        this.partitions = partitions;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public Path getTarget() {
+        return target;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes / MEGABYTE * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ExportReport{target=%s, rows=%d, bytes=%d, partitions=%d, elapsed=%d ms, " +
+                        "rows/sec=%.1f, MB/s=%.2f}", target, rows, bytes, partitions,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), getRowsPerSecond(), getMegabytesPerSecond());
+    }
+}
@@ -0,0 +1,331 @@
+package Employee;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/*
+ * Encodes employee rows into a reusable byte buffer, which is written to the channel whenever it fills up.
+ * Strings are encoded to UTF-8 and numbers to text or varints straight into the buffer, so encoding a row
+ * does not allocate. Not thread safe, every export thread has its own writer.
+ *
+ * Header and trailer are written separately from rows, so that part files written in parallel
+ * can be concatenated into one file between a single header and trailer.
+ */
+abstract class ExportWriter {
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private long bytes;
+
+    ExportWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    static ExportWriter create(ExportFormat format, WritableByteChannel channel, int bufferSize) {
+        return format == ExportFormat.CSV ? new CsvWriter(channel, bufferSize) : new BinaryWriter(channel, bufferSize);
+    }
+
+    abstract void writeHeader() throws IOException;
+
+    abstract void writeRow(int id, String lastName, String firstName, String email, String department,
+                           long salaryCents) throws IOException;
+
+    abstract void writeTrailer() throws IOException;
+
+    /*
+     * Writes rows kept by the writer and the buffer to the channel, channel stays open.
+     */
+    void flush() throws IOException {
+        drain();
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytes += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /*
+     * @return number of bytes written to the channel so far
+     */
+    long getBytes() {
+        return bytes;
+    }
+
+    final void ensureRemaining(int count) throws IOException {
+        if (buffer.remaining() < count) {
+            drain();
+        }
+    }
+
+    final void putByte(int value) throws IOException {
+        ensureRemaining(1);
+        buffer.put((byte) value);
+    }
+
+    final void putAscii(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            putByte(value.charAt(i));
+        }
+    }
+
+    final void putDecimal(long value) throws IOException {
+        ensureRemaining(20);
+        if (value < 0) {
+            buffer.put((byte) '-');
+            if (value == Long.MIN_VALUE) {
+                putAscii("9223372036854775808");
+                return;
+            }
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer.put((byte) ('0' + value / divisor % 10));
+        }
+    }
+
+    final void putVarLong(long value) throws IOException {
+        ensureRemaining(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    final void putZigZag(long value) throws IOException {
+        putVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /*
+     * Unpaired surrogates are written as '?', like String.getBytes(UTF_8) does.
+     */
+    final void putUtf8(String value) throws IOException {
+        putUtf8(value, 0, value.length());
+    }
+
+    final void putUtf8(String value, int from, int to) throws IOException {
+        for (int i = from; i < to; i++) {
+            ensureRemaining(4);
+            i = putUtf8(buffer, value, i, to);
+        }
+    }
+
+    /*
+     * Encodes character at index (or surrogate pair starting there) into the buffer, which needs at least 4 bytes
+     * remaining. Returns index of the last encoded character.
+     */
+    static int putUtf8(ByteBuffer buffer, String value, int index, int to) {
+        char c = value.charAt(index);
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | c >> 6));
+            buffer.put((byte) (0x80 | c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && index + 1 < to && Character.isLowSurrogate(value.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(++index));
+            buffer.put((byte) (0xF0 | codePoint >> 18));
+            buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+            buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+            buffer.put((byte) (0x80 | codePoint & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            buffer.put((byte) '?');
+        } else {
+            buffer.put((byte) (0xE0 | c >> 12));
+            buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+            buffer.put((byte) (0x80 | c & 0x3F));
+        }
+        return index;
+    }
+
+    static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80 || Character.isSurrogate(c) && !isSurrogatePair(value, i)) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isSurrogatePair(String value, int index) {
+        return Character.isHighSurrogate(value.charAt(index)) && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1));
+    }
+
+    private static class CsvWriter extends ExportWriter {
+
+        private static final String HEADER = "id,last_name,first_name,email,department,salary\r\n";
+
+        CsvWriter(WritableByteChannel channel, int bufferSize) {
+            super(channel, bufferSize);
+        }
+
+        @Override
+        void writeHeader() throws IOException {
+            putAscii(HEADER);
+        }
+
+        @Override
+        void writeRow(int id, String lastName, String firstName, String email, String department,
+                      long salaryCents) throws IOException {
+            putDecimal(id);
+            putByte(',');
+            putField(lastName);
+            putByte(',');
+            putField(firstName);
+            putByte(',');
+            putField(email);
+            putByte(',');
+            putField(department);
+            putByte(',');
+            if (salaryCents < 0) {
+                putByte('-');
+            }
+            long cents = Math.abs(salaryCents);
+            putDecimal(cents / 100);
+            putByte('.');
+            putByte('0' + (int) (cents % 100 / 10));
+            putByte('0' + (int) (cents % 10));
+            putByte('\r');
+            putByte('\n');
+        }
+
+        @Override
+        void writeTrailer() {
+        }
+
+        private void putField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (!needsQuotes(value)) {
+                putUtf8(value);
+                return;
+            }
+            putByte('"');
+            int from = 0;
+            int quote;
+            while ((quote = value.indexOf('"', from)) >= 0) {
+                putUtf8(value, from, quote + 1);
+                putByte('"');
+                from = quote + 1;
+            }
+            putUtf8(value, from, value.length());
+            putByte('"');
+        }
+
+        private static boolean needsQuotes(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class BinaryWriter extends ExportWriter {
+
+        private static final String MAGIC = "EMPC";
+        private static final int VERSION = 1;
+        private static final int ROW_GROUP_SIZE = 4096;
+
+        private final int[] ids = new int[ROW_GROUP_SIZE];
+        private final String[] lastNames = new String[ROW_GROUP_SIZE];
+        private final String[] firstNames = new String[ROW_GROUP_SIZE];
+        private final String[] emails = new String[ROW_GROUP_SIZE];
+        private final String[] departments = new String[ROW_GROUP_SIZE];
+        private final long[] salaryCents = new long[ROW_GROUP_SIZE];
+        private int rows;
+
+        BinaryWriter(WritableByteChannel channel, int bufferSize) {
+            super(channel, bufferSize);
+        }
+
+        @Override
+        void writeHeader() throws IOException {
+            putAscii(MAGIC);
+            putByte(VERSION);
+        }
+
+        @Override
+        void writeRow(int id, String lastName, String firstName, String email, String department,
+                      long salaryCents) throws IOException {
+            ids[rows] = id;
+            lastNames[rows] = lastName;
+            firstNames[rows] = firstName;
+            emails[rows] = email;
+            departments[rows] = department;
+            this.salaryCents[rows] = salaryCents;
+            if (++rows == ROW_GROUP_SIZE) {
+                writeRowGroup();
+            }
+        }
+
+        @Override
+        void writeTrailer() throws IOException {
+            writeRowGroup();
+            putVarLong(0);
+        }
+
+        @Override
+        void flush() throws IOException {
+            writeRowGroup();
+            super.flush();
+        }
+
+        private void writeRowGroup() throws IOException {
+            if (rows == 0) {
+                return;
+            }
+            putVarLong(rows);
+            long previousId = 0;
+            for (int i = 0; i < rows; i++) {
+                putZigZag(ids[i] - previousId);
+                previousId = ids[i];
+            }
+            putStrings(lastNames);
+            putStrings(firstNames);
+            putStrings(emails);
+            putStrings(departments);
+            for (int i = 0; i < rows; i++) {
+                putZigZag(salaryCents[i]);
+            }
+            Arrays.fill(lastNames, 0, rows, null);
+            Arrays.fill(firstNames, 0, rows, null);
+            Arrays.fill(emails, 0, rows, null);
+            Arrays.fill(departments, 0, rows, null);
+            rows = 0;
+        }
+
+        private void putStrings(String[] values) throws IOException {
+            for (int i = 0; i < rows; i++) {
+                if (values[i] == null) {
+                    putVarLong(0);
+                } else {
+                    putVarLong(utf8Length(values[i]) + 1L);
+                    putUtf8(values[i]);
+                }
+            }
+        }
+    }
+}
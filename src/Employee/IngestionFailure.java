@@ -0,0 +1,39 @@
+package Employee;
+
+/**
+ * Manifest entry which could not be uploaded. It is not written to the checkpoint file,
+ * so it is uploaded again when the job is restarted.
+ */
+public class IngestionFailure {
+
+    private final int manifestLine;
+    private final String entry;
+    private final String reason;
+
+    IngestionFailure(int manifestLine, String entry, String reason) {
+        this.manifestLine = manifestLine;
+        this.entry = entry;
+        this.reason = reason;
+    }
+
+    public int getManifestLine() {
+        return manifestLine;
+    }
+
+    public String getEntry() {
+        return entry;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return "IngestionFailure{" +
+                "manifestLine=" + manifestLine +
+                ", entry='" + entry + '\'' +
+                ", reason='" + reason + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,120 @@
+package Employee;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Settings of {@link EmployeeService#ingestLobs(Path, IngestionOptions)}.
+ */
+public class IngestionOptions {
+
+    public static final IngestionOptions DEFAULT = new OptionsBuilder().build();
+
+    private final int threads;
+    private final int queueCapacity;
+    private final int commitGroupSize;
+    private final Charset charset;
+    private final Path checkpointFile;
+    private final Consumer<IngestionReport> progressListener;
+
+    private IngestionOptions(OptionsBuilder builder) {
+        this.threads = builder.threads;
+        this.queueCapacity = builder.queueCapacity;
+        this.commitGroupSize = builder.commitGroupSize;
+        this.charset = builder.charset;
+        this.checkpointFile = builder.checkpointFile;
+        this.progressListener = builder.progressListener;
+    }
+
+    public static class OptionsBuilder {
+        private int threads = 4;
+        private int queueCapacity = 64;
+        private int commitGroupSize = 20;
+        private Charset charset = StandardCharsets.UTF_8;
+        private Path checkpointFile;
+        private Consumer<IngestionReport> progressListener = report -> { };
+
+        /**
+         * @param threads number of parallel uploads, every upload thread holds one pooled connection
+         */
+        public OptionsBuilder addThreads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * @param queueCapacity number of manifest entries waiting for upload, reading of the manifest blocks
+         *                      when the queue is full
+         */
+        public OptionsBuilder addQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * @param commitGroupSize number of files uploaded by one thread in one transaction
+         */
+        public OptionsBuilder addCommitGroupSize(int commitGroupSize) {
+            this.commitGroupSize = commitGroupSize;
+            return this;
+        }
+
+        /**
+         * @param charset charset of big note files
+         */
+        public OptionsBuilder addCharset(Charset charset) {
+            this.charset = charset;
+            return this;
+        }
+
+        /**
+         * @param checkpointFile file with numbers of committed manifest lines, by default manifest path
+         *                       with .checkpoint suffix
+         */
+        public OptionsBuilder addCheckpointFile(Path checkpointFile) {
+            this.checkpointFile = checkpointFile;
+            return this;
+        }
+
+        /**
+         * @param progressListener called with current counters after every commit, from upload threads
+         */
+        public OptionsBuilder addProgressListener(Consumer<IngestionReport> progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        public IngestionOptions build() {
+            if (threads < 1 || queueCapacity < 1 || commitGroupSize < 1) {
+                throw new IllegalArgumentException("Threads, queue capacity and commit group size have to be positive!");
+            }
+            return new IngestionOptions(this);
+        }
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public int getCommitGroupSize() {
+        return commitGroupSize;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public Path getCheckpointFile(Path manifest) {
+        return checkpointFile != null ? checkpointFile : manifest.resolveSibling(manifest.getFileName() + ".checkpoint");
+    }
+
+    public Consumer<IngestionReport> getProgressListener() {
+        return progressListener;
+    }
+}
@@ -0,0 +1,63 @@
+package Employee;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Progress or final result of LOB ingestion job.
+ */
+public class IngestionReport {
+
+    private static final double MEGABYTE = 1024 * 1024;
+
+    private final long uploaded;
+    private final long skipped;
+    private final long bytes;
+    private final long elapsedNanos;
+    private final List<IngestionFailure> failures;
+
+    IngestionReport(long uploaded, long skipped, long bytes, long elapsedNanos, List<IngestionFailure> failures) {
+        this.uploaded = uploaded;
+        this.skipped = skipped;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+        this.failures = failures;
+    }
+
+    /**
+     * @return number of committed files
+     */
+    public long getUploaded() {
+        return uploaded;
+    }
+
+    /**
+     * @return number of files committed by previous run of the job
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public List<IngestionFailure> getFailures() {
+        return failures;
+    }
+
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes / MEGABYTE * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("IngestionReport{uploaded=%d, skipped=%d, failed=%d, elapsed=%d ms, MB/s=%.2f}",
+                uploaded, skipped, failures.size(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                getMegabytesPerSecond());
+    }
+}
@@ -0,0 +1,299 @@
+package Employee;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Uploads resumes and big notes listed in manifest file. Every manifest line has format:
+ *   employeeId,RESUME|BIG_NOTE,path
+ * Empty lines and lines starting with # are ignored, relative paths are resolved against manifest directory.
+ *
+ * Manifest is read by the calling thread into bounded queue (so reading waits for slow uploads) and entries are
+ * uploaded by worker threads, each on its own connection in groups committed together. Numbers of committed
+ * lines are appended to the checkpoint file, so restarted job skips everything committed before the crash.
+ */
+class LobIngestionJob {
+
+    private static final ManifestEntry END_OF_MANIFEST = new ManifestEntry(0, "", 0, null, null);
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final EmployeesRepository employeesRepository;
+    private final Path manifest;
+    private final IngestionOptions options;
+    private final BlockingQueue<ManifestEntry> queue;
+
+    private final LongAdder uploaded = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final Queue<IngestionFailure> failures = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private volatile boolean aborted;
+    private volatile long skipped;
+    private long start;
+    private FileChannel checkpoint;
+
+    LobIngestionJob(EmployeesRepository employeesRepository, Path manifest, IngestionOptions options) {
+        this.employeesRepository = employeesRepository;
+        this.manifest = manifest;
+        this.options = options;
+        this.queue = new ArrayBlockingQueue<>(options.getQueueCapacity());
+    }
+
+    IngestionReport run() throws IOException, SQLException {
+        start = System.nanoTime();
+        Path checkpointFile = options.getCheckpointFile(manifest);
+        BitSet committedLines = readCheckpoint(checkpointFile);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(options.getThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "lob-ingestion-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (FileChannel checkpoint = FileChannel.open(checkpointFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            this.checkpoint = checkpoint;
+
+            List<Future<Void>> workers = new ArrayList<>();
+            activeWorkers.set(options.getThreads());
+            for (int i = 0; i < options.getThreads(); i++) {
+                workers.add(executor.submit(this::work));
+            }
+
+            try {
+                readManifest(committedLines);
+            } finally {
+                for (int i = 0; i < options.getThreads(); i++) {
+                    enqueue(END_OF_MANIFEST);
+                }
+            }
+
+            for (Future<Void> worker : workers) {
+                awaitWorker(worker);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return snapshot();
+    }
+
+    private void readManifest(BitSet committedLines) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null && !aborted) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (committedLines.get(lineNumber)) {
+                    skipped++;
+                    continue;
+                }
+
+                try {
+                    enqueue(ManifestEntry.parse(lineNumber, line, manifest));
+                } catch (IllegalArgumentException e) {
+                    failures.add(new IngestionFailure(lineNumber, line, e.getMessage()));
+                }
+            }
+        }
+    }
+
+    /*
+     * Blocks while the queue is full, gives up only when there is no worker which could take the entry.
+     */
+    private void enqueue(ManifestEntry entry) {
+        try {
+            while (!queue.offer(entry, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (activeWorkers.get() == 0) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aborted = true;
+        }
+    }
+
+    private Void work() throws SQLException, IOException, InterruptedException {
+        List<ManifestEntry> group = new ArrayList<>(options.getCommitGroupSize());
+        try (Connection connection = employeesRepository.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                ManifestEntry entry;
+                while ((entry = queue.take()) != END_OF_MANIFEST) {
+                    upload(connection, entry, group);
+                    if (group.size() >= options.getCommitGroupSize()) {
+                        commit(connection, group);
+                    }
+                }
+                commit(connection, group);
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException | IOException | RuntimeException | InterruptedException e) {
+            aborted = true;
+            throw e;
+        } finally {
+            activeWorkers.decrementAndGet();
+        }
+        return null;
+    }
+
+    private void upload(Connection connection, ManifestEntry entry, List<ManifestEntry> group) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            if (entry.type == LobType.RESUME) {
+                employeesRepository.addEmployeeResume(connection, entry.file.toFile(), entry.employeeId);
+            } else {
+                employeesRepository.addEmployeeBigNote(connection, entry.file.toFile(), entry.employeeId,
+                        options.getCharset());
+            }
+            entry.size = Files.size(entry.file);
+            connection.releaseSavepoint(savepoint);
+            group.add(entry);
+        } catch (SQLException | IOException e) {
+            connection.rollback(savepoint);
+            failures.add(new IngestionFailure(entry.lineNumber, entry.text, e.toString()));
+        }
+    }
+
+    private void commit(Connection connection, List<ManifestEntry> group) throws SQLException, IOException {
+        if (group.isEmpty()) {
+            return;
+        }
+
+        try {
+            connection.commit();
+        } catch (SQLException e) {
+            for (ManifestEntry entry : group) {
+                failures.add(new IngestionFailure(entry.lineNumber, entry.text, "Commit failed: " + e.getMessage()));
+            }
+            group.clear();
+            throw e;
+        }
+
+        long groupBytes = 0;
+        StringBuilder sb = new StringBuilder();
+        for (ManifestEntry entry : group) {
+            sb.append(entry.lineNumber).append('\n');
+            groupBytes += entry.size;
+        }
+        writeCheckpoint(sb);
+
+        uploaded.add(group.size());
+        bytes.add(groupBytes);
+        group.clear();
+
+        options.getProgressListener().accept(snapshot());
+    }
+
+    private synchronized void writeCheckpoint(CharSequence lineNumbers) throws IOException {
+        ByteBuffer buffer = StandardCharsets.US_ASCII.encode(lineNumbers.toString());
+        while (buffer.hasRemaining()) {
+            checkpoint.write(buffer);
+        }
+        checkpoint.force(false);
+    }
+
+    private static BitSet readCheckpoint(Path checkpointFile) throws IOException {
+        BitSet committedLines = new BitSet();
+        if (!Files.exists(checkpointFile)) {
+            return committedLines;
+        }
+        for (String line : Files.readAllLines(checkpointFile, StandardCharsets.US_ASCII)) {
+            try {
+                committedLines.set(Integer.parseInt(line.trim()));
+            } catch (NumberFormatException e) {
+                //last line may be cut by crash, its group is uploaded again
+            }
+        }
+        return committedLines;
+    }
+
+    private void awaitWorker(Future<Void> worker) throws IOException, SQLException {
+        try {
+            worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for ingestion to finish!", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new SQLException("Ingestion worker failed!", cause);
+        }
+    }
+
+    private IngestionReport snapshot() {
+        return new IngestionReport(uploaded.sum(), skipped, bytes.sum(), System.nanoTime() - start,
+                new ArrayList<>(failures));
+    }
+
+    private enum LobType {
+        RESUME, BIG_NOTE
+    }
+
+    private static class ManifestEntry {
+        private final int lineNumber;
+        private final String text;
+        private final int employeeId;
+        private final LobType type;
+        private final Path file;
+        private long size;
+
+        ManifestEntry(int lineNumber, String text, int employeeId, LobType type, Path file) {
+            this.lineNumber = lineNumber;
+            this.text = text;
+            this.employeeId = employeeId;
+            this.type = type;
+            this.file = file;
+        }
+
+        static ManifestEntry parse(int lineNumber, String line, Path manifest) {
+            String[] fields = line.split(",", 3);
+            if (fields.length != 3) {
+                throw new IllegalArgumentException("Expected: employeeId,RESUME|BIG_NOTE,path");
+            }
+            try {
+                int employeeId = Integer.parseInt(fields[0].trim());
+                LobType type = LobType.valueOf(fields[1].trim().toUpperCase());
+                Path file = manifest.toAbsolutePath().resolveSibling(fields[2].trim());
+                return new ManifestEntry(lineNumber, line, employeeId, type, file);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid manifest entry: " + e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package Employee;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/*
+ * Encodes position of keyset pagination (id of the last returned employee) together with filter fingerprint.
+ */
+class PageToken {
+
+    private static final byte VERSION = 1;
+    private static final int LENGTH = 1 + Integer.BYTES + Long.BYTES;
+
+    private PageToken() {
+    }
+
+    static String encode(int lastId, EmployeeFilter filter) {
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH)
+                .put(VERSION)
+                .putInt(lastId)
+                .putLong(filter.fingerprint());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @return id after which the next page starts
+     * @throws IllegalArgumentException when token is malformed or was created for different filter
+     */
+    static int decode(String token, EmployeeFilter filter) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed continuation token!", e);
+        }
+        if (bytes.length != LENGTH || bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Malformed continuation token!");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, LENGTH - 1);
+        int lastId = buffer.getInt();
+        if (buffer.getLong() != filter.fingerprint()) {
+            throw new IllegalArgumentException("Continuation token was created for different filter!");
+        }
+        return lastId;
+    }
+}
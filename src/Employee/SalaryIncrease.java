@@ -0,0 +1,34 @@
+package Employee;
+
+import java.math.BigDecimal;
+
+/**
+ * Increase of salaries of all employees in the department, item of
+ * {@link EmployeeService#increaseSalaries(java.util.List, SalaryIncreaseOptions)}.
+ */
+public class SalaryIncrease {
+
+    private final String department;
+    private final BigDecimal amount;
+
+    public SalaryIncrease(String department, BigDecimal amount) {
+        this.department = department;
+        this.amount = amount;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    @Override
+    public String toString() {
+        return "SalaryIncrease{" +
+                "department='" + department + '\'' +
+                ", amount=" + amount +
+                '}';
+    }
+}
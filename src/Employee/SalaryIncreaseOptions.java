@@ -0,0 +1,55 @@
+package Employee;
+
+/**
+ * Settings of {@link EmployeeService#increaseSalaries(java.util.List, SalaryIncreaseOptions)}.
+ */
+public class SalaryIncreaseOptions {
+
+    public static final SalaryIncreaseOptions DEFAULT = new OptionsBuilder().build();
+
+    private final int batchSize;
+    private final boolean pipelined;
+
+    private SalaryIncreaseOptions(OptionsBuilder builder) {
+        this.batchSize = builder.batchSize;
+        this.pipelined = builder.pipelined;
+    }
+
+    public static class OptionsBuilder {
+        private int batchSize = 100;
+        private boolean pipelined;
+
+        /**
+         * @param batchSize number of procedure calls sent in one batch and committed in one transaction
+         */
+        public OptionsBuilder addBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param pipelined when true calls are executed one by one in a single transaction, every call behind
+         *                  its own savepoint, instead of addBatch/executeBatch. Useful for databases which abort
+         *                  the whole transaction when one call of the batch fails.
+         */
+        public OptionsBuilder addPipelined(boolean pipelined) {
+            this.pipelined = pipelined;
+            return this;
+        }
+
+        public SalaryIncreaseOptions build() {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("Batch size has to be positive!");
+            }
+            return new SalaryIncreaseOptions(this);
+        }
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public boolean isPipelined() {
+        return pipelined;
+    }
+}
@@ -0,0 +1,54 @@
+package Employee;
+
+import Jdbc.BatchReport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of {@link EmployeeService#increaseSalaries(List, SalaryIncreaseOptions)}: outcome of every increase
+ * in the order they were given and combined timing. Failed increases did not change anything,
+ * so only they have to be run again.
+ */
+public class SalaryIncreaseReport {
+
+    private final List<SalaryIncreaseResult> results;
+    private final BatchReport report;
+
+    SalaryIncreaseReport(List<SalaryIncreaseResult> results, BatchReport report) {
+        this.results = Collections.unmodifiableList(results);
+        this.report = report;
+    }
+
+    public List<SalaryIncreaseResult> getResults() {
+        return results;
+    }
+
+    public List<SalaryIncreaseResult> getFailed() {
+        List<SalaryIncreaseResult> failed = new ArrayList<>();
+        for (SalaryIncreaseResult result : results) {
+            if (!result.isSucceeded()) {
+                failed.add(result);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * @return rows is number of succeeded increases, batches is number of executed batches (or calls when pipelined),
+     * retries is number of increases sent again because driver stopped the batch at failed one
+     */
+    public BatchReport getReport() {
+        return report;
+    }
+
+    @Override
+    public String toString() {
+        return "SalaryIncreaseReport{" +
+                "increases=" + results.size() +
+                ", failed=" + getFailed().size() +
+                ", report=" + report +
+                '}';
+    }
+}
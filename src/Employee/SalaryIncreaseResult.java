@@ -0,0 +1,64 @@
+package Employee;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Outcome of one {@link SalaryIncrease}: update count reported by the driver or error of the failed call.
+ */
+public class SalaryIncreaseResult {
+
+    private final SalaryIncrease increase;
+    private final int updateCount;
+    private final SQLException error;
+
+    private SalaryIncreaseResult(SalaryIncrease increase, int updateCount, SQLException error) {
+        this.increase = increase;
+        this.updateCount = updateCount;
+        this.error = error;
+    }
+
+    static SalaryIncreaseResult succeeded(SalaryIncrease increase, int updateCount) {
+        return new SalaryIncreaseResult(increase, updateCount, null);
+    }
+
+    static SalaryIncreaseResult failed(SalaryIncrease increase, SQLException error) {
+        return new SalaryIncreaseResult(increase, Statement.EXECUTE_FAILED, error);
+    }
+
+    public SalaryIncrease getIncrease() {
+        return increase;
+    }
+
+    public String getDepartment() {
+        return increase.getDepartment();
+    }
+
+    public boolean isSucceeded() {
+        return error == null;
+    }
+
+    /**
+     * @return rows changed by the call, {@link Statement#SUCCESS_NO_INFO} when driver does not report it
+     * and {@link Statement#EXECUTE_FAILED} for failed call
+     */
+    public int getUpdateCount() {
+        return updateCount;
+    }
+
+    /**
+     * @return cause of failure, null for succeeded call
+     */
+    public SQLException getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "SalaryIncreaseResult{" +
+                "department='" + getDepartment() + '\'' +
+                ", amount=" + increase.getAmount() +
+                (error == null ? ", updateCount=" + updateCount : ", error=" + error.getMessage()) +
+                '}';
+    }
+}
@@ -0,0 +1,96 @@
+package Employee;
+
+import Jdbc.query.UpsertDialect;
+
+/**
+ * Settings of {@link EmployeeService#synchronize(java.util.Collection, SyncOptions)}
+ * and {@link EmployeeService#applyChanges(java.util.Collection, java.util.Collection, SyncOptions)}.
+ */
+public class SyncOptions {
+
+    public static final SyncOptions DEFAULT = new OptionsBuilder().build();
+
+    private final int batchSize;
+    private final int keyChunkSize;
+    private final int maxRetries;
+    private final UpsertDialect dialect;
+
+    private SyncOptions(OptionsBuilder builder) {
+        this.batchSize = builder.batchSize;
+        this.keyChunkSize = builder.keyChunkSize;
+        this.maxRetries = builder.maxRetries;
+        this.dialect = builder.dialect;
+    }
+
+    public static class OptionsBuilder {
+        private int batchSize = 500;
+        private int keyChunkSize = 1000;
+        private int maxRetries = 3;
+        private UpsertDialect dialect;
+
+        /**
+         * @param batchSize number of changed rows sent in one upsert batch and committed in one transaction
+         */
+        public OptionsBuilder addBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param keyChunkSize number of ids in one "id IN (...)" list, used to delete rows
+         *                     and to read current rows of a change set
+         */
+        public OptionsBuilder addKeyChunkSize(int keyChunkSize) {
+            this.keyChunkSize = keyChunkSize;
+            return this;
+        }
+
+        /**
+         * @param maxRetries how many times batch which failed with transient error is retried
+         */
+        public OptionsBuilder addMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * @param dialect upsert statement to use, by default it is chosen by database product name
+         */
+        public OptionsBuilder addDialect(UpsertDialect dialect) {
+            this.dialect = dialect;
+            return this;
+        }
+
+        public SyncOptions build() {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("Batch size has to be positive!");
+            }
+            if (keyChunkSize < 1) {
+                throw new IllegalArgumentException("Key chunk size has to be positive!");
+            }
+            if (maxRetries < 0) {
+                throw new IllegalArgumentException("Max retries cannot be negative!");
+            }
+            return new SyncOptions(this);
+        }
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getKeyChunkSize() {
+        return keyChunkSize;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * @return configured dialect or null when it is detected from the connection
+     */
+    public UpsertDialect getDialect() {
+        return dialect;
+    }
+}
@@ -0,0 +1,66 @@
+package Employee;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary of employee synchronization: how many rows were inserted, updated, deleted and left untouched
+ * because their content did not change, and how long it took.
+ */
+public class SyncReport {
+
+    private final int inserted;
+    private final int updated;
+    private final int deleted;
+    private final int unchanged;
+    private final int batches;
+    private final int retries;
+    private final long elapsedNanos;
+
+    SyncReport(int inserted, int updated, int deleted, int unchanged, int batches, int retries, long elapsedNanos) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.deleted = deleted;
+        this.unchanged = unchanged;
+        this.batches = batches;
+        this.retries = retries;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getDeleted() {
+        return deleted;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * @return number of upsert batches and delete chunks, each committed in its own transaction
+     */
+    public int getBatches() {
+        return batches;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SyncReport{inserted=%d, updated=%d, deleted=%d, unchanged=%d, batches=%d, " +
+                        "retries=%d, elapsed=%d ms}", inserted, updated, deleted, unchanged, batches, retries,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+}
@@ -0,0 +1,89 @@
+package Employee;
+
+/**
+ * Settings of {@link EmployeeService#writeBehind(WriteBehindOptions)}.
+ */
+public class WriteBehindOptions {
+
+    public static final WriteBehindOptions DEFAULT = new OptionsBuilder().build();
+
+    private final int queueCapacity;
+    private final int maxBatchSize;
+    private final long flushIntervalMillis;
+    private final int maxRetries;
+
+    private WriteBehindOptions(OptionsBuilder builder) {
+        this.queueCapacity = builder.queueCapacity;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.flushIntervalMillis = builder.flushIntervalMillis;
+        this.maxRetries = builder.maxRetries;
+    }
+
+    public static class OptionsBuilder {
+        private int queueCapacity = 8192;
+        private int maxBatchSize = 500;
+        private long flushIntervalMillis = 50;
+        private int maxRetries = 3;
+
+        /**
+         * @param queueCapacity number of updates waiting for the flushing thread, rounded up to power of two;
+         *                      callers wait when the queue is full
+         */
+        public OptionsBuilder addQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * @param maxBatchSize number of employees whose updates are flushed at once, without waiting
+         *                     for the flush interval
+         */
+        public OptionsBuilder addMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * @param flushIntervalMillis longest time an update waits in memory before it is flushed
+         */
+        public OptionsBuilder addFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+            return this;
+        }
+
+        /**
+         * @param maxRetries number of times the flush transaction is run again after transient error
+         */
+        public OptionsBuilder addMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        public WriteBehindOptions build() {
+            if (queueCapacity < 2 || queueCapacity > 1 << 30 || maxBatchSize < 1) {
+                throw new IllegalArgumentException("Queue capacity has to be between 2 and 2^30 " +
+                        "and batch size has to be positive!");
+            }
+            if (flushIntervalMillis < 1 || maxRetries < 0) {
+                throw new IllegalArgumentException("Flush interval has to be positive and retries cannot be negative!");
+            }
+            return new WriteBehindOptions(this);
+        }
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+}
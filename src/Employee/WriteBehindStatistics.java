@@ -0,0 +1,69 @@
+package Employee;
+
+/**
+ * Point in time snapshot of {@link EmployeeWriteBehind} counters.
+ */
+public class WriteBehindStatistics {
+
+    private final long updates;
+    private final long coalesced;
+    private final long rows;
+    private final long transactions;
+    private final long retries;
+    private final long failed;
+
+    WriteBehindStatistics(long updates, long coalesced, long rows, long transactions, long retries, long failed) {
+        this.updates = updates;
+        this.coalesced = coalesced;
+        this.rows = rows;
+        this.transactions = transactions;
+        this.retries = retries;
+        this.failed = failed;
+    }
+
+    /**
+     * @return updates accepted into the queue
+     */
+    public long getUpdates() {
+        return updates;
+    }
+
+    /**
+     * @return updates merged into earlier update of the same employee before it was written
+     */
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    /**
+     * @return UPDATE statements committed, one per employee per flush
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return committed flush transactions
+     */
+    public long getTransactions() {
+        return transactions;
+    }
+
+    public long getRetries() {
+        return retries;
+    }
+
+    /**
+     * @return updates whose futures completed exceptionally
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("WriteBehindStatistics{updates=%d, coalesced=%d, rows=%d, transactions=%d, " +
+                        "retries=%d, failed=%d, rows/transaction=%.1f}", updates, coalesced, rows, transactions,
+                retries, failed, transactions == 0 ? 0.0 : rows / (double) transactions);
+    }
+}
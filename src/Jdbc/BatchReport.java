@@ -0,0 +1,48 @@
+package Jdbc;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary of batched write: how many rows were written, in how many batches, how many batches
+ * had to be retried and how long it took.
+ */
+public class BatchReport {
+
+    private final long rows;
+    private final int batches;
+    private final int retries;
+    private final long elapsedNanos;
+
+    public BatchReport(long rows, int batches, int retries, long elapsedNanos) {
+        this.rows = rows;
+        this.batches = batches;
+        this.retries = retries;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BatchReport{rows=%d, batches=%d, retries=%d, elapsed=%d ms, rows/sec=%.1f}",
+                rows, batches, retries, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), getRowsPerSecond());
+    }
+}
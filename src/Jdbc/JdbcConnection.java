@@ -1,5 +1,9 @@
 package Jdbc;
 
+import Jdbc.log.Logger;
+import Jdbc.pool.ConnectionPool;
+import Jdbc.pool.PoolConfiguration;
+
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.sql.*;
@@ -7,22 +11,25 @@ import java.util.Properties;
 
 public class JdbcConnection {
 
-    private static Connection connection = null;
+    private static final Logger LOGGER = Logger.getLogger(JdbcConnection.class);
 
     private static final String USER = "user";
     private static final String PASSWORD = "password";
-    private static final String DATABASE_URL = "jdbc:mysql://localhost:3306/demo?serverTimezone=UTC&useSSL=false";
+    private static final String DATABASE_URL =
+            "jdbc:mysql://localhost:3306/demo?serverTimezone=UTC&useSSL=false&useCursorFetch=true" +
+                    "&allowLoadLocalInfile=true";
+    private static final String MYSQL_URL_PREFIX = "jdbc:mysql:";
+    private static final String CURSOR_FETCH = "useCursorFetch=true";
 
     //hardcoded
     public static Connection openDatabaseConnectionHardcoded() {
-
+        Connection connection = null;
         try{
             connection = DriverManager.getConnection(DATABASE_URL, USER , PASSWORD);
-            System.out.println("Successfully connect to database: " + DATABASE_URL);
+            LOGGER.info("Successfully connect to database: {}", DATABASE_URL);
 
         } catch (SQLException e) {
-            System.out.println("Problem with opening connection!");
-            e.printStackTrace();
+            LOGGER.error("Problem with opening connection!", e);
         }
         return connection;
     }
@@ -30,27 +37,57 @@ public class JdbcConnection {
     //from properties
     public static Connection openDatabaseConnectionFromProperties(String propertiesPath) {
 
-        Properties properties = new Properties();
-        try {
-            properties.load(new FileInputStream(propertiesPath));
-        } catch (IOException e) {
-            System.out.println("Something is wrong with given property file!");
-            e.printStackTrace();
-        }
+        Properties properties = loadProperties(propertiesPath);
 
         String user = properties.getProperty("user");
         String password = properties.getProperty("password");
         String url = properties.getProperty("url");
+        warnIfCursorFetchDisabled(url);
 
+        Connection connection = null;
         try {
             connection = DriverManager.getConnection(url, user, password);
-            System.out.println("Successfully connect to database: " + url);
+            LOGGER.info("Successfully connect to database: {}", url);
         } catch (SQLException e) {
-            System.out.println("Problem with opening connection!");
-            e.printStackTrace();
+            LOGGER.error("Problem with opening connection!", e);
         }
         return connection;
     }
 
-}
+    /**
+     * Creates connection pool configured from property file. Besides user, password and url
+     * the file may contain pool.* keys described in {@link PoolConfiguration#fromProperties(Properties)}.
+     * @param propertiesPath path to property file
+     * @return ConnectionPool, which should be closed when application stops
+     */
+    public static ConnectionPool openConnectionPoolFromProperties(String propertiesPath) {
+        PoolConfiguration configuration = PoolConfiguration.fromProperties(loadProperties(propertiesPath));
+        warnIfCursorFetchDisabled(configuration.getUrl());
+
+        ConnectionPool connectionPool = new ConnectionPool(configuration);
+        LOGGER.info("Successfully created connection pool for database: {}", configuration.getUrl());
+
+        return connectionPool;
+    }
 
+    /*
+     * Connector/J ignores positive fetch size without useCursorFetch=true and reads whole result into memory,
+     * so streaming reads (streamAll, publishAll, getAllColumns, export) would silently lose their constant memory use.
+     */
+    private static void warnIfCursorFetchDisabled(String url) {
+        if (url != null && url.startsWith(MYSQL_URL_PREFIX) && !url.contains(CURSOR_FETCH)) {
+            LOGGER.warn("Connection url has no {}, MySQL reads whole result sets into memory: {}", CURSOR_FETCH, url);
+        }
+    }
+
+    private static Properties loadProperties(String propertiesPath) {
+        Properties properties = new Properties();
+        try (FileInputStream inputStream = new FileInputStream(propertiesPath)) {
+            properties.load(inputStream);
+        } catch (IOException e) {
+            LOGGER.error("Something is wrong with given property file: {}", propertiesPath, e);
+        }
+        return properties;
+    }
+
+}
@@ -1,5 +1,8 @@
 package Jdbc;
 
+import Jdbc.log.Logger;
+import Jdbc.metadata.SchemaMetadataService;
+
 import java.io.Serializable;
 import java.sql.*;
 import java.util.HashSet;
@@ -9,6 +12,8 @@ import java.util.Set;
 
 public class JdbcUtils {
 
+    private static final Logger LOGGER = Logger.getLogger(JdbcUtils.class);
+
     /**
      * Method to create update query in SQL. There is LinkedHashMap instead of HashMap because
      * entry order should be kept in method.
@@ -26,7 +31,10 @@ public class JdbcUtils {
      *                   WITHOUT_OPERATION - no logical operation after condition,
      *                   should be applied to last element in map.
      * @return SQL updating query
+     * @deprecated values are inlined into SQL text, which gives unique SQL for every call and allows SQL injection,
+     * use {@link Jdbc.query.Update} instead
      */
+    @Deprecated(forRemoval = true)
     public static String createUpdateQuery(String tableName, Map<String, Serializable> valuesToChange,
                                            LinkedHashMap<String, LogicalOperation> conditions) {
         StringBuilder sb = new StringBuilder("UPDATE " + tableName + " SET ");
@@ -48,6 +56,10 @@ public class JdbcUtils {
         return sb.toString();
     }
 
+    /**
+     * @deprecated conditions are pasted into SQL text, use {@link Jdbc.query.Delete} instead
+     */
+    @Deprecated(forRemoval = true)
     public static String createDeleteQuery(String tableName, LinkedHashMap<String, LogicalOperation> conditions) {
         StringBuilder sb = new StringBuilder("DELETE FROM " + tableName);
 
@@ -66,12 +78,14 @@ public class JdbcUtils {
         try {
             metaData = connection.getMetaData();
         } catch (SQLException e) {
-            System.out.println("Cannot read database metadata!");
-            e.printStackTrace();
+            LOGGER.error("Cannot read database metadata!", e);
         }
         return metaData;
     }
 
+    /**
+     * Reads table names on every call, {@link Jdbc.metadata.SchemaMetadataService} keeps them cached.
+     */
     public static Set<String> getTablesNamesForConnection(Connection connection, String catalog, String schemaPattern,
                                                    String tableNamePattern, String[] types) {
         DatabaseMetaData metaData = getDatabaseMetaDataForConnection(connection);
@@ -84,13 +98,15 @@ public class JdbcUtils {
             }
 
         } catch (SQLException e) {
-            System.out.println("Cannot read tables for given connection!");
-            e.printStackTrace();
+            LOGGER.error("Cannot read tables for given connection!", e);
         }
 
         return tablesNames;
     }
 
+    /**
+     * Reads column names on every call, {@link Jdbc.metadata.SchemaMetadataService} keeps them cached.
+     */
     public static Set<String> getColumnsNamesForTableInConnection(String tableName, Connection connection, String catalog,
                                                                   String schemaPattern, String columnNamePattern) {
         DatabaseMetaData metaData = getDatabaseMetaDataForConnection(connection);
@@ -103,38 +119,37 @@ public class JdbcUtils {
             }
 
         } catch (SQLException e) {
-            System.out.println("Cannot read columns for given connection!");
-            e.printStackTrace();
+            LOGGER.error("Cannot read columns for given connection!", e);
         }
 
         return columnsNames;
     }
 
     /**
-     * This method is used for reading metadata from result set, query does not affect data base
+     * This method is used for reading metadata of result set, query is prepared but not executed.
+     * When driver cannot describe prepared statement, query is executed wrapped so that it returns no rows.
+     * For repeated calls use {@link Jdbc.metadata.SchemaMetadataService#getResultShape(String)}, which caches shapes.
      * @param connection current connection
      * @param query query which should return resultSet
      * @return ResultSetMetaData for given query
      */
     public static ResultSetMetaData getResultSetMetaDataForQuery(Connection connection, String query) {
         ResultSetMetaData resultSetMetaData = null;
-        try {
-            boolean autoCommit = connection.getAutoCommit();
-
-            connection.setAutoCommit(false);
-
-            Statement statement = connection.createStatement();
-            ResultSet resultSet = statement.executeQuery(query);
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            resultSetMetaData = statement.getMetaData();
+        } catch (SQLException e) {
+            LOGGER.error("Cannot get result set metadata for query: {}", query, e);
+            return null;
+        }
+        if (resultSetMetaData != null) {
+            return resultSetMetaData;
+        }
 
+        try (PreparedStatement statement = SchemaMetadataService.prepareEmptyQuery(connection, query);
+             ResultSet resultSet = statement.executeQuery()) {
             resultSetMetaData = resultSet.getMetaData();
-
-            connection.rollback();
-
-            connection.setAutoCommit(autoCommit);
-
-            close(resultSet, statement);
         } catch (SQLException e) {
-            System.out.println("Cannot get result set metadata for given query!");
+            LOGGER.error("Cannot get result set metadata for query: {}", query, e);
         }
         return resultSetMetaData;
     }
@@ -153,7 +168,7 @@ public class JdbcUtils {
                 }
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            LOGGER.error("Problem with closing resource!", e);
         }
     }
 
@@ -0,0 +1,21 @@
+package Jdbc;
+
+import java.sql.SQLException;
+
+/**
+ * Wraps SQLException thrown where checked exceptions cannot be propagated, e.g. inside lazily consumed
+ * Stream or Iterator.
+ */
+public class UncheckedSQLException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UncheckedSQLException(SQLException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
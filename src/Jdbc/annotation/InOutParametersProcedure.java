@@ -7,9 +7,15 @@ import java.lang.annotation.Target;
 
 
 /**
- * This is informational annotation which shows that method call INOUT Stored Procedure
+ * Marks method which calls INOUT Stored Procedure. On methods of interface given to
+ * {@link Jdbc.procedure.ProcedureInvoker} the value is the name of called procedure.
  */
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface InOutParametersProcedure {
+
+    /**
+     * @return name of stored procedure, required by {@link Jdbc.procedure.ProcedureInvoker}
+     */
+    String value() default "";
 }
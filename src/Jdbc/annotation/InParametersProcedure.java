@@ -6,9 +6,15 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * This is informational annotation which shows that method call IN Stored Procedure
+ * Marks method which calls IN Stored Procedure. On methods of interface given to
+ * {@link Jdbc.procedure.ProcedureInvoker} the value is the name of called procedure.
  */
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface InParametersProcedure {
+
+    /**
+     * @return name of stored procedure, required by {@link Jdbc.procedure.ProcedureInvoker}
+     */
+    String value() default "";
 }
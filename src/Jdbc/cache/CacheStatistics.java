@@ -0,0 +1,86 @@
+package Jdbc.cache;
+
+/**
+ * Point in time snapshot of {@link ReadThroughCache} counters.
+ */
+public class CacheStatistics {
+
+    private final int size;
+    private final long hits;
+    private final long misses;
+    private final long loadFailures;
+    private final long totalLoadNanos;
+    private final long maxLoadNanos;
+    private final long evictions;
+    private final long invalidations;
+
+    CacheStatistics(int size, long hits, long misses, long loadFailures, long totalLoadNanos, long maxLoadNanos,
+                    long evictions, long invalidations) {
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.loadFailures = loadFailures;
+        this.totalLoadNanos = totalLoadNanos;
+        this.maxLoadNanos = maxLoadNanos;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return number of requests served without query, including requests which waited for load started by other thread
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of requests which ran the query
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    public long getLoadFailures() {
+        return loadFailures;
+    }
+
+    public long getAverageLoadNanos() {
+        return misses == 0 ? 0 : totalLoadNanos / misses;
+    }
+
+    public long getMaxLoadNanos() {
+        return maxLoadNanos;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics{" +
+                "size=" + size +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", hitRatio=" + String.format("%.3f", getHitRatio()) +
+                ", loadFailures=" + loadFailures +
+                ", averageLoadNanos=" + getAverageLoadNanos() +
+                ", maxLoadNanos=" + maxLoadNanos +
+                ", evictions=" + evictions +
+                ", invalidations=" + invalidations +
+                '}';
+    }
+}
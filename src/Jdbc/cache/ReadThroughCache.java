@@ -0,0 +1,201 @@
+package Jdbc.cache;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+/**
+ * In-process read-through cache of query results. Values are loaded by the loader on the first request and kept
+ * until they expire (time to live), are evicted as least recently used when cache is full or are invalidated.
+ *
+ * Loading is single-flight: when many threads miss the same key at once, only one of them runs the query and
+ * the others wait for its result. Lock is held only for map operations, never while the query runs.
+ * Entry invalidated while it is being loaded is not stored, so a write cannot be hidden by a load started before it.
+ *
+ * Cached values are shared by all callers, so they should not be modified.
+ * @param <K> key type
+ * @param <V> value type, null values are cached too
+ */
+public class ReadThroughCache<K, V> {
+
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final Loader<K, V> loader;
+    private final Map<K, CacheEntry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final AtomicLong maxLoadNanos = new AtomicLong();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param maximumSize maximum number of cached keys, 0 disables caching and every call runs the loader
+     * @param timeToLiveMillis time after which loaded value is reloaded, 0 means no expiration
+     * @param loader reads value of the key from database
+     */
+    public ReadThroughCache(int maximumSize, long timeToLiveMillis, Loader<K, V> loader) {
+        if (maximumSize < 0 || timeToLiveMillis < 0) {
+            throw new IllegalArgumentException("Cache size and time to live cannot be negative!");
+        }
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+        this.loader = loader;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry> eldest) {
+                if (size() > ReadThroughCache.this.maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key) throws SQLException {
+        if (maximumSize == 0) {
+            misses.increment();
+            return load(key);
+        }
+
+        CacheEntry entry;
+        boolean loading = false;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                entries.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new CacheEntry();
+                entries.put(key, entry);
+                loading = true;
+            }
+        }
+
+        if (!loading) {
+            hits.increment();
+            return await(entry);
+        }
+
+        misses.increment();
+        try {
+            V value = load(key);
+            entry.loadedAtNanos = System.nanoTime();
+            entry.value.complete(value);
+            return value;
+        } catch (SQLException | RuntimeException e) {
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            entry.value.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            if (entries.remove(key) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * Removes entries matching the predicate. Entries which are still loading are always removed,
+     * because their values cannot be checked yet.
+     * @param predicate tested with key and loaded value
+     */
+    public void invalidateIf(BiPredicate<? super K, ? super V> predicate) {
+        synchronized (entries) {
+            Iterator<Map.Entry<K, CacheEntry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<K, CacheEntry> mapEntry = iterator.next();
+                CompletableFuture<V> value = mapEntry.getValue().value;
+                if (!value.isDone() || predicate.test(mapEntry.getKey(), value.getNow(null))) {
+                    iterator.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidations.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public CacheStatistics getStatistics() {
+        return new CacheStatistics(size(), hits.sum(), misses.sum(), loadFailures.sum(), loadNanos.sum(),
+                maxLoadNanos.get(), evictions.sum(), invalidations.sum());
+    }
+
+    private V load(K key) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return loader.load(key);
+        } catch (SQLException | RuntimeException e) {
+            loadFailures.increment();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            loadNanos.add(elapsed);
+            maxLoadNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    private V await(CacheEntry entry) throws SQLException {
+        try {
+            return entry.value.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for cached value!", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                SQLException sqlException = (SQLException) cause;
+                throw new SQLException(sqlException.getMessage(), sqlException.getSQLState(),
+                        sqlException.getErrorCode(), sqlException);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException("Loading of cached value failed!", cause);
+        }
+    }
+
+    /**
+     * Reads value of the key from database.
+     */
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws SQLException;
+    }
+
+    private class CacheEntry {
+        private final CompletableFuture<V> value = new CompletableFuture<>();
+        private volatile long loadedAtNanos;
+
+        boolean isExpired(long now) {
+            return timeToLiveNanos > 0 && value.isDone() && now - loadedAtNanos > timeToLiveNanos;
+        }
+    }
+}
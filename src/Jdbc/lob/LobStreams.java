@@ -0,0 +1,156 @@
+package Jdbc.lob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Helpers for moving large objects between JDBC streams and NIO channels without holding them in heap.
+ * Data is copied through pooled direct buffers, so no buffer is allocated per transfer.
+ */
+public class LobStreams {
+
+    static final int BUFFER_SIZE = 1024 * 1024;
+    static final int CHAR_BUFFER_SIZE = 256 * 1024;
+
+    private static final Queue<ByteBuffer> BYTE_BUFFERS = new ConcurrentLinkedQueue<>();
+    private static final Queue<char[]> CHAR_BUFFERS = new ConcurrentLinkedQueue<>();
+
+    private LobStreams() {
+    }
+
+    /**
+     * Copies all bytes from source to target.
+     * @param source e.g. {@link Channels#newChannel(InputStream)} over BLOB stream
+     * @param target any channel, e.g. FileChannel or {@link Channels#newChannel(java.io.OutputStream)}
+     * @return report with number of copied bytes and their CRC-32
+     */
+    public static LobTransferReport copy(ReadableByteChannel source, WritableByteChannel target) throws IOException {
+        long start = System.nanoTime();
+        CRC32 crc = new CRC32();
+        long size = 0;
+
+        ByteBuffer buffer = borrowByteBuffer();
+        try {
+            int read;
+            while ((read = source.read(buffer)) >= 0) {
+                if (read == 0 && buffer.position() == 0) {
+                    continue;
+                }
+                buffer.flip();
+                crc.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    size += target.write(buffer);
+                }
+                buffer.clear();
+            }
+        } finally {
+            returnByteBuffer(buffer);
+        }
+
+        return new LobTransferReport(size, System.nanoTime() - start, crc.getValue());
+    }
+
+    /**
+     * Copies all characters from source to target in large chunks. Target is not flushed nor closed.
+     * @param source e.g. CLOB character stream
+     * @param target any Appendable, Writer targets are written directly from the buffer
+     * @return report with number of copied characters, checksum is not computed for characters
+     */
+    public static LobTransferReport copy(Reader source, Appendable target) throws IOException {
+        long start = System.nanoTime();
+        long size = 0;
+
+        char[] buffer = borrowCharBuffer();
+        try {
+            Writer writer = target instanceof Writer ? (Writer) target : null;
+            CharBuffer wrapper = writer == null ? CharBuffer.wrap(buffer) : null;
+            int read;
+            while ((read = source.read(buffer)) >= 0) {
+                if (writer != null) {
+                    writer.write(buffer, 0, read);
+                } else {
+                    target.append(wrapper, 0, read);
+                }
+                size += read;
+            }
+        } finally {
+            CHAR_BUFFERS.offer(buffer);
+        }
+
+        return new LobTransferReport(size, System.nanoTime() - start, 0);
+    }
+
+    /**
+     * Counts characters of encoded text file, which is needed for known-length
+     * {@link java.sql.PreparedStatement#setCharacterStream(int, Reader, long)}. For single byte charsets
+     * it is just the file size, otherwise the file is decoded once through direct buffer.
+     * Channel position is restored after counting.
+     */
+    public static long countCharacters(FileChannel channel, CharsetDecoder decoder) throws IOException {
+        if (decoder.charset().newEncoder().maxBytesPerChar() == 1.0f) {
+            return channel.size();
+        }
+
+        long position = channel.position();
+        long count = 0;
+        ByteBuffer bytes = borrowByteBuffer();
+        char[] chars = borrowCharBuffer();
+        try {
+            CharBuffer charBuffer = CharBuffer.wrap(chars);
+            decoder.reset();
+            boolean endOfInput = false;
+            while (!endOfInput) {
+                endOfInput = channel.read(bytes) < 0;
+                bytes.flip();
+                CoderResult result;
+                do {
+                    result = decoder.decode(bytes, charBuffer, endOfInput);
+                    if (result.isError()) {
+                        result.throwException();
+                    }
+                    count += charBuffer.position();
+                    charBuffer.clear();
+                } while (result.isOverflow());
+                bytes.compact();
+            }
+            while (decoder.flush(charBuffer).isOverflow()) {
+                count += charBuffer.position();
+                charBuffer.clear();
+            }
+            count += charBuffer.position();
+        } finally {
+            returnByteBuffer(bytes);
+            CHAR_BUFFERS.offer(chars);
+            channel.position(position);
+        }
+        return count;
+    }
+
+    private static char[] borrowCharBuffer() {
+        char[] buffer = CHAR_BUFFERS.poll();
+        return buffer != null ? buffer : new char[CHAR_BUFFER_SIZE];
+    }
+
+    private static ByteBuffer borrowByteBuffer() {
+        ByteBuffer buffer = BYTE_BUFFERS.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    private static void returnByteBuffer(ByteBuffer buffer) {
+        buffer.clear();
+        BYTE_BUFFERS.offer(buffer);
+    }
+}
@@ -0,0 +1,54 @@
+package Jdbc.lob;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary of one BLOB or CLOB transfer. For BLOB the size is in bytes, for CLOB in characters.
+ */
+public class LobTransferReport {
+
+    private final long size;
+    private final long elapsedNanos;
+    private final long checksum;
+
+    public LobTransferReport(long size, long elapsedNanos, long checksum) {
+        this.size = size;
+        this.elapsedNanos = elapsedNanos;
+        this.checksum = checksum;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return CRC-32 of transferred bytes, always 0 for CLOB transfers
+     */
+    public long getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * @return bytes per second for BLOB, characters per second for CLOB
+     */
+    public double getThroughputPerSecond() {
+        return elapsedNanos == 0 ? 0 : size * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * @return true if both transfers moved the same data, e.g. upload and following download
+     */
+    public boolean hasSameContentAs(LobTransferReport other) {
+        return size == other.size && checksum == other.checksum;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LobTransferReport{size=%d, elapsed=%d ms, throughput=%.1f/s, checksum=%08x}",
+                size, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), getThroughputPerSecond(), checksum);
+    }
+}
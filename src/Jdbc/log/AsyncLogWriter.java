@@ -0,0 +1,210 @@
+package Jdbc.log;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Bounded multi-producer ring buffer of preallocated LogEvent slots drained by one daemon thread,
+ * which is the only thread formatting messages and touching the output stream.
+ * Every slot has a sequence number: slot is free for position p when sequence == p and holds published event
+ * when sequence == p + 1 (D. Vyukov's bounded queue), so producers only compete on one CAS of the tail.
+ * After close events are written synchronously by the logging thread.
+ */
+class AsyncLogWriter {
+
+    private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FULL_BUFFER_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private final LogConfiguration configuration;
+    private final PrintStream output;
+    private final LogEvent[] events;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final AtomicLong suppressedStackTraces = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean writerWaiting;
+    private volatile boolean closed;
+
+    //used only by the writer thread, or under lock after close
+    private final StringBuilder line = new StringBuilder(256);
+    private long head;
+    private long currentSecond;
+    private int stackTracesInCurrentSecond;
+
+    AsyncLogWriter(LogConfiguration configuration) {
+        this.configuration = configuration;
+        this.output = configuration.getOutput();
+        int capacity = Integer.highestOneBit(configuration.getBufferSize() - 1) << 1;
+        this.events = new LogEvent[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            events[i] = new LogEvent();
+            sequences.set(i, i);
+        }
+        this.writer = new Thread(this::run, "jdbc-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    LogConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    long getSuppressedStackTraces() {
+        return suppressedStackTraces.get();
+    }
+
+    void publish(LogLevel level, String loggerName, String message, int argumentCount,
+                 Object argument1, Object argument2, Object argument3) {
+        while (!closed) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events[index].set(level, loggerName, message, argumentCount, argument1, argument2, argument3);
+                    sequences.set(index, position + 1);
+                    if (writerWaiting) {
+                        LockSupport.unpark(writer);
+                    }
+                    return;
+                }
+            } else if (difference < 0) {
+                if (configuration.getOverflowPolicy() == OverflowPolicy.DROP) {
+                    droppedEvents.increment();
+                    return;
+                }
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(this, FULL_BUFFER_WAIT_NANOS);
+            }
+        }
+
+        LogEvent event = new LogEvent();
+        event.set(level, loggerName, message, argumentCount, argument1, argument2, argument3);
+        synchronized (this) {
+            write(event);
+            output.flush();
+        }
+    }
+
+    /**
+     * Stops accepting events and waits until writer thread prints the published ones.
+     */
+    void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            boolean wasClosed = closed;
+            int written;
+            synchronized (this) {
+                written = drain();
+                if (written > 0) {
+                    output.flush();
+                }
+            }
+            if (written == 0) {
+                if (wasClosed) {
+                    return;
+                }
+                writerWaiting = true;
+                if (!hasPublishedEvent()) {
+                    LockSupport.parkNanos(this, MAX_WAIT_NANOS);
+                }
+                writerWaiting = false;
+            }
+        }
+    }
+
+    private int drain() {
+        int written = 0;
+        while (hasPublishedEvent()) {
+            int index = (int) head & mask;
+            LogEvent event = events[index];
+            try {
+                write(event);
+            } catch (RuntimeException e) {
+                output.println("Problem with writing log event: " + e);
+            }
+            event.clear();
+            sequences.set(index, head + events.length);
+            head++;
+            written++;
+        }
+        return written;
+    }
+
+    private boolean hasPublishedEvent() {
+        return sequences.get((int) head & mask) == head + 1;
+    }
+
+    private void write(LogEvent event) {
+        line.setLength(0);
+        TIME_FORMAT.formatTo(Instant.ofEpochMilli(event.timeMillis), line);
+        line.append(' ').append(event.level);
+        if (event.level.name().length() == 4) {
+            line.append(' ');
+        }
+        line.append(" [").append(event.threadName).append("] ").append(event.loggerName).append(" - ");
+        appendMessage(event);
+
+        Throwable throwable = event.throwable;
+        if (throwable != null && !allowStackTrace(event.timeMillis)) {
+            line.append(" (").append(throwable).append(", stack trace suppressed)");
+            throwable = null;
+        }
+        output.println(line);
+        if (throwable != null) {
+            throwable.printStackTrace(output);
+        }
+    }
+
+    private void appendMessage(LogEvent event) {
+        String message = String.valueOf(event.message);
+        int argument = 0;
+        int start = 0;
+        int placeholder;
+        while (argument < event.argumentCount && (placeholder = message.indexOf("{}", start)) >= 0) {
+            line.append(message, start, placeholder).append(event.argument(argument++));
+            start = placeholder + 2;
+        }
+        line.append(message, start, message.length());
+    }
+
+    private boolean allowStackTrace(long timeMillis) {
+        long second = timeMillis / 1000;
+        if (second != currentSecond) {
+            currentSecond = second;
+            stackTracesInCurrentSecond = 0;
+        }
+        if (stackTracesInCurrentSecond < configuration.getStackTracesPerSecond()) {
+            stackTracesInCurrentSecond++;
+            return true;
+        }
+        suppressedStackTraces.incrementAndGet();
+        return false;
+    }
+}
@@ -0,0 +1,129 @@
+package Jdbc.log;
+
+import java.io.PrintStream;
+import java.util.Properties;
+
+/**
+ * Immutable settings of {@link Logger}. Instances are created with {@link ConfigurationBuilder}
+ * or read from system properties by {@link #fromProperties(Properties)}.
+ */
+public class LogConfiguration {
+
+    static final String LEVEL = "log.level";
+    static final String BUFFER_SIZE = "log.bufferSize";
+    static final String OVERFLOW_POLICY = "log.overflowPolicy";
+    static final String STACK_TRACES_PER_SECOND = "log.stackTracesPerSecond";
+
+    private final LogLevel level;
+    private final int bufferSize;
+    private final OverflowPolicy overflowPolicy;
+    private final int stackTracesPerSecond;
+    private final PrintStream output;
+
+    private LogConfiguration(ConfigurationBuilder builder) {
+        this.level = builder.level;
+        this.bufferSize = builder.bufferSize;
+        this.overflowPolicy = builder.overflowPolicy;
+        this.stackTracesPerSecond = builder.stackTracesPerSecond;
+        this.output = builder.output;
+    }
+
+    /**
+     * Reads log configuration from properties, missing keys keep builder defaults:
+     * log.level (DEBUG, INFO, WARN, ERROR, OFF), log.bufferSize, log.overflowPolicy (DROP, BLOCK),
+     * log.stackTracesPerSecond
+     * @param properties e.g. System.getProperties()
+     * @return LogConfiguration object writing to System.out
+     */
+    public static LogConfiguration fromProperties(Properties properties) {
+        ConfigurationBuilder builder = new ConfigurationBuilder();
+
+        String value;
+        if ((value = properties.getProperty(LEVEL)) != null) {
+            builder.addLevel(LogLevel.valueOf(value.trim().toUpperCase()));
+        }
+        if ((value = properties.getProperty(BUFFER_SIZE)) != null) {
+            builder.addBufferSize(Integer.parseInt(value.trim()));
+        }
+        if ((value = properties.getProperty(OVERFLOW_POLICY)) != null) {
+            builder.addOverflowPolicy(OverflowPolicy.valueOf(value.trim().toUpperCase()));
+        }
+        if ((value = properties.getProperty(STACK_TRACES_PER_SECOND)) != null) {
+            builder.addStackTracesPerSecond(Integer.parseInt(value.trim()));
+        }
+        return builder.build();
+    }
+
+    public static class ConfigurationBuilder {
+        private LogLevel level = LogLevel.INFO;
+        private int bufferSize = 8192;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+        private int stackTracesPerSecond = 10;
+        private PrintStream output = System.out;
+
+        public ConfigurationBuilder addLevel(LogLevel level) {
+            this.level = level;
+            return this;
+        }
+
+        /**
+         * @param bufferSize number of events waiting for the writer thread, rounded up to power of two
+         */
+        public ConfigurationBuilder addBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        public ConfigurationBuilder addOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        /**
+         * @param stackTracesPerSecond number of stack traces printed in one second, further exceptions
+         *                             are printed in one line
+         */
+        public ConfigurationBuilder addStackTracesPerSecond(int stackTracesPerSecond) {
+            this.stackTracesPerSecond = stackTracesPerSecond;
+            return this;
+        }
+
+        public ConfigurationBuilder addOutput(PrintStream output) {
+            this.output = output;
+            return this;
+        }
+
+        public LogConfiguration build() {
+            if (level == null || overflowPolicy == null || output == null) {
+                throw new IllegalArgumentException("Log level, overflow policy and output are required!");
+            }
+            if (bufferSize < 2 || bufferSize > 1 << 24) {
+                throw new IllegalArgumentException("Invalid log buffer size: " + bufferSize);
+            }
+            if (stackTracesPerSecond < 0) {
+                throw new IllegalArgumentException("Number of stack traces per second cannot be negative!");
+            }
+            return new LogConfiguration(this);
+        }
+    }
+
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public int getStackTracesPerSecond() {
+        return stackTracesPerSecond;
+    }
+
+    public PrintStream getOutput() {
+        return output;
+    }
+}
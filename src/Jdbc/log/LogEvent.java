@@ -0,0 +1,59 @@
+package Jdbc.log;
+
+/*
+ * Reusable slot of the ring buffer. Logging thread fills it, writer thread formats it and clears the references,
+ * so nothing except boxed arguments is allocated per event.
+ */
+class LogEvent {
+
+    LogLevel level;
+    String loggerName;
+    String threadName;
+    long timeMillis;
+    String message;
+    Object argument1;
+    Object argument2;
+    Object argument3;
+    int argumentCount;
+    Throwable throwable;
+
+    void set(LogLevel level, String loggerName, String message, int argumentCount,
+             Object argument1, Object argument2, Object argument3) {
+        this.level = level;
+        this.loggerName = loggerName;
+        this.threadName = Thread.currentThread().getName();
+        this.timeMillis = System.currentTimeMillis();
+        this.message = message;
+        this.argumentCount = argumentCount;
+        this.argument1 = argument1;
+        this.argument2 = argument2;
+        this.argument3 = argument3;
+        this.throwable = null;
+        Object last = argumentCount == 3 ? argument3 : argumentCount == 2 ? argument2 : argument1;
+        if (argumentCount > 0 && last instanceof Throwable) {
+            this.throwable = (Throwable) last;
+            this.argumentCount--;
+        }
+    }
+
+    Object argument(int index) {
+        switch (index) {
+            case 0:
+                return argument1;
+            case 1:
+                return argument2;
+            default:
+                return argument3;
+        }
+    }
+
+    void clear() {
+        loggerName = null;
+        threadName = null;
+        message = null;
+        argument1 = null;
+        argument2 = null;
+        argument3 = null;
+        throwable = null;
+    }
+}
@@ -0,0 +1,8 @@
+package Jdbc.log;
+
+/**
+ * Severity of log events, events below level of {@link LogConfiguration} are discarded before they are formatted.
+ */
+public enum LogLevel {
+    DEBUG, INFO, WARN, ERROR, OFF
+}
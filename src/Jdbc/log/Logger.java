@@ -0,0 +1,179 @@
+package Jdbc.log;
+
+/**
+ * Asynchronous logger of the JDBC layer. Logging thread only checks the level and puts message template
+ * with its arguments into a ring buffer, one background thread formats events and writes them to the output,
+ * so database threads neither build strings of disabled events nor wait for the console lock.
+ *
+ * Message placeholders {} are replaced by arguments when the event is written, so arguments should not be
+ * modified after logging. Throwable given as the last argument is printed with its stack trace,
+ * stack traces above {@link LogConfiguration#getStackTracesPerSecond()} are printed in one line.
+ *
+ * Configuration is global and read from system properties described in
+ * {@link LogConfiguration#fromProperties(java.util.Properties)} unless {@link #configure(LogConfiguration)} is called.
+ */
+public class Logger {
+
+    private static volatile AsyncLogWriter writer;
+    private static volatile LogLevel level;
+    private static boolean shutdownHookAdded;
+
+    private final String name;
+
+    private Logger(String name) {
+        this.name = name;
+    }
+
+    public static Logger getLogger(Class<?> type) {
+        return new Logger(type.getName());
+    }
+
+    /**
+     * Replaces global configuration, events logged before are written with the previous one.
+     */
+    public static void configure(LogConfiguration configuration) {
+        AsyncLogWriter previous;
+        synchronized (Logger.class) {
+            previous = writer;
+            writer = new AsyncLogWriter(configuration);
+            level = configuration.getLevel();
+            addShutdownHook();
+        }
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Writes all logged events and stops the writer thread, events logged afterwards are written synchronously.
+     * It is called on JVM shutdown as well.
+     */
+    public static void shutdown() {
+        AsyncLogWriter current = writer;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    /**
+     * @return number of events discarded because the ring buffer was full
+     */
+    public static long getDroppedEvents() {
+        AsyncLogWriter current = writer;
+        return current == null ? 0 : current.getDroppedEvents();
+    }
+
+    /**
+     * @return number of exceptions printed without stack trace because of the stack traces limit
+     */
+    public static long getSuppressedStackTraces() {
+        AsyncLogWriter current = writer;
+        return current == null ? 0 : current.getSuppressedStackTraces();
+    }
+
+    public boolean isEnabled(LogLevel eventLevel) {
+        LogLevel current = level;
+        if (current == null) {
+            current = writer().getConfiguration().getLevel();
+        }
+        return eventLevel != LogLevel.OFF && eventLevel.compareTo(current) >= 0;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(LogLevel.DEBUG);
+    }
+
+    public void debug(String message) {
+        log(LogLevel.DEBUG, message, 0, null, null, null);
+    }
+
+    public void debug(String message, Object argument) {
+        log(LogLevel.DEBUG, message, 1, argument, null, null);
+    }
+
+    public void debug(String message, Object argument1, Object argument2) {
+        log(LogLevel.DEBUG, message, 2, argument1, argument2, null);
+    }
+
+    public void debug(String message, Object argument1, Object argument2, Object argument3) {
+        log(LogLevel.DEBUG, message, 3, argument1, argument2, argument3);
+    }
+
+    public void info(String message) {
+        log(LogLevel.INFO, message, 0, null, null, null);
+    }
+
+    public void info(String message, Object argument) {
+        log(LogLevel.INFO, message, 1, argument, null, null);
+    }
+
+    public void info(String message, Object argument1, Object argument2) {
+        log(LogLevel.INFO, message, 2, argument1, argument2, null);
+    }
+
+    public void info(String message, Object argument1, Object argument2, Object argument3) {
+        log(LogLevel.INFO, message, 3, argument1, argument2, argument3);
+    }
+
+    public void warn(String message) {
+        log(LogLevel.WARN, message, 0, null, null, null);
+    }
+
+    public void warn(String message, Object argument) {
+        log(LogLevel.WARN, message, 1, argument, null, null);
+    }
+
+    public void warn(String message, Object argument1, Object argument2) {
+        log(LogLevel.WARN, message, 2, argument1, argument2, null);
+    }
+
+    public void warn(String message, Object argument1, Object argument2, Object argument3) {
+        log(LogLevel.WARN, message, 3, argument1, argument2, argument3);
+    }
+
+    public void error(String message) {
+        log(LogLevel.ERROR, message, 0, null, null, null);
+    }
+
+    public void error(String message, Object argument) {
+        log(LogLevel.ERROR, message, 1, argument, null, null);
+    }
+
+    public void error(String message, Object argument1, Object argument2) {
+        log(LogLevel.ERROR, message, 2, argument1, argument2, null);
+    }
+
+    public void error(String message, Object argument1, Object argument2, Object argument3) {
+        log(LogLevel.ERROR, message, 3, argument1, argument2, argument3);
+    }
+
+    private void log(LogLevel eventLevel, String message, int argumentCount,
+                     Object argument1, Object argument2, Object argument3) {
+        if (isEnabled(eventLevel)) {
+            writer().publish(eventLevel, name, message, argumentCount, argument1, argument2, argument3);
+        }
+    }
+
+    private static AsyncLogWriter writer() {
+        AsyncLogWriter current = writer;
+        if (current == null) {
+            synchronized (Logger.class) {
+                if (writer == null) {
+                    LogConfiguration configuration = LogConfiguration.fromProperties(System.getProperties());
+                    writer = new AsyncLogWriter(configuration);
+                    level = configuration.getLevel();
+                    addShutdownHook();
+                }
+                current = writer;
+            }
+        }
+        return current;
+    }
+
+    private static void addShutdownHook() {
+        if (!shutdownHookAdded) {
+            shutdownHookAdded = true;
+            Runtime.getRuntime().addShutdownHook(new Thread(Logger::shutdown, "jdbc-log-shutdown"));
+        }
+    }
+}
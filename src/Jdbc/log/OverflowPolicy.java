@@ -0,0 +1,15 @@
+package Jdbc.log;
+
+/**
+ * What logging thread does when the ring buffer of {@link Logger} is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * Event is discarded and counted in {@link Logger#getDroppedEvents()}, database threads never wait for the console.
+     */
+    DROP,
+    /**
+     * Logging thread waits until writer thread frees a slot, no event is lost.
+     */
+    BLOCK
+}
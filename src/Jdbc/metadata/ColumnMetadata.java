@@ -0,0 +1,129 @@
+package Jdbc.metadata;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Column of a table or of a query result, detached from the statement it was read from.
+ */
+public class ColumnMetadata {
+
+    private final String tableName;
+    private final String name;
+    private final String label;
+    private final int sqlType;
+    private final String typeName;
+    private final int size;
+    private final int scale;
+    private final int nullable;
+    private final boolean autoIncrement;
+    private final boolean readOnly;
+
+    private ColumnMetadata(String tableName, String name, String label, int sqlType, String typeName, int size,
+                           int scale, int nullable, boolean autoIncrement, boolean readOnly) {
+        this.tableName = tableName;
+        this.name = name;
+        this.label = label;
+        this.sqlType = sqlType;
+        this.typeName = typeName;
+        this.size = size;
+        this.scale = scale;
+        this.nullable = nullable;
+        this.autoIncrement = autoIncrement;
+        this.readOnly = readOnly;
+    }
+
+    /*
+     * Reads current row of DatabaseMetaData.getColumns().
+     */
+    static ColumnMetadata fromColumnsRow(ResultSet resultSet) throws SQLException {
+        String name = resultSet.getString("COLUMN_NAME");
+        return new ColumnMetadata(resultSet.getString("TABLE_NAME"), name, name,
+                resultSet.getInt("DATA_TYPE"), resultSet.getString("TYPE_NAME"),
+                resultSet.getInt("COLUMN_SIZE"), resultSet.getInt("DECIMAL_DIGITS"),
+                resultSet.getInt("NULLABLE"), "YES".equals(resultSet.getString("IS_AUTOINCREMENT")), false);
+    }
+
+    static ColumnMetadata fromResultSetMetaData(ResultSetMetaData metaData, int column) throws SQLException {
+        return new ColumnMetadata(metaData.getTableName(column), metaData.getColumnName(column),
+                metaData.getColumnLabel(column), metaData.getColumnType(column), metaData.getColumnTypeName(column),
+                metaData.getPrecision(column), metaData.getScale(column), metaData.isNullable(column),
+                metaData.isAutoIncrement(column), metaData.isReadOnly(column));
+    }
+
+    /**
+     * @return table of the column, empty for computed columns of query result
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return alias given in the query, the same as name for table columns
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return type from {@link java.sql.Types}
+     */
+    public int getSqlType() {
+        return sqlType;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * @return maximum length for character columns, precision for numeric columns
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * @return {@link DatabaseMetaData#columnNoNulls}, {@link DatabaseMetaData#columnNullable}
+     * or {@link DatabaseMetaData#columnNullableUnknown}
+     */
+    public int getNullable() {
+        return nullable;
+    }
+
+    public boolean isNullable() {
+        return nullable == DatabaseMetaData.columnNullable;
+    }
+
+    public boolean isAutoIncrement() {
+        return autoIncrement;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnMetadata{" +
+                "tableName='" + tableName + '\'' +
+                ", name='" + name + '\'' +
+                ", label='" + label + '\'' +
+                ", typeName='" + typeName + '\'' +
+                ", size=" + size +
+                ", scale=" + scale +
+                ", nullable=" + nullable +
+                ", autoIncrement=" + autoIncrement +
+                '}';
+    }
+}
@@ -0,0 +1,45 @@
+package Jdbc.metadata;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Columns returned by a query, read from the prepared statement without executing it.
+ */
+public class ResultShape {
+
+    private final String sql;
+    private final List<ColumnMetadata> columns;
+
+    ResultShape(String sql, List<ColumnMetadata> columns) {
+        this.sql = sql;
+        this.columns = Collections.unmodifiableList(columns);
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<ColumnMetadata> getColumns() {
+        return columns;
+    }
+
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    /**
+     * @param column index starting from 1, as in {@link java.sql.ResultSetMetaData}
+     */
+    public ColumnMetadata getColumn(int column) {
+        return columns.get(column - 1);
+    }
+
+    @Override
+    public String toString() {
+        return "ResultShape{" +
+                "sql='" + sql + '\'' +
+                ", columns=" + columns.size() +
+                '}';
+    }
+}
@@ -0,0 +1,235 @@
+package Jdbc.metadata;
+
+import Jdbc.cache.CacheStatistics;
+import Jdbc.cache.ReadThroughCache;
+import Jdbc.log.Logger;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cached view of database schema. Tables, columns and data types of a catalog are read with three
+ * DatabaseMetaData calls (all columns of the catalog at once, not one call per table) and kept as immutable
+ * {@link SchemaSnapshot} until time to live passes or {@link #refresh()} is called.
+ *
+ * Shape of a query result is read from PreparedStatement.getMetaData(), the query is prepared but not executed.
+ * Drivers which cannot describe a statement before execution (e.g. MySQL with client side prepared statements)
+ * get the query wrapped in SELECT * FROM (query) WHERE 1 = 0, which returns no rows.
+ *
+ * Service is safe to use from many threads: concurrent misses of the same catalog or query wait for a single load.
+ * Every load borrows its own connection from the data source.
+ */
+public class SchemaMetadataService {
+
+    private static final Logger LOGGER = Logger.getLogger(SchemaMetadataService.class);
+    private static final String CURRENT_CATALOG = "";
+    private static final String[] TABLE_TYPES = {"TABLE", "VIEW"};
+    private static final int DEFAULT_MAXIMUM_RESULT_SHAPES = 1000;
+
+    private final DataSource dataSource;
+    private final ReadThroughCache<String, SchemaSnapshot> schemas;
+    private final ReadThroughCache<String, ResultShape> resultShapes;
+
+    /**
+     * @param timeToLiveMillis time after which metadata is read again, 0 keeps it until {@link #refresh()}
+     */
+    public SchemaMetadataService(DataSource dataSource, long timeToLiveMillis) {
+        this(dataSource, timeToLiveMillis, DEFAULT_MAXIMUM_RESULT_SHAPES);
+    }
+
+    /**
+     * @param timeToLiveMillis time after which metadata is read again, 0 keeps it until {@link #refresh()}
+     * @param maximumResultShapes number of described queries kept in cache, least recently used are evicted
+     */
+    public SchemaMetadataService(DataSource dataSource, long timeToLiveMillis, int maximumResultShapes) {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Data source is required!");
+        }
+        this.dataSource = dataSource;
+        this.schemas = new ReadThroughCache<>(Integer.MAX_VALUE, timeToLiveMillis, this::loadSchema);
+        this.resultShapes = new ReadThroughCache<>(maximumResultShapes, timeToLiveMillis, this::loadResultShape);
+    }
+
+    /**
+     * @return schema of the current catalog of data source connections
+     */
+    public SchemaSnapshot getSchema() throws SQLException {
+        return schemas.get(CURRENT_CATALOG);
+    }
+
+    public SchemaSnapshot getSchema(String catalog) throws SQLException {
+        return schemas.get(catalog == null ? CURRENT_CATALOG : catalog);
+    }
+
+    public Set<String> getTableNames() throws SQLException {
+        return getSchema().getTableNames();
+    }
+
+    /**
+     * @return table of the current catalog or null when there is no such table
+     */
+    public TableMetadata getTable(String tableName) throws SQLException {
+        return getSchema().getTable(tableName);
+    }
+
+    /**
+     * @throws SQLException when there is no such table in the current catalog
+     */
+    public List<ColumnMetadata> getColumns(String tableName) throws SQLException {
+        return requireTable(tableName).getColumns();
+    }
+
+    /**
+     * @throws SQLException when there is no such table in the current catalog
+     */
+    public Set<String> getColumnNames(String tableName) throws SQLException {
+        return requireTable(tableName).getColumnNames();
+    }
+
+    /**
+     * @param sql query, may contain ? placeholders
+     * @return columns which the query would return
+     */
+    public ResultShape getResultShape(String sql) throws SQLException {
+        return resultShapes.get(sql);
+    }
+
+    /**
+     * Drops all cached metadata, it is read again on the next call. Should be called after DDL statements.
+     */
+    public void refresh() {
+        schemas.invalidateAll();
+        resultShapes.invalidateAll();
+    }
+
+    /**
+     * Drops cached metadata of one catalog and shapes of queries which use given table.
+     */
+    public void invalidate(String catalog, String tableName) {
+        schemas.invalidate(catalog == null ? CURRENT_CATALOG : catalog);
+        resultShapes.invalidateIf((sql, shape) -> usesTable(shape, tableName));
+    }
+
+    public CacheStatistics getSchemaStatistics() {
+        return schemas.getStatistics();
+    }
+
+    public CacheStatistics getResultShapeStatistics() {
+        return resultShapes.getStatistics();
+    }
+
+    private TableMetadata requireTable(String tableName) throws SQLException {
+        TableMetadata table = getTable(tableName);
+        if (table == null) {
+            throw new SQLException("Table " + tableName + " does not exist!", "42S02");
+        }
+        return table;
+    }
+
+    private SchemaSnapshot loadSchema(String catalogKey) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            String catalog = CURRENT_CATALOG.equals(catalogKey) ? connection.getCatalog() : catalogKey;
+            DatabaseMetaData metaData = connection.getMetaData();
+
+            Map<String, String> tableTypes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            try (ResultSet resultSet = metaData.getTables(catalog, null, "%", TABLE_TYPES)) {
+                while (resultSet.next()) {
+                    tableTypes.put(resultSet.getString("TABLE_NAME"), resultSet.getString("TABLE_TYPE"));
+                }
+            }
+
+            Map<String, List<ColumnMetadata>> columns = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            try (ResultSet resultSet = metaData.getColumns(catalog, null, "%", "%")) {
+                while (resultSet.next()) {
+                    ColumnMetadata column = ColumnMetadata.fromColumnsRow(resultSet);
+                    if (tableTypes.containsKey(column.getTableName())) {
+                        columns.computeIfAbsent(column.getTableName(), name -> new ArrayList<>()).add(column);
+                    }
+                }
+            }
+
+            Map<String, TableMetadata> tables = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (Map.Entry<String, String> table : tableTypes.entrySet()) {
+                List<ColumnMetadata> tableColumns = columns.getOrDefault(table.getKey(), new ArrayList<>());
+                tables.put(table.getKey(), new TableMetadata(table.getKey(), table.getValue(), tableColumns));
+            }
+
+            Map<String, Integer> sqlTypes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            try (ResultSet resultSet = metaData.getTypeInfo()) {
+                while (resultSet.next()) {
+                    sqlTypes.putIfAbsent(resultSet.getString("TYPE_NAME"), resultSet.getInt("DATA_TYPE"));
+                }
+            }
+
+            LOGGER.info("Loaded metadata of {} tables of catalog {} in {} ms", tables.size(), catalog,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return new SchemaSnapshot(catalog, tables, sqlTypes);
+        }
+    }
+
+    private ResultShape loadResultShape(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                ResultSetMetaData metaData = statement.getMetaData();
+                if (metaData != null) {
+                    return new ResultShape(sql, toColumns(metaData));
+                }
+            }
+
+            LOGGER.debug("Driver cannot describe prepared statement, reading empty result of: {}", sql);
+            try (PreparedStatement statement = prepareEmptyQuery(connection, sql);
+                 ResultSet resultSet = statement.executeQuery()) {
+                return new ResultShape(sql, toColumns(resultSet.getMetaData()));
+            }
+        }
+    }
+
+    /**
+     * Prepares query wrapped so that it returns no rows, with all parameters bound to NULL.
+     * Used when driver cannot describe the query before execution.
+     */
+    public static PreparedStatement prepareEmptyQuery(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("SELECT * FROM (" + sql + ") shape WHERE 1 = 0");
+        try {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setNull(i, Types.NULL);
+            }
+            return statement;
+        } catch (SQLException | RuntimeException e) {
+            statement.close();
+            throw e;
+        }
+    }
+
+    private static List<ColumnMetadata> toColumns(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        List<ColumnMetadata> columns = new ArrayList<>(columnCount);
+        for (int i = 1; i <= columnCount; i++) {
+            columns.add(ColumnMetadata.fromResultSetMetaData(metaData, i));
+        }
+        return columns;
+    }
+
+    private static boolean usesTable(ResultShape shape, String tableName) {
+        for (ColumnMetadata column : shape.getColumns()) {
+            if (tableName.equalsIgnoreCase(column.getTableName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,59 @@
+package Jdbc.metadata;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable view of tables, columns and data types of one catalog at the time it was loaded.
+ * Table and type names are case insensitive.
+ */
+public class SchemaSnapshot {
+
+    private final String catalog;
+    private final Map<String, TableMetadata> tables;
+    private final Map<String, Integer> sqlTypes;
+    private final long loadedAtMillis;
+
+    SchemaSnapshot(String catalog, Map<String, TableMetadata> tables, Map<String, Integer> sqlTypes) {
+        this.catalog = catalog;
+        this.tables = Collections.unmodifiableMap(tables);
+        this.sqlTypes = Collections.unmodifiableMap(sqlTypes);
+        this.loadedAtMillis = System.currentTimeMillis();
+    }
+
+    public String getCatalog() {
+        return catalog;
+    }
+
+    public Set<String> getTableNames() {
+        return tables.keySet();
+    }
+
+    /**
+     * @return table with given name or null
+     */
+    public TableMetadata getTable(String tableName) {
+        return tables.get(tableName);
+    }
+
+    /**
+     * @return {@link java.sql.Types} code of every data type supported by database, keyed by type name
+     */
+    public Map<String, Integer> getSqlTypes() {
+        return sqlTypes;
+    }
+
+    public long getLoadedAtMillis() {
+        return loadedAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaSnapshot{" +
+                "catalog='" + catalog + '\'' +
+                ", tables=" + tables.keySet() +
+                ", types=" + sqlTypes.size() +
+                '}';
+    }
+}
@@ -0,0 +1,66 @@
+package Jdbc.metadata;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Table or view with its columns in ordinal order.
+ */
+public class TableMetadata {
+
+    private final String name;
+    private final String type;
+    private final List<ColumnMetadata> columns;
+
+    TableMetadata(String name, String type, List<ColumnMetadata> columns) {
+        this.name = name;
+        this.type = type;
+        this.columns = Collections.unmodifiableList(columns);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return TABLE, VIEW or other table type reported by the driver
+     */
+    public String getType() {
+        return type;
+    }
+
+    public List<ColumnMetadata> getColumns() {
+        return columns;
+    }
+
+    public Set<String> getColumnNames() {
+        Set<String> names = new LinkedHashSet<>();
+        for (ColumnMetadata column : columns) {
+            names.add(column.getName());
+        }
+        return names;
+    }
+
+    /**
+     * @return column with given name (case insensitive) or null
+     */
+    public ColumnMetadata getColumn(String columnName) {
+        for (ColumnMetadata column : columns) {
+            if (column.getName().equalsIgnoreCase(columnName)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "TableMetadata{" +
+                "name='" + name + '\'' +
+                ", type='" + type + '\'' +
+                ", columns=" + getColumnNames() +
+                '}';
+    }
+}
@@ -0,0 +1,37 @@
+package Jdbc.metrics;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Adds number of characters read through the reader to the counter.
+ */
+class CountingReader extends FilterReader {
+
+    private final LongAdder counter;
+
+    CountingReader(Reader in, LongAdder counter) {
+        super(in);
+        this.counter = counter;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = in.read();
+        if (value >= 0) {
+            counter.increment();
+        }
+        return value;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        int read = in.read(buffer, offset, length);
+        if (read > 0) {
+            counter.add(read);
+        }
+        return read;
+    }
+}
@@ -0,0 +1,60 @@
+package Jdbc.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/*
+ * Wraps statements created by the connection. Prepared and callable statements are bound to the metrics
+ * of their SQL text once, when they are prepared.
+ */
+class InstrumentedConnection implements InvocationHandler {
+
+    private final JdbcMetrics metrics;
+    private final Connection connection;
+
+    InstrumentedConnection(JdbcMetrics metrics, Connection connection) {
+        this.metrics = metrics;
+        this.connection = connection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Instrumented" + connection;
+            default:
+                break;
+        }
+
+        Object result;
+        try {
+            result = method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+
+        switch (method.getName()) {
+            case "createStatement":
+                return wrap(method, (Statement) result, null, (Connection) proxy);
+            case "prepareStatement":
+            case "prepareCall":
+                return wrap(method, (Statement) result, (String) args[0], (Connection) proxy);
+            default:
+                return result;
+        }
+    }
+
+    private Statement wrap(Method method, Statement statement, String sql, Connection owner) {
+        InstrumentedStatement handler = new InstrumentedStatement(metrics, statement, sql, owner);
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                new Class<?>[]{method.getReturnType()}, handler);
+    }
+}
@@ -0,0 +1,59 @@
+package Jdbc.metrics;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+
+/*
+ * Times getConnection() of the wrapped data source, which for a connection pool is the time of waiting
+ * for a free connection, and wraps returned connections. Other calls go straight to the wrapped data source.
+ */
+class InstrumentedDataSource implements InvocationHandler {
+
+    private final JdbcMetrics metrics;
+    private final DataSource dataSource;
+
+    InstrumentedDataSource(JdbcMetrics metrics, DataSource dataSource) {
+        this.metrics = metrics;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "getConnection":
+                return getConnection(method, args);
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Instrumented" + dataSource;
+            default:
+                break;
+        }
+
+        try {
+            return method.invoke(dataSource, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Connection getConnection(Method method, Object[] args) throws Throwable {
+        long start = System.nanoTime();
+        Connection connection;
+        try {
+            connection = (Connection) method.invoke(dataSource, args);
+        } catch (InvocationTargetException e) {
+            metrics.recordConnectionError();
+            throw e.getCause();
+        }
+        metrics.recordConnectionWait(System.nanoTime() - start);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new InstrumentedConnection(metrics, connection));
+    }
+}
@@ -0,0 +1,138 @@
+package Jdbc.metrics;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/*
+ * Times execute* calls and counts rows affected and errors of the statement shape. Streams given to set* methods
+ * are counted as LOB data written, result sets are wrapped to count rows and LOB data read.
+ * Plain statements get the shape from the SQL passed to execute*, batches of plain statements are counted
+ * as other statements.
+ */
+class InstrumentedStatement implements InvocationHandler {
+
+    private final JdbcMetrics metrics;
+    private final Statement statement;
+    private final String sql;
+    private final StatementMetrics statementMetrics;
+    private final Connection owner;
+
+    InstrumentedStatement(JdbcMetrics metrics, Statement statement, String sql, Connection owner) {
+        this.metrics = metrics;
+        this.statement = statement;
+        this.sql = sql;
+        this.statementMetrics = sql != null ? metrics.statementMetrics(sql) : null;
+        this.owner = owner;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "getConnection":
+                return owner;
+            case "getResultSet":
+                return wrap(invokeStatement(method, args), (Statement) proxy);
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Instrumented" + statement;
+            default:
+                break;
+        }
+
+        if (name.startsWith("execute")) {
+            return execute(method, args, (Statement) proxy);
+        }
+        if (name.startsWith("set") && args != null && args.length >= 2) {
+            countStreams(args);
+        }
+        return invokeStatement(method, args);
+    }
+
+    private Object execute(Method method, Object[] args, Statement proxy) throws Throwable {
+        String executedSql = sql;
+        StatementMetrics executedMetrics = statementMetrics;
+        if (args != null && args.length > 0 && args[0] instanceof String) {
+            executedSql = (String) args[0];
+            executedMetrics = metrics.statementMetrics(executedSql);
+        } else if (executedMetrics == null) {
+            executedMetrics = metrics.statementMetrics(null);
+        }
+
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            executedMetrics.recordError();
+            Throwable cause = e.getCause();
+            if (cause instanceof BatchUpdateException) {
+                recordRowsAffected(executedMetrics, ((BatchUpdateException) cause).getLargeUpdateCounts());
+            }
+            throw cause;
+        } finally {
+            metrics.recordExecution(executedMetrics, executedSql, System.nanoTime() - start);
+        }
+
+        if (result instanceof ResultSet) {
+            return wrap(result, proxy, executedMetrics);
+        }
+        if (result instanceof Number) {
+            executedMetrics.recordRowsAffected(((Number) result).longValue());
+        } else if (result instanceof int[]) {
+            for (int count : (int[]) result) {
+                executedMetrics.recordRowsAffected(count);
+            }
+        } else if (result instanceof long[]) {
+            recordRowsAffected(executedMetrics, (long[]) result);
+        }
+        return result;
+    }
+
+    private void recordRowsAffected(StatementMetrics executedMetrics, long[] counts) {
+        if (counts != null) {
+            for (long count : counts) {
+                executedMetrics.recordRowsAffected(count);
+            }
+        }
+    }
+
+    private Object wrap(Object resultSet, Statement proxy) {
+        return wrap(resultSet, proxy, statementMetrics != null ? statementMetrics : metrics.statementMetrics(null));
+    }
+
+    private Object wrap(Object resultSet, Statement proxy, StatementMetrics executedMetrics) {
+        if (resultSet == null) {
+            return null;
+        }
+        return new InstrumentedResultSet(metrics, (ResultSet) resultSet, executedMetrics, proxy);
+    }
+
+    private void countStreams(Object[] args) {
+        for (int i = 1; i < args.length; i++) {
+            if (args[i] instanceof InputStream) {
+                args[i] = new CountingInputStream((InputStream) args[i], metrics.lobBytesWrittenCounter());
+            } else if (args[i] instanceof Reader) {
+                args[i] = new CountingReader((Reader) args[i], metrics.lobCharactersWrittenCounter());
+            }
+        }
+    }
+
+    private Object invokeStatement(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package Jdbc.metrics;
+
+import Jdbc.log.Logger;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of JDBC metrics. {@link #instrument(DataSource)} wraps data source, so that every connection, statement
+ * and result set taken from it records:
+ * - latency histogram, executions, rows returned and affected, errors of every statement shape (SQL text),
+ * - time of waiting for connection (pool wait) and failures of getting connection,
+ * - bytes and characters of BLOB/CLOB streams sent to and read from database.
+ *
+ * Statement which runs longer than slow query threshold is reported to {@link SlowQueryListener}.
+ * Metrics are exported by {@link MetricsReporter}s, e.g. {@link LogMetricsReporter} or {@link JmxMetricsReporter}.
+ *
+ * Recording costs two System.nanoTime() calls and a few lock-free increments per statement execution
+ * and one increment per row, which is far below database round trip time.
+ */
+public class JdbcMetrics {
+
+    private static final Logger LOGGER = Logger.getLogger(JdbcMetrics.class);
+    static final String OTHER_STATEMENTS = "(other statements)";
+
+    private final long slowQueryThresholdNanos;
+    private final int maximumStatementShapes;
+    private final SlowQueryListener slowQueryListener;
+
+    private final Map<String, StatementMetrics> statements = new ConcurrentHashMap<>();
+    private final StatementMetrics otherStatements = new StatementMetrics(OTHER_STATEMENTS);
+    private final LatencyHistogram connectionWait = new LatencyHistogram();
+    private final LongAdder connectionErrors = new LongAdder();
+    private final LongAdder lobBytesWritten = new LongAdder();
+    private final LongAdder lobBytesRead = new LongAdder();
+    private final LongAdder lobCharactersWritten = new LongAdder();
+    private final LongAdder lobCharactersRead = new LongAdder();
+    private final List<MetricsReporter> reporters = new ArrayList<>();
+
+    private JdbcMetrics(MetricsBuilder builder) {
+        this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(builder.slowQueryThresholdMillis);
+        this.maximumStatementShapes = builder.maximumStatementShapes;
+        this.slowQueryListener = builder.slowQueryListener;
+    }
+
+    public static class MetricsBuilder {
+        private long slowQueryThresholdMillis = 1000;
+        private int maximumStatementShapes = 1000;
+        private SlowQueryListener slowQueryListener = SlowQueryListener.LOGGING;
+
+        /**
+         * @param slowQueryThresholdMillis executions longer than this are reported as slow, 0 reports all of them
+         */
+        public MetricsBuilder addSlowQueryThresholdMillis(long slowQueryThresholdMillis) {
+            this.slowQueryThresholdMillis = slowQueryThresholdMillis;
+            return this;
+        }
+
+        /**
+         * @param maximumStatementShapes number of distinct SQL texts tracked separately, statements above the limit
+         *                               (e.g. built with inlined values) are counted together
+         */
+        public MetricsBuilder addMaximumStatementShapes(int maximumStatementShapes) {
+            this.maximumStatementShapes = maximumStatementShapes;
+            return this;
+        }
+
+        public MetricsBuilder addSlowQueryListener(SlowQueryListener slowQueryListener) {
+            this.slowQueryListener = slowQueryListener;
+            return this;
+        }
+
+        public JdbcMetrics build() {
+            if (slowQueryThresholdMillis < 0) {
+                throw new IllegalArgumentException("Slow query threshold cannot be negative!");
+            }
+            if (maximumStatementShapes < 0) {
+                throw new IllegalArgumentException("Maximum number of statement shapes cannot be negative!");
+            }
+            if (slowQueryListener == null) {
+                throw new IllegalArgumentException("Slow query listener is required!");
+            }
+            return new JdbcMetrics(this);
+        }
+    }
+
+    /**
+     * @return data source whose connections record metrics, closing them closes connections of given data source
+     */
+    public DataSource instrument(DataSource dataSource) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, new InstrumentedDataSource(this, dataSource));
+    }
+
+    /**
+     * Starts reporter, it is closed by {@link #close()}.
+     */
+    public synchronized void addReporter(MetricsReporter reporter) {
+        reporter.start(this);
+        reporters.add(reporter);
+    }
+
+    /**
+     * Stops all reporters.
+     */
+    public synchronized void close() {
+        for (MetricsReporter reporter : reporters) {
+            reporter.close();
+        }
+        reporters.clear();
+    }
+
+    /**
+     * @return metrics of all statement shapes, including shared entry of statements above the shape limit
+     */
+    public List<StatementMetrics> getStatementMetrics() {
+        List<StatementMetrics> result = new ArrayList<>(statements.values());
+        if (otherStatements.getExecutions() > 0 || otherStatements.getErrors() > 0) {
+            result.add(otherStatements);
+        }
+        return result;
+    }
+
+    /**
+     * @return metrics of given SQL text or null when it was not executed
+     */
+    public StatementMetrics getStatementMetrics(String sql) {
+        return statements.get(sql);
+    }
+
+    /**
+     * @return time spent in DataSource.getConnection(), for connection pool it is the pool wait time
+     */
+    public LatencyHistogram getConnectionWait() {
+        return connectionWait;
+    }
+
+    public long getConnectionErrors() {
+        return connectionErrors.sum();
+    }
+
+    public long getLobBytesWritten() {
+        return lobBytesWritten.sum();
+    }
+
+    public long getLobBytesRead() {
+        return lobBytesRead.sum();
+    }
+
+    public long getLobCharactersWritten() {
+        return lobCharactersWritten.sum();
+    }
+
+    public long getLobCharactersRead() {
+        return lobCharactersRead.sum();
+    }
+
+    public long getExecutions() {
+        long executions = otherStatements.getExecutions();
+        for (StatementMetrics metrics : statements.values()) {
+            executions += metrics.getExecutions();
+        }
+        return executions;
+    }
+
+    public long getErrors() {
+        long errors = connectionErrors.sum() + otherStatements.getErrors();
+        for (StatementMetrics metrics : statements.values()) {
+            errors += metrics.getErrors();
+        }
+        return errors;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("JdbcMetrics{statementShapes=%d, executions=%d, errors=%d, connectionWaitP50=%dus, " +
+                        "connectionWaitP99=%dus, connectionWaitMax=%dus, connectionErrors=%d, lobBytesWritten=%d, " +
+                        "lobBytesRead=%d, lobCharactersWritten=%d, lobCharactersRead=%d}",
+                statements.size(), getExecutions(), getErrors(), connectionWait.getPercentileNanos(50) / 1000,
+                connectionWait.getPercentileNanos(99) / 1000, connectionWait.getMaxNanos() / 1000,
+                getConnectionErrors(), getLobBytesWritten(), getLobBytesRead(), getLobCharactersWritten(),
+                getLobCharactersRead());
+    }
+
+    StatementMetrics statementMetrics(String sql) {
+        if (sql == null) {
+            return otherStatements;
+        }
+        StatementMetrics metrics = statements.get(sql);
+        if (metrics != null) {
+            return metrics;
+        }
+        if (statements.size() >= maximumStatementShapes) {
+            return otherStatements;
+        }
+        return statements.computeIfAbsent(sql, StatementMetrics::new);
+    }
+
+    void recordExecution(StatementMetrics metrics, String sql, long elapsedNanos) {
+        metrics.getLatency().record(elapsedNanos);
+        if (elapsedNanos >= slowQueryThresholdNanos) {
+            metrics.recordSlowExecution();
+            try {
+                slowQueryListener.onSlowQuery(sql, elapsedNanos);
+            } catch (RuntimeException e) {
+                LOGGER.error("Slow query listener failed!", e);
+            }
+        }
+    }
+
+    void recordConnectionWait(long elapsedNanos) {
+        connectionWait.record(elapsedNanos);
+    }
+
+    void recordConnectionError() {
+        connectionErrors.increment();
+    }
+
+    LongAdder lobBytesWrittenCounter() {
+        return lobBytesWritten;
+    }
+
+    LongAdder lobBytesReadCounter() {
+        return lobBytesRead;
+    }
+
+    LongAdder lobCharactersWrittenCounter() {
+        return lobCharactersWritten;
+    }
+
+    LongAdder lobCharactersReadCounter() {
+        return lobCharactersRead;
+    }
+}
@@ -0,0 +1,41 @@
+package Jdbc.metrics;
+
+/**
+ * Management interface of {@link JdbcMetrics} registered by {@link JmxMetricsReporter}.
+ * Latencies are in microseconds.
+ */
+public interface JdbcMetricsMXBean {
+
+    int getStatementShapes();
+
+    long getExecutions();
+
+    long getErrors();
+
+    long getSlowExecutions();
+
+    long getRowsReturned();
+
+    long getRowsAffected();
+
+    long getConnectionWaitP50Micros();
+
+    long getConnectionWaitP99Micros();
+
+    long getConnectionWaitMaxMicros();
+
+    long getConnectionErrors();
+
+    long getLobBytesWritten();
+
+    long getLobBytesRead();
+
+    long getLobCharactersWritten();
+
+    long getLobCharactersRead();
+
+    /**
+     * @return one line per statement shape with its executions, latency percentiles, rows and errors
+     */
+    String[] getStatements();
+}
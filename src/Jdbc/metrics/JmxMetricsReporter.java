@@ -0,0 +1,153 @@
+package Jdbc.metrics;
+
+import Jdbc.log.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Registers {@link JdbcMetricsMXBean} in the platform MBean server under "Jdbc.metrics:type=JdbcMetrics,name=...",
+ * so metrics can be watched with JConsole or any JMX client. Values are computed when they are read.
+ */
+public class JmxMetricsReporter implements MetricsReporter {
+
+    private static final Logger LOGGER = Logger.getLogger(JmxMetricsReporter.class);
+
+    private final ObjectName objectName;
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    private boolean registered;
+
+    public JmxMetricsReporter(String name) {
+        try {
+            this.objectName = new ObjectName("Jdbc.metrics:type=JdbcMetrics,name=" + ObjectName.quote(name));
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Invalid JMX name: " + name, e);
+        }
+    }
+
+    @Override
+    public synchronized void start(JdbcMetrics metrics) {
+        try {
+            server.registerMBean(new MetricsBean(metrics), objectName);
+            registered = true;
+        } catch (JMException e) {
+            throw new IllegalStateException("Problem with registering JDBC metrics in JMX!", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!registered) {
+            return;
+        }
+        registered = false;
+        try {
+            server.unregisterMBean(objectName);
+        } catch (JMException e) {
+            LOGGER.warn("Problem with unregistering JDBC metrics from JMX!", e);
+        }
+    }
+
+    private static class MetricsBean implements JdbcMetricsMXBean {
+        private final JdbcMetrics metrics;
+
+        MetricsBean(JdbcMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public int getStatementShapes() {
+            return metrics.getStatementMetrics().size();
+        }
+
+        @Override
+        public long getExecutions() {
+            return metrics.getExecutions();
+        }
+
+        @Override
+        public long getErrors() {
+            return metrics.getErrors();
+        }
+
+        @Override
+        public long getSlowExecutions() {
+            long slow = 0;
+            for (StatementMetrics statement : metrics.getStatementMetrics()) {
+                slow += statement.getSlowExecutions();
+            }
+            return slow;
+        }
+
+        @Override
+        public long getRowsReturned() {
+            long rows = 0;
+            for (StatementMetrics statement : metrics.getStatementMetrics()) {
+                rows += statement.getRowsReturned();
+            }
+            return rows;
+        }
+
+        @Override
+        public long getRowsAffected() {
+            long rows = 0;
+            for (StatementMetrics statement : metrics.getStatementMetrics()) {
+                rows += statement.getRowsAffected();
+            }
+            return rows;
+        }
+
+        @Override
+        public long getConnectionWaitP50Micros() {
+            return metrics.getConnectionWait().getPercentileNanos(50) / 1000;
+        }
+
+        @Override
+        public long getConnectionWaitP99Micros() {
+            return metrics.getConnectionWait().getPercentileNanos(99) / 1000;
+        }
+
+        @Override
+        public long getConnectionWaitMaxMicros() {
+            return metrics.getConnectionWait().getMaxNanos() / 1000;
+        }
+
+        @Override
+        public long getConnectionErrors() {
+            return metrics.getConnectionErrors();
+        }
+
+        @Override
+        public long getLobBytesWritten() {
+            return metrics.getLobBytesWritten();
+        }
+
+        @Override
+        public long getLobBytesRead() {
+            return metrics.getLobBytesRead();
+        }
+
+        @Override
+        public long getLobCharactersWritten() {
+            return metrics.getLobCharactersWritten();
+        }
+
+        @Override
+        public long getLobCharactersRead() {
+            return metrics.getLobCharactersRead();
+        }
+
+        @Override
+        public String[] getStatements() {
+            List<StatementMetrics> statements = metrics.getStatementMetrics();
+            String[] lines = new String[statements.size()];
+            for (int i = 0; i < lines.length; i++) {
+                lines[i] = statements.get(i).toString();
+            }
+            return lines;
+        }
+    }
+}
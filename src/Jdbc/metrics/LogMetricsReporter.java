@@ -0,0 +1,74 @@
+package Jdbc.metrics;
+
+import Jdbc.log.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically logs summary line of {@link JdbcMetrics} and one line for every statement shape
+ * executed since previous report.
+ */
+public class LogMetricsReporter implements MetricsReporter {
+
+    private static final Logger LOGGER = Logger.getLogger(LogMetricsReporter.class);
+
+    private final long periodMillis;
+    private ScheduledExecutorService scheduler;
+
+    public LogMetricsReporter(long periodMillis) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Reporting period has to be positive!");
+        }
+        this.periodMillis = periodMillis;
+    }
+
+    @Override
+    public synchronized void start(JdbcMetrics metrics) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Reporter is already started!");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jdbc-metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Report report = new Report(metrics);
+        scheduler.scheduleAtFixedRate(report::print, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private class Report {
+        private final JdbcMetrics metrics;
+        private final Map<StatementMetrics, Long> reportedExecutions = new HashMap<>();
+
+        Report(JdbcMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        void print() {
+            try {
+                LOGGER.info("{}", metrics);
+                for (StatementMetrics statement : metrics.getStatementMetrics()) {
+                    long executions = statement.getExecutions() + statement.getErrors();
+                    Long reported = reportedExecutions.put(statement, executions);
+                    if (reported == null || reported != executions) {
+                        LOGGER.info("  {}", statement);
+                    }
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error("Problem with reporting JDBC metrics!", e);
+            }
+        }
+    }
+}
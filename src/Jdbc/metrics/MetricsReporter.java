@@ -0,0 +1,12 @@
+package Jdbc.metrics;
+
+/**
+ * Exports metrics of {@link JdbcMetrics}, see {@link JdbcMetrics#addReporter(MetricsReporter)}.
+ */
+public interface MetricsReporter extends AutoCloseable {
+
+    void start(JdbcMetrics metrics);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,30 @@
+package Jdbc.metrics;
+
+import Jdbc.log.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives statements whose execution took longer than the slow query threshold of {@link JdbcMetrics}.
+ * It is called by the thread which executed the statement, so it should return quickly.
+ */
+@FunctionalInterface
+public interface SlowQueryListener {
+
+    /**
+     * Logs slow statements on WARN level.
+     */
+    SlowQueryListener LOGGING = new SlowQueryListener() {
+        private final Logger logger = Logger.getLogger(SlowQueryListener.class);
+
+        @Override
+        public void onSlowQuery(String sql, long elapsedNanos) {
+            logger.warn("Slow query ({} ms): {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), sql);
+        }
+    };
+
+    /**
+     * @param sql SQL text of the statement, null for batch of plain statements
+     */
+    void onSlowQuery(String sql, long elapsedNanos);
+}
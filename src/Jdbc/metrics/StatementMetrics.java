@@ -0,0 +1,78 @@
+package Jdbc.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of one statement shape, i.e. one SQL text with ? placeholders.
+ */
+public class StatementMetrics {
+
+    private final String sql;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rowsReturned = new LongAdder();
+    private final LongAdder rowsAffected = new LongAdder();
+    private final LongAdder slowExecutions = new LongAdder();
+
+    StatementMetrics(String sql) {
+        this.sql = sql;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return time of statement executions, for queries without reading of the result set
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getExecutions() {
+        return latency.getCount();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getRowsReturned() {
+        return rowsReturned.sum();
+    }
+
+    public long getRowsAffected() {
+        return rowsAffected.sum();
+    }
+
+    public long getSlowExecutions() {
+        return slowExecutions.sum();
+    }
+
+    void recordError() {
+        errors.increment();
+    }
+
+    void recordRowReturned() {
+        rowsReturned.increment();
+    }
+
+    void recordRowsAffected(long rows) {
+        if (rows > 0) {
+            rowsAffected.add(rows);
+        }
+    }
+
+    void recordSlowExecution() {
+        slowExecutions.increment();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("executions=%d p50=%dus p99=%dus max=%dus rowsReturned=%d rowsAffected=%d " +
+                        "errors=%d slow=%d sql=%s",
+                getExecutions(), latency.getPercentileNanos(50) / 1000, latency.getPercentileNanos(99) / 1000,
+                latency.getMaxNanos() / 1000, getRowsReturned(), getRowsAffected(), getErrors(),
+                getSlowExecutions(), sql);
+    }
+}
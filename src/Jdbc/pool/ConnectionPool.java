@@ -0,0 +1,248 @@
+package Jdbc.pool;
+
+import Jdbc.JdbcUtils;
+import Jdbc.log.Logger;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pooled DataSource. Connection returned by {@link #getConnection()} goes back to the pool when it is closed,
+ * so it should be used in try-with-resources block and never kept longer than one operation.
+ *
+ * Checkout and return do not take any lock: idle connections are kept in a lock-free deque (most recently
+ * returned connection is reused first) and the maximum size is guarded by a semaphore.
+ *
+ * Every pooled connection keeps its own LRU cache of prepared and callable statements (see
+ * pool.statementCacheSize), so closing statement prepared on pooled connection keeps it ready for the next call
+ * with the same SQL. Cached statements are closed together with the physical connection.
+ */
+public class ConnectionPool extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class);
+    private static final long VALIDATION_BYPASS_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+    private static final long MAX_HOUSEKEEPING_PERIOD_MILLIS = 30_000;
+
+    private final PoolConfiguration configuration;
+    private final Deque<PooledConnection> idleConnections = new ConcurrentLinkedDeque<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicInteger borrowedCount = new AtomicInteger();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder destroyedCount = new LongAdder();
+    private final LongAdder creationNanos = new LongAdder();
+    private final AtomicLong maxCreationNanos = new AtomicLong();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final LongAdder statementCacheEvictions = new LongAdder();
+
+    private volatile boolean closed;
+
+    public ConnectionPool(PoolConfiguration configuration) {
+        this.configuration = configuration;
+        this.permits = new Semaphore(configuration.getMaximumSize());
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long period = MAX_HOUSEKEEPING_PERIOD_MILLIS;
+        if (configuration.getIdleTimeoutMillis() > 0) {
+            period = Math.max(1, Math.min(period, configuration.getIdleTimeoutMillis() / 2));
+        }
+        housekeeper.scheduleWithFixedDelay(this::housekeeping, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed!");
+        }
+
+        acquirePermit();
+        try {
+            PooledConnection pooledConnection;
+            while ((pooledConnection = idleConnections.pollFirst()) != null) {
+                idleCount.decrementAndGet();
+                if (isUsable(pooledConnection)) {
+                    return checkout(pooledConnection);
+                }
+                destroy(pooledConnection);
+            }
+            return checkout(createConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return snapshot of pool counters
+     */
+    public PoolStatistics getStatistics() {
+        long created = createdCount.sum();
+        return new PoolStatistics(borrowedCount.get(), idleCount.get(), waitingCount.get(),
+                created, destroyedCount.sum(),
+                created == 0 ? 0 : creationNanos.sum() / created, maxCreationNanos.get(),
+                statementCacheHits.sum(), statementCacheMisses.sum(), statementCacheEvictions.sum());
+    }
+
+    public PoolConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Closes all idle connections. Borrowed connections are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooledConnection;
+        while ((pooledConnection = idleConnections.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            destroy(pooledConnection);
+        }
+    }
+
+    void release(PooledConnection pooledConnection) {
+        borrowedCount.decrementAndGet();
+        if (!closed && !isExpired(pooledConnection) && pooledConnection.reset()) {
+            idleConnections.offerFirst(pooledConnection);
+            idleCount.incrementAndGet();
+        } else {
+            destroy(pooledConnection);
+        }
+        permits.release();
+    }
+
+    private void acquirePermit() throws SQLException {
+        waitingCount.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(configuration.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException(String.format(
+                        "Cannot get connection from the pool within %d ms!", configuration.getAcquireTimeoutMillis()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for connection from the pool!", e);
+        } finally {
+            waitingCount.decrementAndGet();
+        }
+    }
+
+    private Connection checkout(PooledConnection pooledConnection) {
+        borrowedCount.incrementAndGet();
+        return pooledConnection.borrow();
+    }
+
+    private PooledConnection createConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = DriverManager.getConnection(configuration.getUrl(),
+                configuration.getUser(), configuration.getPassword());
+        long elapsed = System.nanoTime() - start;
+
+        createdCount.increment();
+        creationNanos.add(elapsed);
+        maxCreationNanos.accumulateAndGet(elapsed, Math::max);
+
+        StatementCache statementCache = null;
+        if (configuration.getStatementCacheSize() > 0) {
+            statementCache = new StatementCache(connection, configuration.getStatementCacheSize(),
+                    statementCacheHits, statementCacheMisses, statementCacheEvictions);
+        }
+        try {
+            return new PooledConnection(this, connection, statementCache);
+        } catch (SQLException e) {
+            destroyedCount.increment();
+            JdbcUtils.close(connection);
+            throw e;
+        }
+    }
+
+    private boolean isUsable(PooledConnection pooledConnection) {
+        if (isExpired(pooledConnection)) {
+            return false;
+        }
+        if (System.nanoTime() - pooledConnection.getLastReturnedNanos() < VALIDATION_BYPASS_NANOS) {
+            return true;
+        }
+
+        Connection connection = pooledConnection.getPhysicalConnection();
+        String validationQuery = configuration.getValidationQuery();
+        try {
+            if (validationQuery == null) {
+                return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(VALIDATION_TIMEOUT_SECONDS);
+                statement.execute(validationQuery);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isExpired(PooledConnection pooledConnection) {
+        long maxLifetime = configuration.getMaxLifetimeMillis();
+        return maxLifetime > 0 &&
+                System.nanoTime() - pooledConnection.getCreatedAtNanos() > TimeUnit.MILLISECONDS.toNanos(maxLifetime);
+    }
+
+    private boolean isIdleTooLong(PooledConnection pooledConnection) {
+        long idleTimeout = configuration.getIdleTimeoutMillis();
+        return idleTimeout > 0 &&
+                System.nanoTime() - pooledConnection.getLastReturnedNanos() > TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+    }
+
+    private void destroy(PooledConnection pooledConnection) {
+        destroyedCount.increment();
+        pooledConnection.closePhysically();
+    }
+
+    private void housekeeping() {
+        try {
+            for (PooledConnection pooledConnection : idleConnections) {
+                boolean aboveMinimum = idleCount.get() + borrowedCount.get() > configuration.getMinimumSize();
+                if ((isExpired(pooledConnection) || (aboveMinimum && isIdleTooLong(pooledConnection)))
+                        && idleConnections.remove(pooledConnection)) {
+                    idleCount.decrementAndGet();
+                    destroy(pooledConnection);
+                }
+            }
+            fillToMinimumSize();
+        } catch (Exception e) {
+            LOGGER.error("Problem with connection pool housekeeping!", e);
+        }
+    }
+
+    private void fillToMinimumSize() throws SQLException {
+        while (!closed && idleCount.get() + borrowedCount.get() < configuration.getMinimumSize()
+                && permits.tryAcquire()) {
+            try {
+                idleConnections.offerLast(createConnection());
+                idleCount.incrementAndGet();
+            } finally {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package Jdbc.pool;
+
+import java.util.Properties;
+
+/**
+ * Immutable settings of {@link ConnectionPool}. Instances are created with {@link ConfigurationBuilder}
+ * or read from a property file by {@link #fromProperties(Properties)}.
+ */
+public class PoolConfiguration {
+
+    static final String MINIMUM_SIZE = "pool.minimumSize";
+    static final String MAXIMUM_SIZE = "pool.maximumSize";
+    static final String IDLE_TIMEOUT = "pool.idleTimeoutMillis";
+    static final String MAX_LIFETIME = "pool.maxLifetimeMillis";
+    static final String VALIDATION_QUERY = "pool.validationQuery";
+    static final String ACQUIRE_TIMEOUT = "pool.acquireTimeoutMillis";
+    static final String STATEMENT_CACHE_SIZE = "pool.statementCacheSize";
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minimumSize;
+    private final int maximumSize;
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+    private final String validationQuery;
+    private final long acquireTimeoutMillis;
+    private final int statementCacheSize;
+
+    private PoolConfiguration(ConfigurationBuilder builder) {
+        this.url = builder.url;
+        this.user = builder.user;
+        this.password = builder.password;
+        this.minimumSize = builder.minimumSize;
+        this.maximumSize = builder.maximumSize;
+        this.idleTimeoutMillis = builder.idleTimeoutMillis;
+        this.maxLifetimeMillis = builder.maxLifetimeMillis;
+        this.validationQuery = builder.validationQuery;
+        this.acquireTimeoutMillis = builder.acquireTimeoutMillis;
+        this.statementCacheSize = builder.statementCacheSize;
+    }
+
+    /**
+     * Reads pool configuration from properties. Connection keys are the same as for
+     * {@link Jdbc.JdbcConnection#openDatabaseConnectionFromProperties(String)}: user, password, url.
+     * Pool keys are optional, missing ones keep builder defaults:
+     * pool.minimumSize, pool.maximumSize, pool.idleTimeoutMillis, pool.maxLifetimeMillis,
+     * pool.validationQuery, pool.acquireTimeoutMillis, pool.statementCacheSize
+     * @param properties loaded database properties
+     * @return PoolConfiguration object
+     */
+    public static PoolConfiguration fromProperties(Properties properties) {
+        ConfigurationBuilder builder = new ConfigurationBuilder()
+                .addUrl(properties.getProperty("url"))
+                .addUser(properties.getProperty("user"))
+                .addPassword(properties.getProperty("password"));
+
+        String value;
+        if ((value = properties.getProperty(MINIMUM_SIZE)) != null) {
+            builder.addMinimumSize(Integer.parseInt(value.trim()));
+        }
+        if ((value = properties.getProperty(MAXIMUM_SIZE)) != null) {
+            builder.addMaximumSize(Integer.parseInt(value.trim()));
+        }
+        if ((value = properties.getProperty(IDLE_TIMEOUT)) != null) {
+            builder.addIdleTimeoutMillis(Long.parseLong(value.trim()));
+        }
+        if ((value = properties.getProperty(MAX_LIFETIME)) != null) {
+            builder.addMaxLifetimeMillis(Long.parseLong(value.trim()));
+        }
+        if ((value = properties.getProperty(VALIDATION_QUERY)) != null) {
+            builder.addValidationQuery(value.trim());
+        }
+        if ((value = properties.getProperty(ACQUIRE_TIMEOUT)) != null) {
+            builder.addAcquireTimeoutMillis(Long.parseLong(value.trim()));
+        }
+        if ((value = properties.getProperty(STATEMENT_CACHE_SIZE)) != null) {
+            builder.addStatementCacheSize(Integer.parseInt(value.trim()));
+        }
+        return builder.build();
+    }
+
+    public static class ConfigurationBuilder {
+        private String url;
+        private String user;
+        private String password;
+        private int minimumSize = 2;
+        private int maximumSize = 10;
+        private long idleTimeoutMillis = 600_000;
+        private long maxLifetimeMillis = 1_800_000;
+        private String validationQuery;
+        private long acquireTimeoutMillis = 30_000;
+        private int statementCacheSize = 64;
+
+        public ConfigurationBuilder addUrl(String url) {
+            this.url = url;
+            return this;
+        }
+
+        public ConfigurationBuilder addUser(String user) {
+            this.user = user;
+            return this;
+        }
+
+        public ConfigurationBuilder addPassword(String password) {
+            this.password = password;
+            return this;
+        }
+
+        public ConfigurationBuilder addMinimumSize(int minimumSize) {
+            this.minimumSize = minimumSize;
+            return this;
+        }
+
+        public ConfigurationBuilder addMaximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * @param idleTimeoutMillis time after which connection above minimum size is removed from idle pool,
+         *                          0 means that idle connections are never removed
+         */
+        public ConfigurationBuilder addIdleTimeoutMillis(long idleTimeoutMillis) {
+            this.idleTimeoutMillis = idleTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * @param maxLifetimeMillis time after which connection is retired, 0 means infinite lifetime
+         */
+        public ConfigurationBuilder addMaxLifetimeMillis(long maxLifetimeMillis) {
+            this.maxLifetimeMillis = maxLifetimeMillis;
+            return this;
+        }
+
+        /**
+         * @param validationQuery query executed before handing out connection which was idle for a while,
+         *                        when null {@link java.sql.Connection#isValid(int)} is used instead
+         */
+        public ConfigurationBuilder addValidationQuery(String validationQuery) {
+            this.validationQuery = validationQuery;
+            return this;
+        }
+
+        public ConfigurationBuilder addAcquireTimeoutMillis(long acquireTimeoutMillis) {
+            this.acquireTimeoutMillis = acquireTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * @param statementCacheSize number of prepared and callable statements cached for every connection,
+         *                           0 disables the cache
+         */
+        public ConfigurationBuilder addStatementCacheSize(int statementCacheSize) {
+            this.statementCacheSize = statementCacheSize;
+            return this;
+        }
+
+        public PoolConfiguration build() {
+            if (url == null) {
+                throw new IllegalArgumentException("Database url is required!");
+            }
+            if (maximumSize < 1 || minimumSize < 0 || minimumSize > maximumSize) {
+                throw new IllegalArgumentException(String.format(
+                        "Invalid pool size, minimum: %d, maximum: %d", minimumSize, maximumSize));
+            }
+            if (idleTimeoutMillis < 0 || maxLifetimeMillis < 0 || acquireTimeoutMillis < 0) {
+                throw new IllegalArgumentException("Pool timeouts cannot be negative!");
+            }
+            if (statementCacheSize < 0) {
+                throw new IllegalArgumentException("Statement cache size cannot be negative!");
+            }
+            return new PoolConfiguration(this);
+        }
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public int getMinimumSize() {
+        return minimumSize;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public long getMaxLifetimeMillis() {
+        return maxLifetimeMillis;
+    }
+
+    public String getValidationQuery() {
+        return validationQuery;
+    }
+
+    public long getAcquireTimeoutMillis() {
+        return acquireTimeoutMillis;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+}
@@ -0,0 +1,89 @@
+package Jdbc.pool;
+
+/**
+ * Point in time snapshot of {@link ConnectionPool} counters.
+ */
+public class PoolStatistics {
+
+    private final int borrowed;
+    private final int idle;
+    private final int waiting;
+    private final long created;
+    private final long destroyed;
+    private final long averageCreationNanos;
+    private final long maxCreationNanos;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final long statementCacheEvictions;
+
+    PoolStatistics(int borrowed, int idle, int waiting, long created, long destroyed,
+                   long averageCreationNanos, long maxCreationNanos,
+                   long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+        this.borrowed = borrowed;
+        this.idle = idle;
+        this.waiting = waiting;
+        this.created = created;
+        this.destroyed = destroyed;
+        this.averageCreationNanos = averageCreationNanos;
+        this.maxCreationNanos = maxCreationNanos;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+        this.statementCacheEvictions = statementCacheEvictions;
+    }
+
+    public int getBorrowed() {
+        return borrowed;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getWaiting() {
+        return waiting;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getDestroyed() {
+        return destroyed;
+    }
+
+    public long getAverageCreationNanos() {
+        return averageCreationNanos;
+    }
+
+    public long getMaxCreationNanos() {
+        return maxCreationNanos;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    public long getStatementCacheEvictions() {
+        return statementCacheEvictions;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStatistics{" +
+                "borrowed=" + borrowed +
+                ", idle=" + idle +
+                ", waiting=" + waiting +
+                ", created=" + created +
+                ", destroyed=" + destroyed +
+                ", averageCreationNanos=" + averageCreationNanos +
+                ", maxCreationNanos=" + maxCreationNanos +
+                ", statementCacheHits=" + statementCacheHits +
+                ", statementCacheMisses=" + statementCacheMisses +
+                ", statementCacheEvictions=" + statementCacheEvictions +
+                '}';
+    }
+}
@@ -0,0 +1,327 @@
+package Jdbc.pool;
+
+import Jdbc.log.Logger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/*
+ * Physical connection owned by the ConnectionPool. Every checkout gets its own proxy, so a stale reference
+ * to already returned connection cannot be used to run statements on connection borrowed by another thread.
+ *
+ * Statements which do not come from the statement cache are wrapped as well, their getConnection() returns
+ * the checkout proxy, and those left open by the borrower are closed when the connection goes back to the pool.
+ * Unwrapping the connection to the driver's own interface hands out the physical connection, which the pool
+ * cannot watch anymore, so such connection is closed on return instead of being reused.
+ *
+ * Session settings changed by the borrower (isolation level, read-only flag, catalog, schema, holdability,
+ * network timeout) are set back to the values the connection was opened with, connection whose settings
+ * cannot be restored is not reused.
+ */
+class PooledConnection {
+
+    private static final Logger LOGGER = Logger.getLogger(PooledConnection.class);
+    private static final String CONNECTION_EXCEPTION_CLASS = "08";
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+    private final ConnectionPool pool;
+    private final Connection physicalConnection;
+    private final StatementCache statementCache;
+    private final long createdAtNanos;
+    private final int initialIsolation;
+    private final boolean initialReadOnly;
+    private final String initialCatalog;
+    private final String initialSchema;
+    private final int initialHoldability;
+    private final int initialNetworkTimeout;
+    private final Set<Statement> openStatements = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<String> changedSettings = new HashSet<>();
+    private volatile long lastReturnedNanos;
+    private volatile boolean broken;
+
+    PooledConnection(ConnectionPool pool, Connection physicalConnection, StatementCache statementCache)
+            throws SQLException {
+        this.pool = pool;
+        this.physicalConnection = physicalConnection;
+        this.statementCache = statementCache;
+        this.initialIsolation = physicalConnection.getTransactionIsolation();
+        this.initialReadOnly = physicalConnection.isReadOnly();
+        this.initialCatalog = physicalConnection.getCatalog();
+        this.initialSchema = physicalConnection.getSchema();
+        this.initialHoldability = physicalConnection.getHoldability();
+        this.initialNetworkTimeout = physicalConnection.getNetworkTimeout();
+        this.createdAtNanos = System.nanoTime();
+        this.lastReturnedNanos = createdAtNanos;
+    }
+
+    Connection borrow() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new CheckoutHandler());
+    }
+
+    /**
+     * Brings physical connection back to default state before it goes to the idle pool.
+     * @return false if connection cannot be reused
+     */
+    boolean reset() {
+        if (broken) {
+            return false;
+        }
+        try {
+            closeOpenStatements();
+            if (statementCache != null) {
+                statementCache.releaseAll();
+            }
+            if (!physicalConnection.getAutoCommit()) {
+                physicalConnection.rollback();
+                physicalConnection.setAutoCommit(true);
+            }
+            if (!changedSettings.isEmpty()) {
+                restoreSettings();
+            }
+            physicalConnection.clearWarnings();
+            lastReturnedNanos = System.nanoTime();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    Connection getPhysicalConnection() {
+        return physicalConnection;
+    }
+
+    long getCreatedAtNanos() {
+        return createdAtNanos;
+    }
+
+    long getLastReturnedNanos() {
+        return lastReturnedNanos;
+    }
+
+    void closePhysically() {
+        try {
+            closeOpenStatements();
+            if (statementCache != null) {
+                statementCache.closeAll();
+            }
+            physicalConnection.close();
+        } catch (SQLException e) {
+            LOGGER.warn("Problem with closing pooled connection!", e);
+        }
+    }
+
+    private void restoreSettings() throws SQLException {
+        if (changedSettings.contains("setTransactionIsolation")) {
+            physicalConnection.setTransactionIsolation(initialIsolation);
+        }
+        if (changedSettings.contains("setReadOnly")) {
+            physicalConnection.setReadOnly(initialReadOnly);
+        }
+        if (changedSettings.contains("setCatalog")) {
+            physicalConnection.setCatalog(initialCatalog);
+        }
+        if (changedSettings.contains("setSchema")) {
+            physicalConnection.setSchema(initialSchema);
+        }
+        if (changedSettings.contains("setHoldability")) {
+            physicalConnection.setHoldability(initialHoldability);
+        }
+        if (changedSettings.contains("setNetworkTimeout")) {
+            physicalConnection.setNetworkTimeout(DIRECT_EXECUTOR, initialNetworkTimeout);
+        }
+        changedSettings.clear();
+    }
+
+    /*
+     * Closes statements not closed by the borrower, the first failure is thrown after all of them are closed.
+     */
+    private void closeOpenStatements() throws SQLException {
+        List<Statement> statements = new ArrayList<>(openStatements);
+        openStatements.clear();
+        SQLException failure = null;
+        for (Statement statement : statements) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private class CheckoutHandler implements InvocationHandler {
+
+        private boolean closed;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        pool.release(PooledConnection.this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physicalConnection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + physicalConnection;
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Connection is already returned to the pool!");
+            }
+
+            try {
+                switch (method.getName()) {
+                    case "createStatement":
+                    case "prepareStatement":
+                    case "prepareCall":
+                        return prepare((Connection) proxy, method, args);
+                    case "unwrap":
+                        if (((Class<?>) args[0]).isInstance(proxy)) {
+                            return proxy;
+                        }
+                        broken = true;
+                        break;
+                    case "isWrapperFor":
+                        if (((Class<?>) args[0]).isInstance(proxy)) {
+                            return true;
+                        }
+                        break;
+                    case "setTransactionIsolation":
+                    case "setReadOnly":
+                    case "setCatalog":
+                    case "setSchema":
+                    case "setHoldability":
+                    case "setNetworkTimeout":
+                        changedSettings.add(method.getName());
+                        break;
+                    default:
+                        break;
+                }
+                return method.invoke(physicalConnection, args);
+            } catch (InvocationTargetException e) {
+                throw markIfBroken(e.getCause());
+            } catch (SQLException e) {
+                throw markIfBroken(e);
+            }
+        }
+
+        private Throwable markIfBroken(Throwable cause) {
+            if (cause instanceof SQLRecoverableException) {
+                broken = true;
+            } else if (cause instanceof SQLException) {
+                String sqlState = ((SQLException) cause).getSQLState();
+                if (sqlState != null && sqlState.startsWith(CONNECTION_EXCEPTION_CLASS)) {
+                    broken = true;
+                }
+            }
+            return cause;
+        }
+
+        private boolean isCacheable(Method method) {
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return parameterTypes.length == 1 ||
+                            (parameterTypes.length == 2 && parameterTypes[1] == int.class);
+                case "prepareCall":
+                    return parameterTypes.length == 1;
+                default:
+                    return false;
+            }
+        }
+
+        private Object prepare(Connection owner, Method method, Object[] args) throws Throwable {
+            if (statementCache != null && isCacheable(method)) {
+                Statement cachedStatement = prepareCached(owner, method, args);
+                if (cachedStatement != null) {
+                    return cachedStatement;
+                }
+            }
+            Statement statement = (Statement) method.invoke(physicalConnection, args);
+            openStatements.add(statement);
+            return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                    new Class<?>[]{method.getReturnType()}, new StatementHandler(owner, statement));
+        }
+
+        /*
+         * Returns null when statement with the same SQL is already in use.
+         */
+        private Statement prepareCached(Connection owner, Method method, Object[] args) throws SQLException {
+            String sql = (String) args[0];
+            if (method.getName().equals("prepareCall")) {
+                return statementCache.prepareCall(owner, sql);
+            }
+            int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+            return statementCache.prepareStatement(owner, sql, autoGeneratedKeys);
+        }
+    }
+
+    /*
+     * Statement prepared outside of the statement cache. Closing it removes it from statements closed on return.
+     */
+    private class StatementHandler implements InvocationHandler {
+
+        private final Connection owner;
+        private final Statement statement;
+
+        StatementHandler(Connection owner, Statement statement) {
+            this.owner = owner;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    openStatements.remove(statement);
+                    statement.close();
+                    return null;
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + statement;
+                default:
+                    break;
+            }
+
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package Jdbc.pool;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+
+/**
+ * DataSource which always hands out the same connection. Closing connection taken from this data source
+ * does nothing, so the caller keeps full control over the connection (e.g. over transaction boundaries).
+ */
+public class SingleConnectionDataSource extends AbstractDataSource {
+
+    private final Connection connection;
+    private final Connection closeSuppressingConnection;
+
+    public SingleConnectionDataSource(Connection connection) {
+        this.connection = connection;
+        this.closeSuppressingConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @Override
+    public Connection getConnection() {
+        return closeSuppressingConnection;
+    }
+
+    public Connection getTargetConnection() {
+        return connection;
+    }
+}
@@ -0,0 +1,276 @@
+package Jdbc.pool;
+
+import Jdbc.log.Logger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * LRU cache of prepared and callable statements of one physical connection. The cache is used only by the
+ * thread which currently borrows the connection, so it is not synchronized.
+ *
+ * Closing statement taken from the cache clears its parameters and puts it back to the cache. When the same
+ * SQL is prepared again while cached statement is still open, null is returned and the connection prepares
+ * uncached statement itself.
+ *
+ * Settings changed by the borrower (fetch size, max rows, query timeout, fetch direction, max field size)
+ * are set back to the values the statement was prepared with, so they do not leak to the next borrower.
+ * Statement whose settings cannot be read back (escape processing, cursor name, close on completion)
+ * is closed instead of being cached again.
+ */
+class StatementCache {
+
+    private static final Logger LOGGER = Logger.getLogger(StatementCache.class);
+    private static final int CALL = -1;
+    private static final Set<String> RESTORABLE_SETTERS = Set.of("setFetchSize", "setMaxRows", "setLargeMaxRows",
+            "setQueryTimeout", "setFetchDirection", "setMaxFieldSize");
+    private static final Set<String> UNRESTORABLE_SETTERS = Set.of("setEscapeProcessing", "setCursorName",
+            "closeOnCompletion");
+
+    private final Connection physicalConnection;
+    private final int maximumSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final LinkedHashMap<StatementKey, CachedStatement> statements;
+
+    StatementCache(Connection physicalConnection, int maximumSize,
+                   LongAdder hits, LongAdder misses, LongAdder evictions) {
+        this.physicalConnection = physicalConnection;
+        this.maximumSize = maximumSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    PreparedStatement prepareStatement(Connection owner, String sql, int autoGeneratedKeys) throws SQLException {
+        return (PreparedStatement) checkout(owner, new StatementKey(sql, autoGeneratedKeys));
+    }
+
+    CallableStatement prepareCall(Connection owner, String sql) throws SQLException {
+        return (CallableStatement) checkout(owner, new StatementKey(sql, CALL));
+    }
+
+    /**
+     * Takes back statements which were not closed by the caller. Called when connection goes back to the pool,
+     * proxies handed out before are not usable anymore.
+     */
+    void releaseAll() {
+        Iterator<CachedStatement> iterator = statements.values().iterator();
+        while (iterator.hasNext()) {
+            CachedStatement cachedStatement = iterator.next();
+            if (cachedStatement.inUse && !cachedStatement.reset()) {
+                iterator.remove();
+                cachedStatement.closePhysically();
+            }
+        }
+    }
+
+    void closeAll() {
+        for (CachedStatement cachedStatement : statements.values()) {
+            cachedStatement.closePhysically();
+        }
+        statements.clear();
+    }
+
+    private Statement checkout(Connection owner, StatementKey key) throws SQLException {
+        CachedStatement cachedStatement = statements.get(key);
+        if (cachedStatement != null && !cachedStatement.inUse) {
+            hits.increment();
+            return cachedStatement.checkout(owner);
+        }
+
+        misses.increment();
+        if (cachedStatement != null) {
+            return null;
+        }
+        PreparedStatement statement = key.prepare(physicalConnection);
+
+        try {
+            cachedStatement = new CachedStatement(key, statement);
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+        statements.put(key, cachedStatement);
+        evictOverflow();
+        return cachedStatement.checkout(owner);
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedStatement> iterator = statements.values().iterator();
+        while (statements.size() > maximumSize && iterator.hasNext()) {
+            CachedStatement eldest = iterator.next();
+            if (!eldest.inUse) {
+                iterator.remove();
+                eldest.closePhysically();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static class StatementKey {
+        private final String sql;
+        private final int mode;
+
+        StatementKey(String sql, int mode) {
+            this.sql = sql;
+            this.mode = mode;
+        }
+
+        PreparedStatement prepare(Connection connection) throws SQLException {
+            if (mode == CALL) {
+                return connection.prepareCall(sql);
+            }
+            return connection.prepareStatement(sql, mode);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof StatementKey)) return false;
+            StatementKey that = (StatementKey) o;
+            return mode == that.mode && sql.equals(that.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, mode);
+        }
+    }
+
+    private class CachedStatement {
+        private final StatementKey key;
+        private final PreparedStatement statement;
+        private final int defaultFetchSize;
+        private final int defaultMaxRows;
+        private final int defaultQueryTimeout;
+        private final int defaultFetchDirection;
+        private final int defaultMaxFieldSize;
+        private boolean inUse;
+        private int generation;
+        private boolean settingsChanged;
+        private boolean settingsUnrestorable;
+
+        CachedStatement(StatementKey key, PreparedStatement statement) throws SQLException {
+            this.key = key;
+            this.statement = statement;
+            this.defaultFetchSize = statement.getFetchSize();
+            this.defaultMaxRows = statement.getMaxRows();
+            this.defaultQueryTimeout = statement.getQueryTimeout();
+            this.defaultFetchDirection = statement.getFetchDirection();
+            this.defaultMaxFieldSize = statement.getMaxFieldSize();
+        }
+
+        Statement checkout(Connection owner) {
+            inUse = true;
+            Class<?> type = key.mode == CALL ? CallableStatement.class : PreparedStatement.class;
+            return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                    new Class<?>[]{type}, new CheckoutHandler(owner, generation));
+        }
+
+        boolean reset() {
+            generation++;
+            inUse = false;
+            try {
+                ResultSet resultSet = statement.getResultSet();
+                if (resultSet != null) {
+                    resultSet.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+                if (settingsUnrestorable) {
+                    return false;
+                }
+                if (settingsChanged) {
+                    restoreSettings();
+                }
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private void restoreSettings() throws SQLException {
+            statement.setFetchSize(defaultFetchSize);
+            statement.setMaxRows(defaultMaxRows);
+            statement.setQueryTimeout(defaultQueryTimeout);
+            statement.setFetchDirection(defaultFetchDirection);
+            statement.setMaxFieldSize(defaultMaxFieldSize);
+            settingsChanged = false;
+        }
+
+        void closePhysically() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                LOGGER.warn("Problem with closing cached statement!", e);
+            }
+        }
+
+        private class CheckoutHandler implements InvocationHandler {
+            private final Connection owner;
+            private final int checkoutGeneration;
+
+            CheckoutHandler(Connection owner, int checkoutGeneration) {
+                this.owner = owner;
+                this.checkoutGeneration = checkoutGeneration;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                boolean closed = checkoutGeneration != generation;
+                switch (method.getName()) {
+                    case "close":
+                        if (!closed && !reset()) {
+                            statements.remove(key);
+                            closePhysically();
+                        }
+                        return null;
+                    case "isClosed":
+                        return closed || statement.isClosed();
+                    case "getConnection":
+                        return owner;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "Cached" + statement;
+                    default:
+                        break;
+                }
+
+                if (closed) {
+                    throw new SQLException("Statement is already closed!");
+                }
+                if (RESTORABLE_SETTERS.contains(method.getName())) {
+                    settingsChanged = true;
+                } else if (UNRESTORABLE_SETTERS.contains(method.getName())) {
+                    settingsUnrestorable = true;
+                }
+
+                try {
+                    return method.invoke(statement, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package Jdbc.procedure;
+
+import java.sql.DatabaseMetaData;
+
+/**
+ * Direction of stored procedure parameter, as reported in COLUMN_TYPE of
+ * {@link DatabaseMetaData#getProcedureColumns(String, String, String, String)}.
+ */
+public enum ParameterMode {
+    IN, INOUT, OUT;
+
+    /**
+     * @return mode of given COLUMN_TYPE, null for return value and result set columns
+     */
+    static ParameterMode fromColumnType(int columnType) {
+        switch (columnType) {
+            case DatabaseMetaData.procedureColumnIn:
+                return IN;
+            case DatabaseMetaData.procedureColumnInOut:
+                return INOUT;
+            case DatabaseMetaData.procedureColumnOut:
+                return OUT;
+            default:
+                return null;
+        }
+    }
+
+    public boolean isInput() {
+        return this != OUT;
+    }
+
+    public boolean isOutput() {
+        return this != IN;
+    }
+}
@@ -0,0 +1,266 @@
+package Jdbc.procedure;
+
+import Jdbc.JdbcUtils;
+import Jdbc.annotation.InOutParametersProcedure;
+import Jdbc.annotation.InParametersProcedure;
+import Jdbc.annotation.OutParametersProcedure;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Call plan of one interface method, compiled once from the procedure signature: call SQL, binder of every
+ * input parameter chosen by the Java type of method argument, registration of output parameters
+ * and reader of the method result. Executing the plan does not use reflection nor metadata.
+ */
+class ProcedureCall {
+
+    private final String sql;
+    private final ParameterBinder[] binders;
+    private final int[] outputIndexes;
+    private final int[] outputSqlTypes;
+    private final ResultReader resultReader;
+
+    private ProcedureCall(String sql, ParameterBinder[] binders, int[] outputIndexes, int[] outputSqlTypes,
+                          ResultReader resultReader) {
+        this.sql = sql;
+        this.binders = binders;
+        this.outputIndexes = outputIndexes;
+        this.outputSqlTypes = outputSqlTypes;
+        this.resultReader = resultReader;
+    }
+
+    Object execute(Connection connection, Object[] args) throws SQLException {
+        CallableStatement callableStatement = connection.prepareCall(sql);
+        try {
+            for (int i = 0; i < binders.length; i++) {
+                binders[i].bind(callableStatement, args[i]);
+            }
+            for (int i = 0; i < outputIndexes.length; i++) {
+                callableStatement.registerOutParameter(outputIndexes[i], outputSqlTypes[i]);
+            }
+            callableStatement.execute();
+            return resultReader.read(callableStatement);
+        } finally {
+            JdbcUtils.close(callableStatement);
+        }
+    }
+
+    static String procedureName(Method method) {
+        InParametersProcedure in = method.getAnnotation(InParametersProcedure.class);
+        if (in != null) {
+            return in.value();
+        }
+        OutParametersProcedure out = method.getAnnotation(OutParametersProcedure.class);
+        if (out != null) {
+            return out.value();
+        }
+        InOutParametersProcedure inOut = method.getAnnotation(InOutParametersProcedure.class);
+        return inOut != null ? inOut.value() : null;
+    }
+
+    static ProcedureCall compile(Method method, ProcedureSignature signature, Map<Class<?>, RowMapper<?>> rowMappers)
+            throws SQLException {
+        checkDeclaredMode(method, signature);
+
+        Class<?>[] argumentTypes = method.getParameterTypes();
+        List<ProcedureParameter> parameters = signature.getParameters();
+        int inputs = 0;
+        for (ProcedureParameter parameter : parameters) {
+            if (parameter.getMode().isInput()) {
+                inputs++;
+            }
+        }
+        if (inputs != argumentTypes.length) {
+            throw new SQLException(String.format("Procedure %s has %d input parameters, but method %s has %d!",
+                    signature, inputs, method.getName(), argumentTypes.length));
+        }
+
+        ParameterBinder[] binders = new ParameterBinder[inputs];
+        List<Integer> outputs = new ArrayList<>();
+        int argument = 0;
+        for (int i = 0; i < parameters.size(); i++) {
+            ProcedureParameter parameter = parameters.get(i);
+            if (parameter.getMode().isInput()) {
+                binders[argument] = binderFor(argumentTypes[argument], i + 1, parameter.getSqlType());
+                argument++;
+            }
+            if (parameter.getMode().isOutput()) {
+                outputs.add(i);
+            }
+        }
+
+        int[] outputIndexes = new int[outputs.size()];
+        int[] outputSqlTypes = new int[outputs.size()];
+        for (int i = 0; i < outputs.size(); i++) {
+            outputIndexes[i] = outputs.get(i) + 1;
+            outputSqlTypes[i] = parameters.get(outputs.get(i)).getSqlType();
+        }
+
+        return new ProcedureCall(signature.toCallSql(), binders,
+                outputIndexes, outputSqlTypes, readerFor(method, signature, outputIndexes, rowMappers));
+    }
+
+    private static void checkDeclaredMode(Method method, ProcedureSignature signature) throws SQLException {
+        boolean outputs = signature.hasParameters(ParameterMode.OUT) || signature.hasParameters(ParameterMode.INOUT);
+        if (method.isAnnotationPresent(InParametersProcedure.class) && outputs) {
+            throw new SQLException("Procedure " + signature + " has output parameters, but method "
+                    + method.getName() + " is annotated with @InParametersProcedure!");
+        }
+        if (method.isAnnotationPresent(OutParametersProcedure.class) && !signature.hasParameters(ParameterMode.OUT)) {
+            throw new SQLException("Procedure " + signature + " has no OUT parameters, but method "
+                    + method.getName() + " is annotated with @OutParametersProcedure!");
+        }
+        if (method.isAnnotationPresent(InOutParametersProcedure.class) && !signature.hasParameters(ParameterMode.INOUT)) {
+            throw new SQLException("Procedure " + signature + " has no INOUT parameters, but method "
+                    + method.getName() + " is annotated with @InOutParametersProcedure!");
+        }
+    }
+
+    private static ParameterBinder binderFor(Class<?> type, int index, int sqlType) {
+        if (type == String.class) {
+            return (statement, value) -> statement.setString(index, (String) value);
+        }
+        if (type == BigDecimal.class) {
+            return (statement, value) -> statement.setBigDecimal(index, (BigDecimal) value);
+        }
+        if (type == int.class || type == Integer.class) {
+            return (statement, value) -> {
+                if (value == null) {
+                    statement.setNull(index, sqlType);
+                } else {
+                    statement.setInt(index, (Integer) value);
+                }
+            };
+        }
+        if (type == long.class || type == Long.class) {
+            return (statement, value) -> {
+                if (value == null) {
+                    statement.setNull(index, sqlType);
+                } else {
+                    statement.setLong(index, (Long) value);
+                }
+            };
+        }
+        if (type == double.class || type == Double.class) {
+            return (statement, value) -> {
+                if (value == null) {
+                    statement.setNull(index, sqlType);
+                } else {
+                    statement.setDouble(index, (Double) value);
+                }
+            };
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return (statement, value) -> {
+                if (value == null) {
+                    statement.setNull(index, sqlType);
+                } else {
+                    statement.setBoolean(index, (Boolean) value);
+                }
+            };
+        }
+        if (type == Timestamp.class) {
+            return (statement, value) -> statement.setTimestamp(index, (Timestamp) value);
+        }
+        return (statement, value) -> {
+            if (value == null) {
+                statement.setNull(index, sqlType);
+            } else {
+                statement.setObject(index, value, sqlType);
+            }
+        };
+    }
+
+    private static ResultReader readerFor(Method method, ProcedureSignature signature, int[] outputIndexes,
+                                          Map<Class<?>, RowMapper<?>> rowMappers) throws SQLException {
+        Class<?> type = method.getReturnType();
+        if (type == void.class) {
+            return statement -> null;
+        }
+
+        if (type == List.class || type == Set.class || type == Collection.class) {
+            RowMapper<?> rowMapper = rowMappers.get(elementType(method));
+            if (rowMapper == null) {
+                throw new SQLException("There is no row mapper for result of method " + method.getName() + "!");
+            }
+            boolean set = type == Set.class;
+            return statement -> readRows(statement, set, rowMapper);
+        }
+
+        if (outputIndexes.length != 1) {
+            throw new SQLException(String.format("Method %s returns single value, but procedure %s has %d outputs!",
+                    method.getName(), signature, outputIndexes.length));
+        }
+        int index = outputIndexes[0];
+        if (type == String.class) {
+            return statement -> statement.getString(index);
+        }
+        if (type == int.class) {
+            return statement -> statement.getInt(index);
+        }
+        if (type == long.class) {
+            return statement -> statement.getLong(index);
+        }
+        if (type == double.class) {
+            return statement -> statement.getDouble(index);
+        }
+        if (type == boolean.class) {
+            return statement -> statement.getBoolean(index);
+        }
+        if (type == BigDecimal.class) {
+            return statement -> statement.getBigDecimal(index);
+        }
+        if (type == Object.class) {
+            return statement -> statement.getObject(index);
+        }
+        return statement -> statement.getObject(index, type);
+    }
+
+    private static Class<?> elementType(Method method) {
+        Type returnType = method.getGenericReturnType();
+        if (returnType instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) returnType).getActualTypeArguments()[0];
+            if (argument instanceof Class) {
+                return (Class<?>) argument;
+            }
+        }
+        return Object.class;
+    }
+
+    private static Collection<Object> readRows(CallableStatement statement, boolean set, RowMapper<?> rowMapper)
+            throws SQLException {
+        Collection<Object> rows = set ? new LinkedHashSet<>() : new ArrayList<>();
+        try (ResultSet resultSet = statement.getResultSet()) {
+            if (resultSet != null) {
+                while (resultSet.next()) {
+                    rows.add(rowMapper.map(resultSet));
+                }
+            }
+        }
+        return rows;
+    }
+
+    @FunctionalInterface
+    private interface ParameterBinder {
+        void bind(CallableStatement statement, Object value) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface ResultReader {
+        Object read(CallableStatement statement) throws SQLException;
+    }
+}
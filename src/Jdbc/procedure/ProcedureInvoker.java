@@ -0,0 +1,126 @@
+package Jdbc.procedure;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implements interface whose methods call stored procedures. Every method has to be annotated with
+ * {@link Jdbc.annotation.InParametersProcedure}, {@link Jdbc.annotation.OutParametersProcedure} or
+ * {@link Jdbc.annotation.InOutParametersProcedure} with the procedure name and declare SQLException, e.g.
+ * <pre>
+ * &#64;OutParametersProcedure("get_count_for_department")
+ * int getCountForDepartment(String department) throws SQLException;
+ * </pre>
+ * Method arguments are bound to IN and INOUT parameters in order. Method returns:
+ * - nothing (void),
+ * - value of the only OUT or INOUT parameter,
+ * - List or Set of rows of the result set, mapped by {@link RowMapper} registered for the element type.
+ *
+ * Signature of the procedure is read from metadata on the first call of the method and compiled into a call plan
+ * with precomputed binders, next calls only bind arguments and execute the call. Every call borrows connection
+ * from the data source, so with connection pool the callable statement comes from the pool statement cache.
+ */
+public class ProcedureInvoker {
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final DataSource dataSource;
+    private final ProcedureMetadataCache metadataCache;
+    private final Map<Class<?>, RowMapper<?>> rowMappers = new ConcurrentHashMap<>();
+
+    public ProcedureInvoker(DataSource dataSource) {
+        this(dataSource, new ProcedureMetadataCache());
+    }
+
+    /**
+     * @param metadataCache cache of signatures, may be shared by invokers of the same database
+     */
+    public ProcedureInvoker(DataSource dataSource, ProcedureMetadataCache metadataCache) {
+        this.dataSource = dataSource;
+        this.metadataCache = metadataCache;
+    }
+
+    public <T> ProcedureInvoker addRowMapper(Class<T> type, RowMapper<T> rowMapper) {
+        rowMappers.put(type, rowMapper);
+        return this;
+    }
+
+    public ProcedureMetadataCache getMetadataCache() {
+        return metadataCache;
+    }
+
+    /**
+     * @throws IllegalArgumentException when some method is not annotated with procedure name
+     *                                  or does not declare SQLException
+     */
+    public <T> T create(Class<T> procedures) {
+        if (!procedures.isInterface()) {
+            throw new IllegalArgumentException(procedures.getName() + " is not an interface!");
+        }
+        for (Method method : procedures.getMethods()) {
+            if (method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            String procedureName = ProcedureCall.procedureName(method);
+            if (procedureName == null || procedureName.isEmpty()) {
+                throw new IllegalArgumentException("Method " + method.getName() + " is not annotated with procedure name!");
+            }
+            if (!Arrays.asList(method.getExceptionTypes()).contains(SQLException.class)) {
+                throw new IllegalArgumentException("Method " + method.getName() + " has to declare SQLException!");
+            }
+        }
+        return procedures.cast(Proxy.newProxyInstance(procedures.getClassLoader(), new Class<?>[]{procedures},
+                new ProcedureHandler(procedures)));
+    }
+
+    private class ProcedureHandler implements InvocationHandler {
+        private final Class<?> procedures;
+        private final Map<Method, ProcedureCall> calls = new ConcurrentHashMap<>();
+
+        ProcedureHandler(Class<?> procedures) {
+            this.procedures = procedures;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    if (method.getParameterCount() == 1) {
+                        return proxy == args[0];
+                    }
+                    break;
+                case "hashCode":
+                    if (method.getParameterCount() == 0) {
+                        return System.identityHashCode(proxy);
+                    }
+                    break;
+                case "toString":
+                    if (method.getParameterCount() == 0) {
+                        return "Procedures of " + procedures.getName();
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            try (Connection connection = dataSource.getConnection()) {
+                ProcedureCall call = calls.get(method);
+                if (call == null) {
+                    ProcedureSignature signature =
+                            metadataCache.getSignature(connection, ProcedureCall.procedureName(method));
+                    call = ProcedureCall.compile(method, signature, rowMappers);
+                    calls.put(method, call);
+                }
+                return call.execute(connection, args == null ? NO_ARGUMENTS : args);
+            }
+        }
+    }
+}
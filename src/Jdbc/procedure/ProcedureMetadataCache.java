@@ -0,0 +1,117 @@
+package Jdbc.procedure;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Signatures of stored procedures read from {@link DatabaseMetaData#getProcedureColumns} once and kept until
+ * invalidated, e.g. after the procedure is altered. Procedure names are looked up in the current catalog
+ * of the connection and are case insensitive. Procedure without parameters has empty signature.
+ */
+public class ProcedureMetadataCache {
+
+    private final Map<String, ProcedureSignature> signatures = new ConcurrentHashMap<>();
+
+    /**
+     * @throws SQLException when there is no such procedure
+     */
+    public ProcedureSignature getSignature(Connection connection, String procedureName) throws SQLException {
+        String key = procedureName.toLowerCase();
+        ProcedureSignature signature = signatures.get(key);
+        if (signature == null) {
+            signature = readSignature(connection, procedureName);
+            ProcedureSignature previous = signatures.putIfAbsent(key, signature);
+            if (previous != null) {
+                signature = previous;
+            }
+        }
+        return signature;
+    }
+
+    public void invalidate(String procedureName) {
+        signatures.remove(procedureName.toLowerCase());
+    }
+
+    public void invalidateAll() {
+        signatures.clear();
+    }
+
+    public int size() {
+        return signatures.size();
+    }
+
+    private static ProcedureSignature readSignature(Connection connection, String procedureName) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String namePattern = escapePattern(procedureName, metaData.getSearchStringEscape());
+        if (!procedureExists(metaData, connection.getCatalog(), namePattern, procedureName)) {
+            throw new SQLException("Stored procedure does not exist: " + procedureName);
+        }
+
+        List<ProcedureParameter> unordered = new ArrayList<>();
+        Map<Integer, ProcedureParameter> ordered = new TreeMap<>();
+        try (ResultSet resultSet = metaData.getProcedureColumns(connection.getCatalog(), null, namePattern, "%")) {
+            while (resultSet.next()) {
+                if (!procedureName.equalsIgnoreCase(resultSet.getString("PROCEDURE_NAME"))) {
+                    continue;
+                }
+                ParameterMode mode = ParameterMode.fromColumnType(resultSet.getShort("COLUMN_TYPE"));
+                if (mode == null) {
+                    continue;
+                }
+                ProcedureParameter parameter = new ProcedureParameter(
+                        resultSet.getString("COLUMN_NAME"), mode, resultSet.getInt("DATA_TYPE"));
+                int position = resultSet.getInt("ORDINAL_POSITION");
+                if (position > 0) {
+                    ordered.put(position, parameter);
+                } else {
+                    unordered.add(parameter);
+                }
+            }
+        }
+
+        List<ProcedureParameter> parameters = new ArrayList<>(ordered.values());
+        parameters.addAll(unordered);
+        return new ProcedureSignature(procedureName, parameters);
+    }
+
+    /*
+     * Checked separately from parameters, because procedure without parameters has no procedure columns.
+     */
+    private static boolean procedureExists(DatabaseMetaData metaData, String catalog, String namePattern,
+                                           String procedureName) throws SQLException {
+        try (ResultSet resultSet = metaData.getProcedures(catalog, null, namePattern)) {
+            while (resultSet.next()) {
+                if (procedureName.equalsIgnoreCase(resultSet.getString("PROCEDURE_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /*
+     * '_' and '%' are wildcards in metadata name patterns, procedure names like get_count_for_department
+     * have to be escaped to match only themselves.
+     */
+    private static String escapePattern(String name, String escape) {
+        if (escape == null || escape.isEmpty()) {
+            return name;
+        }
+        StringBuilder sb = new StringBuilder(name.length() + 8);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '_' || c == '%') {
+                sb.append(escape);
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
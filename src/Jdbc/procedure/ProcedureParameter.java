@@ -0,0 +1,37 @@
+package Jdbc.procedure;
+
+/**
+ * Parameter of stored procedure read from database metadata.
+ */
+public class ProcedureParameter {
+
+    private final String name;
+    private final ParameterMode mode;
+    private final int sqlType;
+
+    ProcedureParameter(String name, ParameterMode mode, int sqlType) {
+        this.name = name;
+        this.mode = mode;
+        this.sqlType = sqlType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ParameterMode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return type from {@link java.sql.Types}
+     */
+    public int getSqlType() {
+        return sqlType;
+    }
+
+    @Override
+    public String toString() {
+        return mode + " " + name + " (" + sqlType + ")";
+    }
+}
@@ -0,0 +1,51 @@
+package Jdbc.procedure;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parameters of stored procedure in call order.
+ */
+public class ProcedureSignature {
+
+    private final String name;
+    private final List<ProcedureParameter> parameters;
+
+    ProcedureSignature(String name, List<ProcedureParameter> parameters) {
+        this.name = name;
+        this.parameters = Collections.unmodifiableList(parameters);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<ProcedureParameter> getParameters() {
+        return parameters;
+    }
+
+    public boolean hasParameters(ParameterMode mode) {
+        for (ProcedureParameter parameter : parameters) {
+            if (parameter.getMode() == mode) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return JDBC escape call with placeholder for every parameter, e.g. {call name(?, ?)}
+     */
+    public String toCallSql() {
+        StringBuilder sb = new StringBuilder("{call ").append(name).append('(');
+        for (int i = 0; i < parameters.size(); i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.append(")}").toString();
+    }
+
+    @Override
+    public String toString() {
+        return name + parameters;
+    }
+}
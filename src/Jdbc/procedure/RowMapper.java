@@ -0,0 +1,12 @@
+package Jdbc.procedure;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps current row of result set returned by stored procedure, see {@link ProcedureInvoker#addRowMapper}.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    T map(ResultSet resultSet) throws SQLException;
+}
@@ -0,0 +1,64 @@
+package Jdbc.query;
+
+/**
+ * Comparison of one column with one value, e.g. first_name = ?
+ */
+public class ColumnCondition extends Condition {
+
+    private final String column;
+    private final Operator operator;
+    private final Object value;
+
+    ColumnCondition(String column, Operator operator, Object value) {
+        this.column = Identifiers.requireValid(column);
+        this.operator = operator;
+        this.value = value;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    @Override
+    void appendSql(StringBuilder sql) {
+        sql.append(column).append(' ').append(operator.getSql());
+        if (operator.hasValue()) {
+            sql.append(" ?");
+        }
+    }
+
+    @Override
+    int collectValues(Object[] values, int index) {
+        if (operator.hasValue()) {
+            values[index++] = value;
+        }
+        return index;
+    }
+
+    @Override
+    int parameterCount() {
+        return operator.hasValue() ? 1 : 0;
+    }
+
+    @Override
+    int shapeHash() {
+        return 31 * column.hashCode() + operator.ordinal();
+    }
+
+    @Override
+    boolean hasSameShape(Condition other) {
+        if (!(other instanceof ColumnCondition)) {
+            return false;
+        }
+        ColumnCondition that = (ColumnCondition) other;
+        return operator == that.operator && column.equals(that.column);
+    }
+}
@@ -0,0 +1,41 @@
+package Jdbc.query;
+
+import Jdbc.LogicalOperation;
+
+import java.util.List;
+
+/**
+ * Node of WHERE clause tree. Values are never put into SQL text, they are rendered as ? placeholders
+ * and bound to prepared statement, so the same condition shape always gives the same SQL.
+ * Conditions are created with {@link Conditions}.
+ */
+public abstract class Condition {
+
+    Condition() {
+    }
+
+    public Condition and(Condition other) {
+        return new ConditionGroup(LogicalOperation.AND, List.of(this, other));
+    }
+
+    public Condition or(Condition other) {
+        return new ConditionGroup(LogicalOperation.OR, List.of(this, other));
+    }
+
+    abstract void appendSql(StringBuilder sql);
+
+    /**
+     * Puts bound values into the array starting from given index.
+     * @return index after the last written value
+     */
+    abstract int collectValues(Object[] values, int index);
+
+    abstract int parameterCount();
+
+    /*
+     * Shape of condition is everything which affects SQL text: structure, columns and operators, but not values.
+     */
+    abstract int shapeHash();
+
+    abstract boolean hasSameShape(Condition other);
+}
@@ -0,0 +1,93 @@
+package Jdbc.query;
+
+import Jdbc.LogicalOperation;
+
+import java.util.List;
+
+/**
+ * Conditions joined with one logical operation and rendered in parentheses,
+ * so the tree structure (not SQL operator precedence) decides the meaning.
+ */
+public class ConditionGroup extends Condition {
+
+    private final LogicalOperation operation;
+    private final List<Condition> conditions;
+
+    ConditionGroup(LogicalOperation operation, List<Condition> conditions) {
+        if (operation == LogicalOperation.WITHOUT_OPERATION) {
+            throw new IllegalArgumentException("Group of conditions needs AND or OR operation!");
+        }
+        if (conditions.isEmpty()) {
+            throw new IllegalArgumentException("Group of conditions cannot be empty!");
+        }
+        this.operation = operation;
+        this.conditions = List.copyOf(conditions);
+    }
+
+    public LogicalOperation getOperation() {
+        return operation;
+    }
+
+    public List<Condition> getConditions() {
+        return conditions;
+    }
+
+    @Override
+    void appendSql(StringBuilder sql) {
+        if (conditions.size() == 1) {
+            conditions.get(0).appendSql(sql);
+            return;
+        }
+        sql.append('(');
+        for (int i = 0; i < conditions.size(); i++) {
+            if (i > 0) {
+                sql.append(' ').append(operation.name()).append(' ');
+            }
+            conditions.get(i).appendSql(sql);
+        }
+        sql.append(')');
+    }
+
+    @Override
+    int collectValues(Object[] values, int index) {
+        for (int i = 0; i < conditions.size(); i++) {
+            index = conditions.get(i).collectValues(values, index);
+        }
+        return index;
+    }
+
+    @Override
+    int parameterCount() {
+        int count = 0;
+        for (int i = 0; i < conditions.size(); i++) {
+            count += conditions.get(i).parameterCount();
+        }
+        return count;
+    }
+
+    @Override
+    int shapeHash() {
+        int hash = operation.ordinal();
+        for (int i = 0; i < conditions.size(); i++) {
+            hash = 31 * hash + conditions.get(i).shapeHash();
+        }
+        return hash;
+    }
+
+    @Override
+    boolean hasSameShape(Condition other) {
+        if (!(other instanceof ConditionGroup)) {
+            return false;
+        }
+        ConditionGroup that = (ConditionGroup) other;
+        if (operation != that.operation || conditions.size() != that.conditions.size()) {
+            return false;
+        }
+        for (int i = 0; i < conditions.size(); i++) {
+            if (!conditions.get(i).hasSameShape(that.conditions.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,61 @@
+package Jdbc.query;
+
+import Jdbc.LogicalOperation;
+
+import java.util.Arrays;
+
+/**
+ * Factory methods of WHERE conditions. For example condition:
+ * first_name = 'John' OR (first_name = 'Jan' AND last_name = 'Kowalski')
+ * is created with:
+ * or(equal("first_name", "John"), and(equal("first_name", "Jan"), equal("last_name", "Kowalski")))
+ */
+public class Conditions {
+
+    private Conditions() {
+    }
+
+    public static Condition equal(String column, Object value) {
+        return new ColumnCondition(column, Operator.EQUAL, value);
+    }
+
+    public static Condition notEqual(String column, Object value) {
+        return new ColumnCondition(column, Operator.NOT_EQUAL, value);
+    }
+
+    public static Condition less(String column, Object value) {
+        return new ColumnCondition(column, Operator.LESS, value);
+    }
+
+    public static Condition lessOrEqual(String column, Object value) {
+        return new ColumnCondition(column, Operator.LESS_OR_EQUAL, value);
+    }
+
+    public static Condition greater(String column, Object value) {
+        return new ColumnCondition(column, Operator.GREATER, value);
+    }
+
+    public static Condition greaterOrEqual(String column, Object value) {
+        return new ColumnCondition(column, Operator.GREATER_OR_EQUAL, value);
+    }
+
+    public static Condition like(String column, String pattern) {
+        return new ColumnCondition(column, Operator.LIKE, pattern);
+    }
+
+    public static Condition isNull(String column) {
+        return new ColumnCondition(column, Operator.IS_NULL, null);
+    }
+
+    public static Condition isNotNull(String column) {
+        return new ColumnCondition(column, Operator.IS_NOT_NULL, null);
+    }
+
+    public static Condition and(Condition... conditions) {
+        return new ConditionGroup(LogicalOperation.AND, Arrays.asList(conditions));
+    }
+
+    public static Condition or(Condition... conditions) {
+        return new ConditionGroup(LogicalOperation.OR, Arrays.asList(conditions));
+    }
+}
@@ -0,0 +1,58 @@
+package Jdbc.query;
+
+import java.util.List;
+
+/**
+ * DELETE statement builder, e.g.:
+ * Delete.from("employees").where(Conditions.equal("id", 23)).toQuery()
+ */
+public class Delete {
+
+    private final String table;
+    private Condition condition;
+
+    private Delete(String table) {
+        this.table = Identifiers.requireValid(table);
+    }
+
+    public static Delete from(String table) {
+        return new Delete(table);
+    }
+
+    public Delete where(Condition condition) {
+        this.condition = condition;
+        return this;
+    }
+
+    /**
+     * Builds the query, SQL text is taken from {@link QueryTemplateCache#shared()} when the same shape was built before.
+     * @throws IllegalStateException when there is no WHERE condition
+     */
+    public SqlQuery toQuery() {
+        return toQuery(QueryTemplateCache.shared());
+    }
+
+    public SqlQuery toQuery(QueryTemplateCache cache) {
+        if (condition == null) {
+            throw new IllegalStateException("Delete without WHERE condition is not allowed!");
+        }
+
+        QueryTemplateCache.StatementShape shape = new QueryTemplateCache.StatementShape(
+                "DELETE", table, List.of(), condition, List.of(), false);
+        String sql = cache.get(shape);
+        if (sql == null) {
+            sql = cache.put(shape, renderSql());
+        }
+
+        Object[] parameters = new Object[condition.parameterCount()];
+        condition.collectValues(parameters, 0);
+
+        return new SqlQuery(sql, parameters);
+    }
+
+    private String renderSql() {
+        StringBuilder sql = new StringBuilder("DELETE FROM ").append(table).append(" WHERE ");
+        condition.appendSql(sql);
+        return sql.toString();
+    }
+}
@@ -0,0 +1,46 @@
+package Jdbc.query;
+
+/*
+ * Table and column names cannot be bound as parameters, so they are checked before they are put into SQL text.
+ * Accepted are names like column or table.column built of letters, digits and underscores, not starting with digit.
+ * Check is done by hand instead of regular expression because it runs for every column of every built query.
+ */
+class Identifiers {
+
+    private Identifiers() {
+    }
+
+    static String requireValid(String identifier) {
+        if (!isValid(identifier)) {
+            throw new IllegalArgumentException("Invalid SQL identifier: " + identifier);
+        }
+        return identifier;
+    }
+
+    private static boolean isValid(String identifier) {
+        if (identifier == null || identifier.isEmpty()) {
+            return false;
+        }
+        boolean partStart = true;
+        boolean dotSeen = false;
+        for (int i = 0; i < identifier.length(); i++) {
+            char c = identifier.charAt(i);
+            if (c == '.') {
+                if (partStart || dotSeen) {
+                    return false;
+                }
+                dotSeen = true;
+                partStart = true;
+            } else if (isLetter(c) || c == '_' || (!partStart && c >= '0' && c <= '9')) {
+                partStart = false;
+            } else {
+                return false;
+            }
+        }
+        return !partStart;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
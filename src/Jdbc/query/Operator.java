@@ -0,0 +1,33 @@
+package Jdbc.query;
+
+/**
+ * Comparison operators of {@link ColumnCondition}.
+ */
+public enum Operator {
+    EQUAL("="),
+    NOT_EQUAL("<>"),
+    LESS("<"),
+    LESS_OR_EQUAL("<="),
+    GREATER(">"),
+    GREATER_OR_EQUAL(">="),
+    LIKE("LIKE"),
+    IS_NULL("IS NULL"),
+    IS_NOT_NULL("IS NOT NULL");
+
+    private final String sql;
+
+    Operator(String sql) {
+        this.sql = sql;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return false for IS NULL and IS NOT NULL, which do not bind any value
+     */
+    public boolean hasValue() {
+        return this != IS_NULL && this != IS_NOT_NULL;
+    }
+}
@@ -0,0 +1,158 @@
+package Jdbc.query;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of SQL rendered by query builders. Builders fingerprint the statement shape (statement kind, table,
+ * columns, condition tree without values, ORDER BY and LIMIT presence) and render SQL text only for the first
+ * query of given shape. Later queries of the same shape only collect their values into a parameter array.
+ *
+ * Cache is bounded: when it is full new shapes are rendered every time instead of evicting the old ones,
+ * so an application which builds unbounded number of shapes cannot grow memory without limit.
+ */
+public class QueryTemplateCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private static final QueryTemplateCache SHARED = new QueryTemplateCache(DEFAULT_MAXIMUM_SIZE);
+
+    private final int maximumSize;
+    private final Map<StatementShape, String> templates = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder renderedCharacters = new LongAdder();
+
+    /**
+     * @param maximumSize maximum number of cached shapes, 0 disables the cache
+     */
+    public QueryTemplateCache(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Template cache size cannot be negative!");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * @return cache used by {@link Update#toQuery()}, {@link Delete#toQuery()} and {@link Select#toQuery()}
+     */
+    public static QueryTemplateCache shared() {
+        return SHARED;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of SQL characters rendered because of misses, shows how much StringBuilder work was done
+     */
+    public long getRenderedCharacters() {
+        return renderedCharacters.sum();
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+    public void clear() {
+        templates.clear();
+    }
+
+    /**
+     * @return cached SQL of given shape or null when builder has to render it and call {@link #put}
+     */
+    String get(StatementShape shape) {
+        String sql = templates.get(shape);
+        if (sql != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return sql;
+    }
+
+    String put(StatementShape shape, String sql) {
+        renderedCharacters.add(sql.length());
+        if (templates.size() < maximumSize) {
+            templates.putIfAbsent(shape.detach(), sql);
+        }
+        return sql;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryTemplateCache{" +
+                "size=" + size() +
+                ", hits=" + getHits() +
+                ", misses=" + getMisses() +
+                ", renderedCharacters=" + getRenderedCharacters() +
+                '}';
+    }
+
+    /*
+     * Key of the cache. Builders create shapes which reference their own mutable column lists, only shapes
+     * stored in the cache get their own copies. Condition is immutable, values kept by the stored condition
+     * are never used for rendering.
+     */
+    static class StatementShape {
+        private final String kind;
+        private final String table;
+        private final List<String> columns;
+        private final Condition condition;
+        private final List<String> orderBy;
+        private final boolean limited;
+        private final int hash;
+
+        StatementShape(String kind, String table, List<String> columns, Condition condition,
+                       List<String> orderBy, boolean limited) {
+            this.kind = kind;
+            this.table = table;
+            this.columns = columns;
+            this.condition = condition;
+            this.orderBy = orderBy;
+            this.limited = limited;
+
+            int hash = kind.hashCode();
+            hash = 31 * hash + (table == null ? 0 : table.hashCode());
+            hash = 31 * hash + columns.hashCode();
+            hash = 31 * hash + (condition == null ? 0 : condition.shapeHash());
+            hash = 31 * hash + orderBy.hashCode();
+            this.hash = 31 * hash + (limited ? 1 : 0);
+        }
+
+        StatementShape detach() {
+            return new StatementShape(kind, table, List.copyOf(columns), condition, List.copyOf(orderBy), limited);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof StatementShape)) {
+                return false;
+            }
+            StatementShape that = (StatementShape) o;
+            return hash == that.hash &&
+                    limited == that.limited &&
+                    kind.equals(that.kind) &&
+                    (table == null ? that.table == null : table.equals(that.table)) &&
+                    columns.equals(that.columns) &&
+                    orderBy.equals(that.orderBy) &&
+                    (condition == null ? that.condition == null :
+                            that.condition != null && condition.hasSameShape(that.condition));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package Jdbc.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SELECT statement builder, e.g.:
+ * Select.columns("id", "salary").from("employees").where(Conditions.equal("department", "HR")).orderBy("id").toQuery()
+ */
+public class Select {
+
+    private final List<String> columns = new ArrayList<>();
+    private String table;
+    private Condition condition;
+    private final List<String> orderBy = new ArrayList<>();
+    private int limit;
+
+    private Select(String... columns) {
+        for (String column : columns) {
+            this.columns.add(Identifiers.requireValid(column));
+        }
+    }
+
+    /**
+     * @param columns selected columns, no columns means SELECT *
+     */
+    public static Select columns(String... columns) {
+        return new Select(columns);
+    }
+
+    public Select from(String table) {
+        this.table = Identifiers.requireValid(table);
+        return this;
+    }
+
+    public Select where(Condition condition) {
+        this.condition = condition;
+        return this;
+    }
+
+    public Select orderBy(String... columns) {
+        for (String column : columns) {
+            orderBy.add(Identifiers.requireValid(column));
+        }
+        return this;
+    }
+
+    /**
+     * @param limit maximum number of rows, bound as parameter so different limits share the same SQL
+     */
+    public Select limit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit has to be positive!");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Builds the query, SQL text is taken from {@link QueryTemplateCache#shared()} when the same shape was built before.
+     */
+    public SqlQuery toQuery() {
+        return toQuery(QueryTemplateCache.shared());
+    }
+
+    public SqlQuery toQuery(QueryTemplateCache cache) {
+        if (table == null) {
+            throw new IllegalStateException("Select needs a table!");
+        }
+
+        QueryTemplateCache.StatementShape shape = new QueryTemplateCache.StatementShape(
+                "SELECT", table, columns, condition, orderBy, limit > 0);
+        String sql = cache.get(shape);
+        if (sql == null) {
+            sql = cache.put(shape, renderSql());
+        }
+
+        int conditionParameters = condition == null ? 0 : condition.parameterCount();
+        Object[] parameters = new Object[conditionParameters + (limit > 0 ? 1 : 0)];
+        if (condition != null) {
+            condition.collectValues(parameters, 0);
+        }
+        if (limit > 0) {
+            parameters[conditionParameters] = limit;
+        }
+
+        return new SqlQuery(sql, parameters);
+    }
+
+    private String renderSql() {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (columns.isEmpty()) {
+            sql.append('*');
+        } else {
+            sql.append(String.join(", ", columns));
+        }
+        sql.append(" FROM ").append(table);
+
+        if (condition != null) {
+            sql.append(" WHERE ");
+            condition.appendSql(sql);
+        }
+        if (!orderBy.isEmpty()) {
+            sql.append(" ORDER BY ").append(String.join(", ", orderBy));
+        }
+        if (limit > 0) {
+            sql.append(" LIMIT ?");
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package Jdbc.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * UPDATE statement builder, e.g.:
+ * Update.table("employees").set("salary", salary).where(Conditions.equal("department", "HR")).toQuery()
+ */
+public class Update {
+
+    private final String table;
+    private final List<String> columns = new ArrayList<>();
+    private final List<Object> values = new ArrayList<>();
+    private Condition condition;
+
+    private Update(String table) {
+        this.table = Identifiers.requireValid(table);
+    }
+
+    public static Update table(String table) {
+        return new Update(table);
+    }
+
+    public Update set(String column, Object value) {
+        columns.add(Identifiers.requireValid(column));
+        values.add(value);
+        return this;
+    }
+
+    public Update where(Condition condition) {
+        this.condition = condition;
+        return this;
+    }
+
+    /**
+     * Builds the query, SQL text is taken from {@link QueryTemplateCache#shared()} when the same shape was built before.
+     * @throws IllegalStateException when there is no column to set or no WHERE condition
+     */
+    public SqlQuery toQuery() {
+        return toQuery(QueryTemplateCache.shared());
+    }
+
+    public SqlQuery toQuery(QueryTemplateCache cache) {
+        if (columns.isEmpty()) {
+            throw new IllegalStateException("Update needs at least one column to set!");
+        }
+        if (condition == null) {
+            throw new IllegalStateException("Update without WHERE condition is not allowed!");
+        }
+
+        QueryTemplateCache.StatementShape shape = new QueryTemplateCache.StatementShape(
+                "UPDATE", table, columns, condition, List.of(), false);
+        String sql = cache.get(shape);
+        if (sql == null) {
+            sql = cache.put(shape, renderSql());
+        }
+
+        Object[] parameters = new Object[values.size() + condition.parameterCount()];
+        values.toArray(parameters);
+        condition.collectValues(parameters, values.size());
+
+        return new SqlQuery(sql, parameters);
+    }
+
+    private String renderSql() {
+        StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(columns.get(i)).append(" = ?");
+        }
+        sql.append(" WHERE ");
+        condition.appendSql(sql);
+        return sql.toString();
+    }
+}
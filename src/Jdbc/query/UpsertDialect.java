@@ -0,0 +1,95 @@
+package Jdbc.query;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+
+/**
+ * Single statement "insert or update by key", which is not part of portable SQL. Rendered statement has
+ * parameters in order: key column, then other columns, so it can be sent with addBatch/executeBatch.
+ */
+public enum UpsertDialect {
+
+    /**
+     * MySQL and MariaDB: INSERT ... ON DUPLICATE KEY UPDATE, key column has to be primary or unique key.
+     */
+    ON_DUPLICATE_KEY_UPDATE {
+        @Override
+        void appendSql(StringBuilder sql, String table, String keyColumn, List<String> columns) {
+            sql.append("INSERT INTO ").append(table);
+            appendColumns(sql, keyColumn, columns);
+            appendValues(sql.append(" VALUES "), columns);
+            sql.append(" ON DUPLICATE KEY UPDATE ");
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append(columns.get(i)).append(" = VALUES(").append(columns.get(i)).append(')');
+            }
+        }
+    },
+
+    /**
+     * H2 (embedded test database): MERGE INTO ... KEY (...) VALUES.
+     */
+    MERGE {
+        @Override
+        void appendSql(StringBuilder sql, String table, String keyColumn, List<String> columns) {
+            sql.append("MERGE INTO ").append(table);
+            appendColumns(sql, keyColumn, columns);
+            sql.append(" KEY (").append(keyColumn).append(')');
+            appendValues(sql.append(" VALUES "), columns);
+        }
+    };
+
+    /**
+     * @param keyColumn column which identifies the row
+     * @param columns columns set on insert and overwritten on update, without key column
+     */
+    public String upsertSql(String table, String keyColumn, List<String> columns) {
+        Identifiers.requireValid(table);
+        Identifiers.requireValid(keyColumn);
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("Upsert needs at least one column besides the key!");
+        }
+        for (String column : columns) {
+            Identifiers.requireValid(column);
+        }
+        StringBuilder sql = new StringBuilder(64 + columns.size() * 32);
+        appendSql(sql, table, keyColumn, columns);
+        return sql.toString();
+    }
+
+    /**
+     * @throws SQLFeatureNotSupportedException when database has no known upsert statement
+     */
+    public static UpsertDialect forDatabase(DatabaseMetaData metaData) throws SQLException {
+        String product = metaData.getDatabaseProductName();
+        if ("MySQL".equalsIgnoreCase(product) || "MariaDB".equalsIgnoreCase(product)) {
+            return ON_DUPLICATE_KEY_UPDATE;
+        }
+        if ("H2".equalsIgnoreCase(product)) {
+            return MERGE;
+        }
+        throw new SQLFeatureNotSupportedException("Upsert is not supported for database: " + product);
+    }
+
+    abstract void appendSql(StringBuilder sql, String table, String keyColumn, List<String> columns);
+
+    private static void appendColumns(StringBuilder sql, String keyColumn, List<String> columns) {
+        sql.append(" (").append(keyColumn);
+        for (String column : columns) {
+            sql.append(", ").append(column);
+        }
+        sql.append(')');
+    }
+
+    private static void appendValues(StringBuilder sql, List<String> columns) {
+        sql.append("(?");
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(", ?");
+        }
+        sql.append(')');
+    }
+}
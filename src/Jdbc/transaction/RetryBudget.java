@@ -0,0 +1,44 @@
+package Jdbc.transaction;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Token bucket shared by all transactions of one template. Tokens are kept in thousandths, so fractional
+ * deposits need no floating point arithmetic on the hot path.
+ */
+class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong tokens;
+
+    RetryBudget(double ratio, int maximum) {
+        this.deposit = Math.round(ratio * SCALE);
+        this.capacity = maximum * SCALE;
+        this.tokens = new AtomicLong(capacity);
+    }
+
+    void deposit() {
+        if (deposit > 0 && tokens.get() < capacity) {
+            tokens.accumulateAndGet(deposit, (current, added) -> Math.min(capacity, current + added));
+        }
+    }
+
+    boolean tryWithdraw() {
+        while (true) {
+            long current = tokens.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    double getTokens() {
+        return tokens.get() / (double) SCALE;
+    }
+}
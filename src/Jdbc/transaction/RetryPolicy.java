@@ -0,0 +1,160 @@
+package Jdbc.transaction;
+
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which failed transactions of {@link TransactionTemplate} are run again and how long to wait before.
+ *
+ * Retried are only errors after which running the same transaction again can succeed: serialization failure
+ * and deadlock (SQLState 40001, MySQL error 1213) and lock wait timeout (MySQL error 1205). Waits grow
+ * exponentially with "full jitter" (random time between 0 and the limit), so transactions which collided
+ * do not collide again at the same moment.
+ *
+ * Retry budget caps retries to a fraction of transactions, so when the database is overloaded and most
+ * transactions fail, retries do not multiply the load: every transaction adds budgetRatio of a token
+ * to the bucket (at most maximumBudget tokens) and every retry takes one token.
+ */
+public class RetryPolicy {
+
+    public static final RetryPolicy DEFAULT = new PolicyBuilder().build();
+    public static final RetryPolicy NO_RETRIES = new PolicyBuilder().addMaxAttempts(1).build();
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final double budgetRatio;
+    private final int maximumBudget;
+    private final Set<String> retryableSqlStates;
+    private final Set<Integer> retryableErrorCodes;
+
+    private RetryPolicy(PolicyBuilder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoffMillis = builder.initialBackoffMillis;
+        this.maxBackoffMillis = builder.maxBackoffMillis;
+        this.budgetRatio = builder.budgetRatio;
+        this.maximumBudget = builder.maximumBudget;
+        this.retryableSqlStates = Collections.unmodifiableSet(new HashSet<>(builder.retryableSqlStates));
+        this.retryableErrorCodes = Collections.unmodifiableSet(new HashSet<>(builder.retryableErrorCodes));
+    }
+
+    public static class PolicyBuilder {
+        private int maxAttempts = 5;
+        private long initialBackoffMillis = 10;
+        private long maxBackoffMillis = 1000;
+        private double budgetRatio = 0.2;
+        private int maximumBudget = 100;
+        private final Set<String> retryableSqlStates = new HashSet<>(Set.of("40001"));
+        private final Set<Integer> retryableErrorCodes = new HashSet<>(Set.of(1205, 1213));
+
+        /**
+         * @param maxAttempts number of runs of the transaction including the first one, 1 disables retries
+         */
+        public PolicyBuilder addMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * @param initialBackoffMillis upper limit of the wait before the first retry, doubled for every next one
+         */
+        public PolicyBuilder addInitialBackoffMillis(long initialBackoffMillis) {
+            this.initialBackoffMillis = initialBackoffMillis;
+            return this;
+        }
+
+        public PolicyBuilder addMaxBackoffMillis(long maxBackoffMillis) {
+            this.maxBackoffMillis = maxBackoffMillis;
+            return this;
+        }
+
+        /**
+         * @param budgetRatio retries allowed per transaction on average, e.g. 0.2 allows one retry per five
+         *                    transactions once the initial budget is used up
+         * @param maximumBudget retries allowed in a burst, it is also the initial budget
+         */
+        public PolicyBuilder addRetryBudget(double budgetRatio, int maximumBudget) {
+            this.budgetRatio = budgetRatio;
+            this.maximumBudget = maximumBudget;
+            return this;
+        }
+
+        public PolicyBuilder addRetryableSqlState(String sqlState) {
+            this.retryableSqlStates.add(sqlState);
+            return this;
+        }
+
+        /**
+         * @param errorCode vendor error code, e.g. MySQL 1205 (lock wait timeout), which has generic SQLState
+         */
+        public PolicyBuilder addRetryableErrorCode(int errorCode) {
+            this.retryableErrorCodes.add(errorCode);
+            return this;
+        }
+
+        public RetryPolicy build() {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("Max attempts has to be positive!");
+            }
+            if (initialBackoffMillis < 0 || maxBackoffMillis < initialBackoffMillis) {
+                throw new IllegalArgumentException("Backoff cannot be negative and max backoff has to be " +
+                        "at least the initial one!");
+            }
+            if (budgetRatio < 0 || maximumBudget < 0) {
+                throw new IllegalArgumentException("Retry budget cannot be negative!");
+            }
+            return new RetryPolicy(this);
+        }
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    public int getMaximumBudget() {
+        return maximumBudget;
+    }
+
+    /**
+     * Checks the exception and its causes, so SQLException wrapped e.g. in {@link Jdbc.UncheckedSQLException}
+     * is recognized too.
+     */
+    public boolean isRetryable(Throwable exception) {
+        for (Throwable e = exception; e != null; e = e.getCause()) {
+            if (e instanceof SQLTransactionRollbackException) {
+                return true;
+            }
+            if (e instanceof SQLException) {
+                SQLException sqlException = (SQLException) e;
+                if (retryableSqlStates.contains(sqlException.getSQLState())
+                        || retryableErrorCodes.contains(sqlException.getErrorCode())) {
+                    return true;
+                }
+            }
+            if (e.getCause() == e) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param retry number of the retry starting from 1
+     * @return random wait between 0 and min(maxBackoff, initialBackoff * 2^(retry - 1))
+     */
+    public long backoffMillis(int retry) {
+        long limit = initialBackoffMillis << Math.min(retry - 1, 30);
+        if (limit <= 0 || limit > maxBackoffMillis) {
+            limit = maxBackoffMillis;
+        }
+        return limit == 0 ? 0 : ThreadLocalRandom.current().nextLong(limit + 1);
+    }
+}
@@ -0,0 +1,45 @@
+package Jdbc.transaction;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+
+/*
+ * Hands out connection of the transaction which the template runs on the calling thread, or a connection
+ * of the wrapped data source when there is none. Other calls go straight to the wrapped data source.
+ */
+class TransactionAwareDataSource implements InvocationHandler {
+
+    private final TransactionTemplate transactionTemplate;
+
+    TransactionAwareDataSource(TransactionTemplate transactionTemplate) {
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "getConnection":
+                Connection connection = transactionTemplate.getCurrentConnection();
+                if (connection != null) {
+                    return connection;
+                }
+                break;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "TransactionAware" + transactionTemplate.getTargetDataSource();
+            default:
+                break;
+        }
+
+        try {
+            return method.invoke(transactionTemplate.getTargetDataSource(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package Jdbc.transaction;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/*
+ * Connection handed out while TransactionTemplate runs the work. Closing it does nothing, because the template
+ * closes the connection after commit. The work cannot end the transaction: commit, full rollback and turning
+ * autocommit on fail, so that the template alone decides whether the transaction is committed or retried.
+ * Turning autocommit off and rolling back to a savepoint are allowed, they do not end the transaction.
+ *
+ * Code which commits or retries by itself has to check TransactionTemplate.isTransactionManaged(connection)
+ * and leave that to the template, as employees repository does.
+ */
+class TransactionBoundConnection implements InvocationHandler {
+
+    private final Connection connection;
+
+    TransactionBoundConnection(Connection connection) {
+        this.connection = connection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close":
+                return null;
+            case "commit":
+                throw transactionManaged();
+            case "rollback":
+                if (args == null || args.length == 0) {
+                    throw transactionManaged();
+                }
+                break;
+            case "isWrapperFor":
+                if (args[0] == TransactionBoundConnection.class) {
+                    return true;
+                }
+                break;
+            case "setAutoCommit":
+                if ((Boolean) args[0]) {
+                    throw transactionManaged();
+                }
+                return null;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "TransactionBound" + connection;
+            default:
+                break;
+        }
+
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static SQLException transactionManaged() {
+        return new SQLException("Transaction is managed by TransactionTemplate!");
+    }
+}
@@ -0,0 +1,19 @@
+package Jdbc.transaction;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Work run by {@link TransactionTemplate} in one transaction. It may be run several times when the transaction
+ * is retried, so it should not have side effects outside of the database (or they should be idempotent).
+ * @param <T> result type, Void for work without result
+ */
+@FunctionalInterface
+public interface TransactionCallback<T> {
+
+    /**
+     * @param connection connection of the transaction, the same connection is returned by
+     *                   {@link TransactionTemplate#getDataSource()} to this thread until the work returns
+     */
+    T doInTransaction(Connection connection) throws SQLException;
+}
@@ -0,0 +1,68 @@
+package Jdbc.transaction;
+
+/**
+ * Point in time snapshot of {@link TransactionTemplate} counters.
+ */
+public class TransactionStatistics {
+
+    private final long commits;
+    private final long rollbacks;
+    private final long retries;
+    private final long aborts;
+    private final long budgetExhausted;
+    private final double retryBudget;
+
+    TransactionStatistics(long commits, long rollbacks, long retries, long aborts, long budgetExhausted,
+                          double retryBudget) {
+        this.commits = commits;
+        this.rollbacks = rollbacks;
+        this.retries = retries;
+        this.aborts = aborts;
+        this.budgetExhausted = budgetExhausted;
+        this.retryBudget = retryBudget;
+    }
+
+    public long getCommits() {
+        return commits;
+    }
+
+    /**
+     * @return rolled back attempts, including the ones which were retried afterwards
+     */
+    public long getRollbacks() {
+        return rollbacks;
+    }
+
+    public long getRetries() {
+        return retries;
+    }
+
+    /**
+     * @return transactions which failed with retryable error, but were not retried anymore
+     * because of attempts limit or exhausted retry budget
+     */
+    public long getAborts() {
+        return aborts;
+    }
+
+    /**
+     * @return aborts caused by exhausted retry budget
+     */
+    public long getBudgetExhausted() {
+        return budgetExhausted;
+    }
+
+    /**
+     * @return retries currently available in the budget
+     */
+    public double getRetryBudget() {
+        return retryBudget;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TransactionStatistics{commits=%d, rollbacks=%d, retries=%d, aborts=%d, " +
+                        "budgetExhausted=%d, retryBudget=%.1f}", commits, rollbacks, retries, aborts, budgetExhausted,
+                retryBudget);
+    }
+}
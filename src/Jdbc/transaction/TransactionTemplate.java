@@ -0,0 +1,258 @@
+package Jdbc.transaction;
+
+import Jdbc.log.Logger;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs work in a transaction: borrows a connection, turns autocommit off, sets requested isolation level,
+ * commits when the work returns and rolls back when it throws. Autocommit and isolation level are restored
+ * before the connection is closed, whatever the outcome.
+ *
+ * Transactions which failed because of deadlock, serialization failure or lock wait timeout are run again
+ * on a new connection as allowed by {@link RetryPolicy}, other errors are thrown at once. The work therefore
+ * has to be safe to run more than once.
+ *
+ * Code which should take part in the transaction without getting the connection as argument (e.g. employee
+ * service) can be built over {@link #getDataSource()}, it finds out with {@link #isTransactionManaged(Connection)}
+ * that it must not commit or retry by itself. Calling inTransaction from inside the work joins
+ * the running transaction instead of starting a new one.
+ *
+ * Template is safe to use from many threads, every thread runs its own transactions.
+ */
+public class TransactionTemplate {
+
+    /**
+     * Keeps isolation level of the connection.
+     */
+    public static final int DEFAULT_ISOLATION = -1;
+
+    private static final Logger LOGGER = Logger.getLogger(TransactionTemplate.class);
+
+    private final DataSource dataSource;
+    private final RetryPolicy retryPolicy;
+    private final RetryBudget retryBudget;
+    private final DataSource transactionAwareDataSource;
+    private final ThreadLocal<Transaction> currentTransaction = new ThreadLocal<>();
+
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder rollbacks = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder aborts = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+
+    public TransactionTemplate(DataSource dataSource) {
+        this(dataSource, RetryPolicy.DEFAULT);
+    }
+
+    /**
+     * @param dataSource preferably pooled data source, e.g. {@link Jdbc.pool.ConnectionPool}
+     */
+    public TransactionTemplate(DataSource dataSource, RetryPolicy retryPolicy) {
+        if (dataSource == null || retryPolicy == null) {
+            throw new IllegalArgumentException("Data source and retry policy are required!");
+        }
+        this.dataSource = dataSource;
+        this.retryPolicy = retryPolicy;
+        this.retryBudget = new RetryBudget(retryPolicy.getBudgetRatio(), retryPolicy.getMaximumBudget());
+        this.transactionAwareDataSource = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, new TransactionAwareDataSource(this));
+    }
+
+    /**
+     * Runs the work in a transaction with isolation level of the connection.
+     */
+    public <T> T inTransaction(TransactionCallback<T> work) throws SQLException {
+        return inTransaction(DEFAULT_ISOLATION, work);
+    }
+
+    /**
+     * @param isolation one of Connection.TRANSACTION_* levels or {@link #DEFAULT_ISOLATION},
+     *                  ignored when the work joins transaction already running on this thread
+     * @return result of the work from the attempt which was committed
+     * @throws SQLException error of the last attempt, when it was not retryable or no retry was left
+     */
+    public <T> T inTransaction(int isolation, TransactionCallback<T> work) throws SQLException {
+        Transaction running = currentTransaction.get();
+        if (running != null) {
+            return work.doInTransaction(running.boundConnection);
+        }
+
+        retryBudget.deposit();
+        int attempt = 1;
+        while (true) {
+            try {
+                return runOnce(isolation, work);
+            } catch (SQLException | RuntimeException e) {
+                if (!retryPolicy.isRetryable(e)) {
+                    throw e;
+                }
+                if (attempt >= retryPolicy.getMaxAttempts()) {
+                    aborts.increment();
+                    LOGGER.warn("Transaction aborted after {} attempts: {}", attempt, e.getMessage());
+                    throw e;
+                }
+                if (!retryBudget.tryWithdraw()) {
+                    aborts.increment();
+                    budgetExhausted.increment();
+                    LOGGER.warn("Transaction aborted, retry budget exhausted: {}", e.getMessage());
+                    throw e;
+                }
+                retries.increment();
+                long backoffMillis = retryPolicy.backoffMillis(attempt);
+                LOGGER.debug("Retrying transaction in {} ms after attempt {}: {}", backoffMillis, attempt,
+                        e.getMessage());
+                sleep(backoffMillis, e);
+                attempt++;
+            }
+        }
+    }
+
+    /**
+     * Makes running transaction roll back instead of commit when the work returns. The work is not retried.
+     * @throws IllegalStateException when no transaction of this template runs on the calling thread
+     */
+    public void setRollbackOnly() {
+        Transaction transaction = currentTransaction.get();
+        if (transaction == null) {
+            throw new IllegalStateException("No transaction is running on this thread!");
+        }
+        transaction.rollbackOnly = true;
+    }
+
+    /**
+     * @return true when the connection was handed out by a template for the running transaction, code given
+     * such connection must not commit, roll back or retry by itself, the template does it for the whole work
+     */
+    public static boolean isTransactionManaged(Connection connection) throws SQLException {
+        return connection.isWrapperFor(TransactionBoundConnection.class);
+    }
+
+    public boolean isInTransaction() {
+        return currentTransaction.get() != null;
+    }
+
+    /**
+     * @return data source which hands out connection of the transaction running on the calling thread,
+     * or a connection of the wrapped data source outside of transactions
+     */
+    public DataSource getDataSource() {
+        return transactionAwareDataSource;
+    }
+
+    public TransactionStatistics getStatistics() {
+        return new TransactionStatistics(commits.sum(), rollbacks.sum(), retries.sum(), aborts.sum(),
+                budgetExhausted.sum(), retryBudget.getTokens());
+    }
+
+    DataSource getTargetDataSource() {
+        return dataSource;
+    }
+
+    /*
+     * Returns connection of the transaction running on the calling thread or null.
+     */
+    Connection getCurrentConnection() {
+        Transaction transaction = currentTransaction.get();
+        return transaction == null ? null : transaction.boundConnection;
+    }
+
+    private <T> T runOnce(int isolation, TransactionCallback<T> work) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            int previousIsolation = connection.getTransactionIsolation();
+            boolean changeIsolation = isolation != DEFAULT_ISOLATION && isolation != previousIsolation;
+            try {
+                if (changeIsolation) {
+                    connection.setTransactionIsolation(isolation);
+                }
+                if (autoCommit) {
+                    connection.setAutoCommit(false);
+                }
+                return execute(connection, work);
+            } finally {
+                restore(connection, autoCommit, changeIsolation ? previousIsolation : DEFAULT_ISOLATION);
+            }
+        }
+    }
+
+    private <T> T execute(Connection connection, TransactionCallback<T> work) throws SQLException {
+        Transaction transaction = new Transaction(connection);
+        currentTransaction.set(transaction);
+        boolean completed = false;
+        try {
+            T result = work.doInTransaction(transaction.boundConnection);
+            if (transaction.rollbackOnly) {
+                connection.rollback();
+                rollbacks.increment();
+            } else {
+                connection.commit();
+                commits.increment();
+            }
+            completed = true;
+            return result;
+        } finally {
+            currentTransaction.remove();
+            if (!completed) {
+                rollbackQuietly(connection);
+            }
+        }
+    }
+
+    private void rollbackQuietly(Connection connection) {
+        rollbacks.increment();
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            LOGGER.warn("Cannot roll back transaction: {}", e.getMessage());
+        }
+    }
+
+    /*
+     * Failure is only logged, so it does not hide the error of the transaction. Connection of ConnectionPool
+     * restores its isolation level itself when it is returned and is discarded when that fails, connections
+     * of other data sources may keep the changed settings.
+     */
+    private static void restore(Connection connection, boolean autoCommit, int isolation) {
+        try {
+            if (autoCommit) {
+                connection.setAutoCommit(true);
+            }
+            if (isolation != DEFAULT_ISOLATION) {
+                connection.setTransactionIsolation(isolation);
+            }
+        } catch (SQLException e) {
+            LOGGER.warn("Cannot restore autocommit and isolation level of connection: {}", e.getMessage());
+        }
+    }
+
+    private static void sleep(long millis, Exception failure) throws SQLException {
+        if (millis == 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            SQLException exception = new SQLException("Interrupted while waiting to retry transaction!", e);
+            exception.addSuppressed(failure);
+            throw exception;
+        }
+    }
+
+    private static class Transaction {
+
+        private final Connection boundConnection;
+        private boolean rollbackOnly;
+
+        Transaction(Connection connection) {
+            this.boundConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new TransactionBoundConnection(connection));
+        }
+    }
+}
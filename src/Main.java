@@ -1,8 +1,23 @@
 import Employee.Employee;
+import Employee.AsyncEmployeeService;
+import Employee.EmployeeCacheOptions;
 import Employee.EmployeeService;
+import Employee.EmployeeWriteBehind;
+import Employee.ExportFormat;
+import Employee.ExportOptions;
+import Employee.SalaryIncrease;
+import Employee.SalaryIncreaseReport;
+import Employee.SyncReport;
+import Employee.WriteBehindOptions;
 import Jdbc.JdbcConnection;
 import Jdbc.JdbcUtils;
-import Jdbc.LogicalOperation;
+import Jdbc.metadata.ColumnMetadata;
+import Jdbc.metadata.SchemaMetadataService;
+import Jdbc.metrics.JdbcMetrics;
+import Jdbc.metrics.LogMetricsReporter;
+import Jdbc.pool.ConnectionPool;
+import Jdbc.query.Condition;
+import Jdbc.transaction.TransactionTemplate;
 
 import java.io.File;
 import java.io.IOException;
@@ -13,21 +28,44 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static Jdbc.query.Conditions.and;
+import static Jdbc.query.Conditions.equal;
+import static Jdbc.query.Conditions.or;
 
 public class Main {
 
     private static final Connection connection;
+    private static final ConnectionPool connectionPool;
+    private static final JdbcMetrics jdbcMetrics;
     private static final EmployeeService employeeService;
+    private static final SchemaMetadataService schemaMetadataService;
 
     static {
         //open connection
         connection = JdbcConnection.openDatabaseConnectionFromProperties("database.properties");
 
-        //create instance of employeeService
-        employeeService = new EmployeeService(connection);
+        //open connection pool
+        connectionPool = JdbcConnection.openConnectionPoolFromProperties("database.properties");
+
+        //record timing of every statement executed through the pool, report it every minute
+        jdbcMetrics = new JdbcMetrics.MetricsBuilder()
+                .addSlowQueryThresholdMillis(200)
+                .build();
+        jdbcMetrics.addReporter(new LogMetricsReporter(60_000));
+
+        //create instance of employeeService, which borrows pooled connection for every call and caches reads
+        employeeService = new EmployeeService(jdbcMetrics.instrument(connectionPool),
+                new EmployeeCacheOptions.OptionsBuilder()
+                        .addMaximumSize(1000)
+                        .addTimeToLiveMillis(30_000)
+                        .build());
+
+        //read tables, columns and query shapes once, refresh them every 10 minutes
+        schemaMetadataService = new SchemaMetadataService(connectionPool, 600_000);
     }
 
     public static void main(String[] args) throws SQLException {
@@ -42,23 +80,35 @@ public class Main {
         printColumnsForEmployeeTable();
 
         //UPDATE Employee
-        updateEmployeeExample(getExampleValuesToChangeMap(),  getExampleConditionsMap());
+        updateEmployeeExample(getExampleValuesToChangeMap(), getExampleCondition());
 
         //INSERT Employee
         insertEmployeeExample();
 
         //DELETE Employee
-        deleteEmployeeExample( getExampleConditionsMap());
+        deleteEmployeeExample(getExampleCondition());
 
         //SELECT Employees
         selectEmployeesExample();
 
+        //synchronize employees with external change set
+        synchronizationExample();
+
         //Calling procedures
         callingProceduresExample();
 
+        //Calling service concurrently
+        asyncExample();
+
+        //many small updates committed in batches by write-behind queue
+        writeBehindExample();
+
         //print query metadata
         printQueryMetadataExample();
 
+        //export whole table in parallel
+        exportExample();
+
         //dealing with BLOB (Binary Large Object)
         blobExample();
 
@@ -83,7 +133,7 @@ public class Main {
 
     private static void readingClobFromDb() {
         try {
-            employeeService.getEmployeeBigNote(2);
+            System.out.println(employeeService.getEmployeeBigNote(2));
         } catch (Exception e) {
             System.out.println("Something is wrong with the clob example [reading]!");
             e.printStackTrace();
@@ -94,7 +144,7 @@ public class Main {
     private static void writingClobToDb() {
         try {
             File file = new File("big_note_sample.txt");
-            employeeService.addEmployeeBigNote(file, 2);
+            System.out.println(employeeService.addEmployeeBigNote(file, 2));
         } catch (Exception e) {
             System.out.println("Something is wrong with the clob example [writing]!");
             e.printStackTrace();
@@ -102,6 +152,21 @@ public class Main {
         System.out.println("Successfully added resume!");
     }
 
+    private static void exportExample() {
+        try {
+            System.out.println(employeeService.export(Paths.get("employees_export.csv")));
+            System.out.println(employeeService.export(Paths.get("employees_export.bin"),
+                    new ExportOptions.OptionsBuilder()
+                            .addFormat(ExportFormat.BINARY)
+                            .addThreads(connectionPool.getConfiguration().getMaximumSize())
+                            .build()));
+        } catch (Exception e) {
+            System.out.println("Something is wrong with the export example!");
+            e.printStackTrace();
+        }
+        printSeparator();
+    }
+
     private static void blobExample() {
 
         //writing to db
@@ -115,7 +180,7 @@ public class Main {
 
     private static void readingBlobFromDb() {
         try {
-            employeeService.getEmployeeResume(2);
+            System.out.println(employeeService.getEmployeeResume(2));
         } catch (Exception e) {
             System.out.println("Something is wrong with the blob example [reading]!");
             e.printStackTrace();
@@ -126,7 +191,7 @@ public class Main {
     private static void writingBlobToDb() {
         try {
             File file = new File("sample_resume.pdf");
-            employeeService.addEmployeeResume(file, 2);
+            System.out.println(employeeService.addEmployeeResume(file, 2));
         } catch (Exception e) {
             System.out.println("Something is wrong with the blob example [writing]!");
             e.printStackTrace();
@@ -135,28 +200,22 @@ public class Main {
     }
 
     private static void printQueryMetadataExample() throws SQLException {
-        ResultSetMetaData resultSetMetaData = JdbcUtils.getResultSetMetaDataForQuery(connection, "SELECT * FROM Employees");
-
-        int columnCount = resultSetMetaData.getColumnCount();
-
-        for(int i = 1; i <= columnCount; i++) {
-            System.out.println("Column name: " + resultSetMetaData.getColumnName(i));
-            System.out.println("Column type: " + resultSetMetaData.getColumnTypeName(i));
-            System.out.println("Is nullable: " + resultSetMetaData.isNullable(i));
-            System.out.println("Is autoincrement: " + resultSetMetaData.isAutoIncrement(i));
-            System.out.println("Is read only: " + resultSetMetaData.isReadOnly(i));
+        for (ColumnMetadata column : schemaMetadataService.getResultShape("SELECT * FROM Employees").getColumns()) {
+            System.out.println("Column name: " + column.getName());
+            System.out.println("Column type: " + column.getTypeName());
+            System.out.println("Is nullable: " + column.getNullable());
+            System.out.println("Is autoincrement: " + column.isAutoIncrement());
+            System.out.println("Is read only: " + column.isReadOnly());
             System.out.println();
         }
 
         printSeparator();
     }
 
-    private static LinkedHashMap<String, LogicalOperation> getExampleConditionsMap() {
-        LinkedHashMap<String, LogicalOperation> conditions = new LinkedHashMap<>();
-        conditions.put("first_name = 'John'", LogicalOperation.OR);
-        conditions.put("first_name = 'Jan'", LogicalOperation.AND);
-        conditions.put("last_name = 'Kowalski'", LogicalOperation.WITHOUT_OPERATION);
-        return conditions;
+    private static Condition getExampleCondition() {
+        return or(
+                equal("first_name", "John"),
+                and(equal("first_name", "Jan"), equal("last_name", "Kowalski")));
     }
 
     private static Map<String, Serializable> getExampleValuesToChangeMap() {
@@ -166,8 +225,8 @@ public class Main {
         return valuesToChange;
     }
 
-    private static void updateEmployeeExample(Map<String, Serializable> valuesToChange, LinkedHashMap<String, LogicalOperation> conditions) throws SQLException {
-        employeeService.update(valuesToChange,  conditions);
+    private static void updateEmployeeExample(Map<String, Serializable> valuesToChange, Condition condition) throws SQLException {
+        employeeService.update(valuesToChange, condition);
         printSeparator();
     }
 
@@ -185,6 +244,67 @@ public class Main {
         int countEngineeringDept = employeeService.getCountForDepartment(department);
         System.out.println(String.format("%s department has %d employees!",department, countEngineeringDept));
         printSeparator();
+
+        //many departments over one callable statement, failed items are reported instead of stopping the run
+        SalaryIncreaseReport salaryIncreaseReport = employeeService.increaseSalaries(Arrays.asList(
+                new SalaryIncrease("HR", new BigDecimal("100.0")),
+                new SalaryIncrease("Engineering", new BigDecimal("250.0")),
+                new SalaryIncrease("Legal", new BigDecimal("50.0"))));
+        salaryIncreaseReport.getResults().forEach(System.out::println);
+        System.out.println(salaryIncreaseReport.getReport());
+        System.out.println(employeeService.getCountsForDepartments(Arrays.asList("HR", "Engineering", "Legal")));
+        printSeparator();
+    }
+
+    private static void asyncExample() {
+        try (AsyncEmployeeService asyncEmployeeService = new AsyncEmployeeService(employeeService,
+                connectionPool.getConfiguration().getMaximumSize())) {
+            List<String> departments = List.of("HR", "Engineering", "Legal", "Sales");
+            List<CompletableFuture<Integer>> counts = new ArrayList<>();
+            for (String department : departments) {
+                counts.add(asyncEmployeeService.getCountForDepartment(department));
+            }
+            for (int i = 0; i < departments.size(); i++) {
+                System.out.println(String.format("%s department has %d employees!",
+                        departments.get(i), counts.get(i).join()));
+            }
+        } catch (Exception e) {
+            System.out.println("Something is wrong with the async example!");
+            e.printStackTrace();
+        }
+        printSeparator();
+    }
+
+    private static void writeBehindExample() {
+        try (EmployeeWriteBehind writeBehind = employeeService.writeBehind(new WriteBehindOptions.OptionsBuilder()
+                .addMaxBatchSize(100)
+                .addFlushIntervalMillis(20)
+                .build())) {
+            List<CompletableFuture<Void>> updates = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                Map<String, Serializable> values = new HashMap<>();
+                values.put("salary", new BigDecimal(50000 + i));
+                //ten employees updated hundred times each, only the last salary of each is written
+                updates.add(writeBehind.update(2 + i % 10, values));
+            }
+            CompletableFuture.allOf(updates.toArray(new CompletableFuture<?>[0])).join();
+            System.out.println(writeBehind.getStatistics());
+        } catch (Exception e) {
+            System.out.println("Something is wrong with the write-behind example!");
+            e.printStackTrace();
+        }
+        printSeparator();
+    }
+
+    private static void synchronizationExample() throws SQLException {
+        //unchanged employee is skipped, changed and new one are upserted in one batch, then the new one is deleted
+        SyncReport syncReport = employeeService.applyChanges(Arrays.asList(
+                new Employee(6, "Smith", "Paul", "paul.smith@foo.com", "Legal", 100000.0d),
+                new Employee(2, "Public", "Mary", "mary.public@foo.com", "Engineering", 77000.0d),
+                new Employee(100, "Nowak", "Anna", "anna.nowak@foo.com", "Sales", 60000.0d)),
+                Collections.singletonList(100));
+        System.out.println(syncReport);
+        printSeparator();
     }
 
     private static void selectEmployeesExample() throws SQLException {
@@ -192,8 +312,8 @@ public class Main {
         printSeparator();
     }
 
-    private static void deleteEmployeeExample(LinkedHashMap<String, LogicalOperation> conditions) throws SQLException {
-        employeeService.delete(conditions);
+    private static void deleteEmployeeExample(Condition condition) throws SQLException {
+        employeeService.delete(condition);
         printSeparator();
     }
 
@@ -207,17 +327,17 @@ public class Main {
         printSeparator();
     }
 
-    private static void printColumnsForEmployeeTable() {
+    private static void printColumnsForEmployeeTable() throws SQLException {
         System.out.println("COLUMNS IN Employee TABLE:\n");
-        JdbcUtils.getColumnsNamesForTableInConnection("employees", connection, null, null, null)
-        .forEach(System.out::println);
+        schemaMetadataService.getColumnNames("employees")
+                .forEach(System.out::println);
 
         printSeparator();
     }
 
-    private static void printTables() {
+    private static void printTables() throws SQLException {
         System.out.println("TABLES IN DATABASE:\n");
-        JdbcUtils.getTablesNamesForConnection(connection, "demo", null,null,null)
+        schemaMetadataService.getSchema("demo").getTableNames()
                 .forEach(System.out::println);
 
         printSeparator();
@@ -236,23 +356,28 @@ public class Main {
         Map<String, Serializable> valuesToChange = new HashMap<>();
         valuesToChange.put("salary", new BigDecimal("3000.0"));
 
-        LinkedHashMap<String, LogicalOperation> conditions = new LinkedHashMap<>();
-        conditions.put("department = 'HR'", LogicalOperation.WITHOUT_OPERATION);
-
         Scanner scanner = new Scanner(System.in);
 
-        connection.setAutoCommit(false);
+        //template commits or rolls back and restores the connection, deadlocks and lock wait timeouts are retried
+        TransactionTemplate transactionTemplate = new TransactionTemplate(connectionPool);
 
-        employeeService.update(valuesToChange, conditions);
+        //service over transaction aware data source, so the update is run in the template's transaction
+        EmployeeService transactionalEmployeeService = new EmployeeService(transactionTemplate.getDataSource());
 
+        //asked before the transaction, so locks are not held while waiting and a retried attempt does not ask again
         System.out.println("Are you sure that you want to update salary? Type \"yes\" for commit!");
-        if (scanner.nextLine().equals("yes")) {
-            connection.commit();
-            System.out.println("COMMIT!");
-        } else {
-            connection.rollback();
-            System.out.println("ROLLBACK!");
-        }
+        boolean confirmed = scanner.nextLine().equals("yes");
+
+        transactionTemplate.inTransaction(Connection.TRANSACTION_REPEATABLE_READ, transaction -> {
+            transactionalEmployeeService.update(valuesToChange, equal("department", "HR"));
+            if (!confirmed) {
+                transactionTemplate.setRollbackOnly();
+            }
+            return null;
+        });
+        System.out.println(confirmed ? "COMMIT!" : "ROLLBACK!");
+
+        System.out.println(transactionTemplate.getStatistics());
     }
 
     private static void printSeparator() {
@@ -260,6 +385,12 @@ public class Main {
     }
 
     private static void closeConnection() throws SQLException {
+        employeeService.getCacheStatistics().forEach((name, statistics) -> System.out.println(name + ": " + statistics));
+        System.out.println(connectionPool.getStatistics());
+        jdbcMetrics.close();
+        System.out.println(jdbcMetrics);
+        jdbcMetrics.getStatementMetrics().forEach(System.out::println);
+        connectionPool.close();
         connection.close();
     }
 }